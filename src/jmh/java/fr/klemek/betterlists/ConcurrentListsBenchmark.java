@@ -0,0 +1,164 @@
+package fr.klemek.betterlists;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the thread-safe lists (BetterVector, BetterStack and
+ * BetterCopyOnWriteArrayList) shared by several threads: operator scans, indexed reads, appends,
+ * and a mixed group of scanning readers and writers replacing elements (3 readers per writer by
+ * default).
+ * <p>
+ * Run a single thread count from the benchmarks JAR (mvn -P benchmarks package), -t setting the
+ * threads of scan, get and append and -tg the readers and writers of mixed:
+ * <pre>
+ * java -jar target/benchmarks.jar ConcurrentListsBenchmark -t 8 -tg 6,2
+ * </pre>
+ * or print the throughput curves from 1 to 64 threads, one table per benchmark:
+ * <pre>
+ * java -cp target/benchmarks.jar fr.klemek.betterlists.ConcurrentListsBenchmark
+ * </pre>
+ * A throughput dropping while threads are added is the sign of lock contention collapse.
+ *
+ * @author Klemek
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConcurrentListsBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    @Param({"VECTOR", "STACK", "COPY_ON_WRITE"})
+    private String implementation;
+
+    @Param({"1000"})
+    private int size;
+
+    private BetterList<Integer> list;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        switch (implementation) {
+            case "VECTOR":
+                list = new BetterVector<>();
+                break;
+            case "STACK":
+                list = new BetterStack<>();
+                break;
+            default:
+                list = new BetterCopyOnWriteArrayList<>();
+                break;
+        }
+        for (int i = 0; i < size; i++)
+            list.add(i);
+    }
+
+    @Benchmark
+    public int scan() {
+        return list.count(e -> (e & 1) == 0);
+    }
+
+    @Benchmark
+    public Integer get() {
+        return list.get(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    /**
+     * Appends an element, the list being cleared once it doubled so that the copies of
+     * COPY_ON_WRITE stay of the same order as the other benchmarks.
+     */
+    @Benchmark
+    public void append() {
+        list.add(1);
+        if (list.size() >= 2 * size)
+            list.clear();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public int mixedScan() {
+        return list.count(e -> (e & 1) == 0);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Integer mixedWrite() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return list.set(random.nextInt(size), random.nextInt());
+    }
+
+    /**
+     * Runs each benchmark from 1 to 64 threads and prints the throughput (ops/ms) of each list per
+     * thread count.
+     *
+     * @param args - unused
+     * @throws RunnerException if a benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        for (String benchmark : new String[]{"scan", "get", "append", "mixed"}) {
+            Map<Integer, Map<String, Double>> curve = new LinkedHashMap<>();
+            for (int threads : THREADS) {
+                OptionsBuilder options = new OptionsBuilder();
+                options.include(ConcurrentListsBenchmark.class.getSimpleName() + "\\." + benchmark + "$");
+                if (benchmark.equals("mixed")) {
+                    if (threads == 1)
+                        continue;
+                    int writers = Math.max(1, threads / 4);
+                    options.threadGroups(threads - writers, writers);
+                } else {
+                    options.threads(threads);
+                }
+                curve.put(threads, run(options.build()));
+            }
+            print(benchmark, curve);
+        }
+    }
+
+    private static Map<String, Double> run(Options options) throws RunnerException {
+        Collection<RunResult> results = new Runner(options).run();
+        Map<String, Double> scores = new LinkedHashMap<>();
+        for (RunResult result : results)
+            scores.put(result.getParams().getParam("implementation"), result.getPrimaryResult().getScore());
+        return scores;
+    }
+
+    private static void print(String benchmark, Map<Integer, Map<String, Double>> curve) {
+        System.out.println();
+        System.out.println(benchmark + " (ops/ms)");
+        System.out.printf("%8s%16s%16s%16s%n", "threads", "VECTOR", "STACK", "COPY_ON_WRITE");
+        for (Map.Entry<Integer, Map<String, Double>> entry : curve.entrySet()) {
+            Map<String, Double> scores = entry.getValue();
+            System.out.printf("%8d%16.1f%16.1f%16.1f%n", entry.getKey(), scores.get("VECTOR"), scores.get("STACK"),
+                    scores.get("COPY_ON_WRITE"));
+        }
+    }
+}
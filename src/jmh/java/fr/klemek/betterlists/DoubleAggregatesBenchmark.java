@@ -0,0 +1,103 @@
+package fr.klemek.betterlists;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and the SIMD aggregates of BetterDoubleList, and the boxed aggregates of a
+ * BetterArrayList of Double.
+ * <p>
+ * Run from the multi-release benchmarks JAR built on JDK 21+ (mvn -P benchmarks package), the
+ * forks resolving jdk.incubator.vector:
+ * <pre>
+ * java -jar target/benchmarks.jar DoubleAggregatesBenchmark
+ * </pre>
+ *
+ * @author Klemek
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class DoubleAggregatesBenchmark {
+
+    @Param({"1000", "1000000"})
+    private int size;
+
+    private double[] values;
+    private BetterDoubleList doubleList;
+    private BetterArrayList<Double> boxedList;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        values = new double[size];
+        boxedList = new BetterArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble();
+            boxedList.add(values[i]);
+        }
+        doubleList = BetterDoubleList.asList(values);
+        if (!DoubleAggregates.isVectorized())
+            System.err.println("Vector API not available, vector benchmarks run the scalar loops");
+    }
+
+    @Benchmark
+    public double sumScalar() {
+        return ScalarDoubleAggregates.sum(values, size);
+    }
+
+    @Benchmark
+    public double sumVector() {
+        return doubleList.sum();
+    }
+
+    @Benchmark
+    public Double sumBoxed() {
+        return boxedList.sum(d -> d);
+    }
+
+    @Benchmark
+    public double maxScalar() {
+        return ScalarDoubleAggregates.max(values, size);
+    }
+
+    @Benchmark
+    public Double maxVector() {
+        return doubleList.max();
+    }
+
+    @Benchmark
+    public Double maxBoxed() {
+        return boxedList.max(d -> d);
+    }
+
+    @Benchmark
+    public int countScalar() {
+        return ScalarDoubleAggregates.countGreaterThan(values, size, 0.5);
+    }
+
+    @Benchmark
+    public int countVector() {
+        return doubleList.countGreaterThan(0.5);
+    }
+
+    @Benchmark
+    public int countBoxed() {
+        return boxedList.count(d -> d > 0.5);
+    }
+}
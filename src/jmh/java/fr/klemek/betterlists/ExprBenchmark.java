@@ -0,0 +1,93 @@
+package fr.klemek.betterlists;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares the evaluation of a rule written as a lambda, as an Expr and as a simplified Expr, counting
+ * the matching rows of a BetterArrayList.
+ * <p>
+ * The rule is built with nested and() calls, as rules assembled at runtime are, so that simplify()
+ * has nodes to flatten. Run from the benchmarks JAR (mvn -P benchmarks package):
+ * <pre>
+ * java -jar target/benchmarks.jar ExprBenchmark
+ * </pre>
+ *
+ * @author Klemek
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExprBenchmark {
+
+    private static final String[] COUNTRIES = {"FR", "BE", "DE", "IT", "ES"};
+
+    @Param({"1000", "1000000"})
+    private int size;
+
+    private BetterArrayList<Row> rows;
+    private Function<Row, Boolean> lambda;
+    private Expr<Row> expr;
+    private Expr<Row> simplified;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        rows = new BetterArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            rows.add(new Row(random.nextInt(80), COUNTRIES[random.nextInt(COUNTRIES.length)], random.nextDouble()));
+        Set<String> countries = new HashSet<>(Arrays.asList("FR", "BE"));
+        lambda = r -> r.age >= 21 && countries.contains(r.country) && r.score < 0.5 && r.score >= 0.1;
+        expr = Expr.<Row>longField(r -> r.age).ge(21)
+                .and(Expr.<Row, String>field(r -> r.country).in("FR", "BE"))
+                .and(Expr.<Row>doubleField(r -> r.score).lt(0.5)
+                        .and(Expr.<Row>doubleField(r -> r.score).ge(0.1)));
+        simplified = expr.simplify();
+    }
+
+    @Benchmark
+    public int lambda() {
+        return rows.count(lambda);
+    }
+
+    @Benchmark
+    public int expr() {
+        return rows.count(expr);
+    }
+
+    @Benchmark
+    public int simplified() {
+        return rows.count(simplified);
+    }
+
+    private static final class Row {
+        private final long age;
+        private final String country;
+        private final double score;
+
+        private Row(long age, String country, double score) {
+            this.age = age;
+            this.country = country;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package fr.klemek.betterlists;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The Deque operations of a BetterList, expressed with the end operations (addFirst, addLast,
+ * pollFirst, pollLast) that implementations override.
+ *
+ * @param <T> the type of the elements
+ * @author Klemek
+ */
+abstract class AbstractBetterDeque<T> extends AbstractList<T> implements BetterDeque<T> {
+
+    @Override
+    public void addFirst(T element) {
+        add(0, element);
+    }
+
+    @Override
+    public void addLast(T element) {
+        add(size(), element);
+    }
+
+    @Override
+    public T pollFirst() {
+        return isEmpty() ? null : remove(0);
+    }
+
+    @Override
+    public T pollLast() {
+        return isEmpty() ? null : remove(size() - 1);
+    }
+
+    @Override
+    public T peekFirst() {
+        return isEmpty() ? null : get(0);
+    }
+
+    @Override
+    public T peekLast() {
+        return isEmpty() ? null : get(size() - 1);
+    }
+
+    @Override
+    public BetterDeque<T> reversed() {
+        return new ReversedView<>(this);
+    }
+
+    @Override
+    public boolean add(T element) {
+        addLast(element);
+        return true;
+    }
+
+    @Override
+    public boolean offerFirst(T element) {
+        addFirst(element);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(T element) {
+        addLast(element);
+        return true;
+    }
+
+    @Override
+    public T removeFirst() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return pollFirst();
+    }
+
+    @Override
+    public T removeLast() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return pollLast();
+    }
+
+    @Override
+    public T getFirst() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return peekFirst();
+    }
+
+    @Override
+    public T getLast() {
+        if (isEmpty())
+            throw new NoSuchElementException();
+        return peekLast();
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        return remove(o);
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        int index = lastIndexOf(o);
+        if (index < 0)
+            return false;
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public boolean offer(T element) {
+        return offerLast(element);
+    }
+
+    @Override
+    public T remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public T poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public T element() {
+        return getFirst();
+    }
+
+    @Override
+    public T peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public void push(T element) {
+        addFirst(element);
+    }
+
+    @Override
+    public T pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public Iterator<T> descendingIterator() {
+        ListIterator<T> iterator = listIterator(size());
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasPrevious();
+            }
+
+            @Override
+            public T next() {
+                return iterator.previous();
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+            }
+        };
+    }
+
+    /**
+     * A reverse-ordered view of a deque, mapping each index to its mirror and each end to the
+     * other one.
+     */
+    private static final class ReversedView<T> extends AbstractBetterDeque<T> {
+
+        private final AbstractBetterDeque<T> deque;
+
+        ReversedView(AbstractBetterDeque<T> deque) {
+            this.deque = deque;
+        }
+
+        @Override
+        public int size() {
+            return deque.size();
+        }
+
+        @Override
+        public T get(int index) {
+            checkIndex(index);
+            return deque.get(deque.size() - 1 - index);
+        }
+
+        @Override
+        public T set(int index, T element) {
+            checkIndex(index);
+            return deque.set(deque.size() - 1 - index, element);
+        }
+
+        @Override
+        public void add(int index, T element) {
+            if (index < 0 || index > size())
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+            deque.add(deque.size() - index, element);
+        }
+
+        @Override
+        public T remove(int index) {
+            checkIndex(index);
+            return deque.remove(deque.size() - 1 - index);
+        }
+
+        @Override
+        public void clear() {
+            deque.clear();
+        }
+
+        @Override
+        public void addFirst(T element) {
+            deque.addLast(element);
+        }
+
+        @Override
+        public void addLast(T element) {
+            deque.addFirst(element);
+        }
+
+        @Override
+        public T pollFirst() {
+            return deque.pollLast();
+        }
+
+        @Override
+        public T pollLast() {
+            return deque.pollFirst();
+        }
+
+        @Override
+        public T peekFirst() {
+            return deque.peekLast();
+        }
+
+        @Override
+        public T peekLast() {
+            return deque.peekFirst();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return deque.descendingIterator();
+        }
+
+        @Override
+        public Iterator<T> descendingIterator() {
+            return deque.iterator();
+        }
+
+        @Override
+        public BetterDeque<T> reversed() {
+            return deque;
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= size())
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+    }
+}
@@ -0,0 +1,549 @@
+package fr.klemek.betterlists;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A BetterList which switches its internal representation at runtime depending on the observed mix
+ * of operations, between a BetterArrayList and a BetterChunkedList, or which can be pinned to a
+ * BetterCopyOnWriteArrayList to be read from other threads.
+ * <p>
+ * Every operation is counted by kind: indexed reads and writes, edits at the tail, at the head or in
+ * the middle, scans, and reads from another thread than the last writer. Every WINDOW operations of
+ * the writer thread, the cost of the window is estimated for each representation (an indexed
+ * access into a chunked list costs a chunk lookup, an insertion at the head of an array shifts all
+ * its elements, any write into a copy-on-write list copies all of them...) and the list migrates to
+ * the cheapest representation once the savings it would have brought over the last windows exceed
+ * twice the cost of copying the elements.
+ * <p>
+ * Like ArrayList, it is not synchronized: writes must come from a single thread at a time, and
+ * other threads may only read once the list was pinned to COPY_ON_WRITE, which is never selected
+ * automatically (reads from other threads are counted, to detect a missing pin). Migrations are
+ * not modifications: iterators continue over the new representation. While the representation is
+ * COPY_ON_WRITE, iterators are snapshots of the list and do not support remove (removeIf and the
+ * other bulk removals do). The counters and migrations can be inspected with getStats for tuning.
+ *
+ * @author Klemek
+ */
+public class AdaptiveBetterList<T> extends AbstractList<T> implements BetterList<T> {
+
+    /**
+     * The number of operations of the writer thread between two evaluations of the cost model.
+     */
+    public static final int WINDOW = 1024;
+
+    private static final double CHUNK_CAPACITY = 128d;
+    private static final double MIGRATION_FACTOR = 2d;
+
+    /**
+     * The internal representations of an AdaptiveBetterList.
+     */
+    public enum Representation {
+        /**
+         * A BetterArrayList: fast indexed access and appends, slow insertions at the head and in the
+         * middle.
+         */
+        ARRAY,
+        /**
+         * A BetterChunkedList: fast insertions at both ends and cheaper insertions in the middle,
+         * slower indexed access.
+         */
+        CHUNKED,
+        /**
+         * A BetterCopyOnWriteArrayList: fast reads, allowed from any thread, and a full copy for
+         * each write. Only selected by pin.
+         */
+        COPY_ON_WRITE
+    }
+
+    /**
+     * The kinds of operations counted.
+     */
+    enum Op {
+        INDEXED_READ, INDEXED_WRITE, TAIL_EDIT, HEAD_EDIT, MIDDLE_EDIT, SCAN, FOREIGN_READ
+    }
+
+    private static final Op[] OPS = Op.values();
+    private static final Representation[] ADAPTIVE = {Representation.ARRAY, Representation.CHUNKED};
+
+    private volatile BetterList<T> delegate;
+    private volatile Representation representation;
+    private volatile boolean pinned;
+    private volatile Thread writer;
+    private final LongAdder[] totals = newCounters();
+    private final LongAdder[] window = newCounters();
+    private final LongAdder migrations = new LongAdder();
+    private volatile Map<Representation, Double> lastCosts = new EnumMap<>(Representation.class);
+    private int operationsSinceEvaluation;
+    private Representation candidate;
+    private double savings;
+
+    /**
+     * Constructs a list containing the elements of the specified collection, in the order they are
+     * returned by the collection's iterator.
+     *
+     * @param <T> - the type of List
+     * @param c   - the collection whose elements are to be placed into this list
+     * @return the constructed list
+     */
+    public static <T> AdaptiveBetterList<T> fromList(Collection<T> c) {
+        return new AdaptiveBetterList<>(c);
+    }
+
+    /**
+     * Constructs an empty list, starting with the ARRAY representation.
+     */
+    public AdaptiveBetterList() {
+        this.delegate = new BetterArrayList<>();
+        this.representation = Representation.ARRAY;
+        this.writer = Thread.currentThread();
+    }
+
+    /**
+     * Constructs a list containing the elements of the specified collection, in the order they are
+     * returned by the collection's iterator, starting with the ARRAY representation.
+     *
+     * @param c - the collection whose elements are to be placed into this list
+     */
+    public AdaptiveBetterList(Collection<? extends T> c) {
+        this.delegate = new BetterArrayList<>(c);
+        this.representation = Representation.ARRAY;
+        this.writer = Thread.currentThread();
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] counters = new LongAdder[OPS.length];
+        for (int i = 0; i < counters.length; i++)
+            counters[i] = new LongAdder();
+        return counters;
+    }
+
+    /**
+     * @return the current representation of the list
+     */
+    public Representation getRepresentation() {
+        return representation;
+    }
+
+    /**
+     * Migrates the list to a representation and disables the adaptation until unpin is called.
+     *
+     * @param target - the representation to use
+     */
+    public void pin(Representation target) {
+        pinned = true;
+        migrate(target);
+    }
+
+    /**
+     * Enables back the adaptation of the representation after pin.
+     */
+    public void unpin() {
+        pinned = false;
+    }
+
+    /**
+     * @return a snapshot of the counters and decisions of the list
+     */
+    public Stats getStats() {
+        long[] counts = new long[OPS.length];
+        for (int i = 0; i < counts.length; i++)
+            counts[i] = totals[i].sum();
+        return new Stats(representation, migrations.sum(), counts, lastCosts);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public T get(int index) {
+        read(Op.INDEXED_READ);
+        return delegate.get(index);
+    }
+
+    @Override
+    public T set(int index, T element) {
+        write(Op.INDEXED_WRITE);
+        return delegate.set(index, element);
+    }
+
+    @Override
+    public void add(int index, T element) {
+        write(editAt(index, delegate.size() + 1));
+        delegate.add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        write(editAt(index, delegate.size()));
+        T old = delegate.remove(index);
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        write(Op.TAIL_EDIT);
+        delegate.clear();
+        modCount++;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        write(Op.SCAN);
+        boolean removed = delegate.removeIf(filter);
+        if (removed)
+            modCount++;
+        return removed;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        write(Op.SCAN);
+        boolean removed = delegate.removeAll(c);
+        if (removed)
+            modCount++;
+        return removed;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        write(Op.SCAN);
+        boolean removed = delegate.retainAll(c);
+        if (removed)
+            modCount++;
+        return removed;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        read(Op.SCAN);
+        BetterList<T> current = delegate;
+        if (current instanceof BetterCopyOnWriteArrayList)
+            return current.iterator();
+        return new Itr(current);
+    }
+
+    @Override
+    public boolean all(Function<T, Boolean> predicate) {
+        read(Op.SCAN);
+        return delegate.all(predicate);
+    }
+
+    @Override
+    public boolean any(Function<T, Boolean> predicate) {
+        read(Op.SCAN);
+        return delegate.any(predicate);
+    }
+
+    @Override
+    public int count() {
+        return delegate.size();
+    }
+
+    @Override
+    public int count(Function<T, Boolean> predicate) {
+        read(Op.SCAN);
+        return delegate.count(predicate);
+    }
+
+    @Override
+    public Double max(Function<T, Double> selector) {
+        read(Op.SCAN);
+        return delegate.max(selector);
+    }
+
+    @Override
+    public Double min(Function<T, Double> selector) {
+        read(Op.SCAN);
+        return delegate.min(selector);
+    }
+
+    @Override
+    public <E> BetterList<E> select(Function<T, E> selector) {
+        read(Op.SCAN);
+        return delegate.select(selector);
+    }
+
+    @Override
+    public Double sum(Function<T, Double> selector) {
+        read(Op.SCAN);
+        return delegate.sum(selector);
+    }
+
+    @Override
+    public BetterList<T> where(Function<T, Boolean> predicate) {
+        read(Op.SCAN);
+        return delegate.where(predicate);
+    }
+
+    private static Op editAt(int index, int size) {
+        if (index == size - 1)
+            return Op.TAIL_EDIT;
+        return index == 0 ? Op.HEAD_EDIT : Op.MIDDLE_EDIT;
+    }
+
+    private void read(Op op) {
+        if (Thread.currentThread() != writer) {
+            count(Op.FOREIGN_READ);
+            return;
+        }
+        count(op);
+        tick();
+    }
+
+    private void write(Op op) {
+        writer = Thread.currentThread();
+        count(op);
+        tick();
+    }
+
+    private void count(Op op) {
+        totals[op.ordinal()].increment();
+        window[op.ordinal()].increment();
+    }
+
+    private void tick() {
+        if (++operationsSinceEvaluation >= WINDOW) {
+            operationsSinceEvaluation = 0;
+            evaluate();
+        }
+    }
+
+    private void evaluate() {
+        long[] counts = new long[OPS.length];
+        for (int i = 0; i < counts.length; i++)
+            counts[i] = window[i].sumThenReset();
+        int n = delegate.size();
+        Map<Representation, Double> costs = new EnumMap<>(Representation.class);
+        for (Representation r : Representation.values())
+            costs.put(r, cost(r, counts, n));
+        lastCosts = costs;
+        if (pinned)
+            return;
+        Representation best = representation;
+        for (Representation r : ADAPTIVE)
+            if (costs.get(r) < costs.get(best))
+                best = r;
+        if (best != candidate)
+            savings = 0d;
+        candidate = best;
+        savings += costs.get(representation) - costs.get(best);
+        if (savings > MIGRATION_FACTOR * n)
+            migrate(best);
+    }
+
+    /**
+     * Estimates the cost of a window of operations in a representation, in element accesses.
+     */
+    static double cost(Representation r, long[] counts, int n) {
+        double reads = counts[Op.INDEXED_READ.ordinal()] + counts[Op.INDEXED_WRITE.ordinal()];
+        double tail = counts[Op.TAIL_EDIT.ordinal()];
+        double head = counts[Op.HEAD_EDIT.ordinal()];
+        double middle = counts[Op.MIDDLE_EDIT.ordinal()];
+        double scans = (double) counts[Op.SCAN.ordinal()] * n;
+        double writes = counts[Op.INDEXED_WRITE.ordinal()] + tail + head + middle;
+        switch (r) {
+            case ARRAY:
+                return reads + tail + head * n + middle * n / 2d + scans;
+            case CHUNKED:
+                double lookup = 2d + log2(n / CHUNK_CAPACITY + 1d);
+                return reads * lookup + tail + head + middle * (CHUNK_CAPACITY + n / CHUNK_CAPACITY) + scans;
+            default:
+                return reads + writes * n + scans;
+        }
+    }
+
+    private static double log2(double x) {
+        return Math.log(x) / Math.log(2d);
+    }
+
+    private void migrate(Representation target) {
+        if (target == representation)
+            return;
+        switch (target) {
+            case ARRAY:
+                delegate = new BetterArrayList<>(delegate);
+                break;
+            case CHUNKED:
+                delegate = new BetterChunkedList<>(delegate);
+                break;
+            default:
+                delegate = new BetterCopyOnWriteArrayList<>(delegate);
+                break;
+        }
+        representation = target;
+        candidate = null;
+        savings = 0d;
+        migrations.increment();
+    }
+
+    /**
+     * Iterates over the delegate, moving to the new delegate at the same position after a
+     * migration.
+     */
+    private final class Itr implements Iterator<T> {
+        private BetterList<T> source;
+        private Iterator<T> iterator;
+        private int cursor;
+        private boolean canRemove;
+        private int expectedModCount = modCount;
+
+        Itr(BetterList<T> source) {
+            this.source = source;
+            this.iterator = source.iterator();
+        }
+
+        private Iterator<T> current() {
+            if (source != delegate) {
+                source = delegate;
+                iterator = source.listIterator(cursor);
+            }
+            return iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current().hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            T element = current().next();
+            cursor++;
+            canRemove = true;
+            return element;
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (source == delegate) {
+                iterator.remove();
+            } else {
+                source = delegate;
+                source.remove(cursor - 1);
+                iterator = source.listIterator(cursor - 1);
+            }
+            cursor--;
+            canRemove = false;
+            modCount++;
+            expectedModCount = modCount;
+        }
+    }
+
+    /**
+     * A snapshot of the operation counters and decisions of an AdaptiveBetterList.
+     */
+    public static final class Stats {
+
+        private final Representation representation;
+        private final long migrations;
+        private final long[] counts;
+        private final Map<Representation, Double> lastCosts;
+
+        Stats(Representation representation, long migrations, long[] counts, Map<Representation, Double> lastCosts) {
+            this.representation = representation;
+            this.migrations = migrations;
+            this.counts = counts;
+            this.lastCosts = lastCosts;
+        }
+
+        /**
+         * @return the representation at the time of the snapshot
+         */
+        public Representation getRepresentation() {
+            return representation;
+        }
+
+        /**
+         * @return the number of migrations between representations
+         */
+        public long getMigrations() {
+            return migrations;
+        }
+
+        /**
+         * @return the number of get calls of the writer thread
+         */
+        public long getIndexedReads() {
+            return counts[Op.INDEXED_READ.ordinal()];
+        }
+
+        /**
+         * @return the number of set calls
+         */
+        public long getIndexedWrites() {
+            return counts[Op.INDEXED_WRITE.ordinal()];
+        }
+
+        /**
+         * @return the number of insertions and removals at the end of the list (and clear calls)
+         */
+        public long getTailEdits() {
+            return counts[Op.TAIL_EDIT.ordinal()];
+        }
+
+        /**
+         * @return the number of insertions and removals at the start of the list
+         */
+        public long getHeadEdits() {
+            return counts[Op.HEAD_EDIT.ordinal()];
+        }
+
+        /**
+         * @return the number of insertions and removals in the middle of the list
+         */
+        public long getMiddleEdits() {
+            return counts[Op.MIDDLE_EDIT.ordinal()];
+        }
+
+        /**
+         * @return the number of iterations and query operators of the writer thread
+         */
+        public long getScans() {
+            return counts[Op.SCAN.ordinal()];
+        }
+
+        /**
+         * @return the number of reads from another thread than the last writer, which are only
+         * allowed while the list is pinned to COPY_ON_WRITE
+         */
+        public long getForeignReads() {
+            return counts[Op.FOREIGN_READ.ordinal()];
+        }
+
+        /**
+         * Returns the cost of the last evaluated window of operations, estimated in element
+         * accesses, for each representation.
+         *
+         * @return the estimated costs or an empty map if no window was evaluated yet
+         */
+        public Map<Representation, Double> getLastCosts() {
+            return new EnumMap<>(lastCosts);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s migrations=%d reads=%d writes=%d tail=%d head=%d middle=%d scans=%d " +
+                            "foreignReads=%d costs=%s", representation, migrations, getIndexedReads(),
+                    getIndexedWrites(), getTailEdits(), getHeadEdits(), getMiddleEdits(), getScans(),
+                    getForeignReads(), lastCosts);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package fr.klemek.betterlists;
+
+import java.util.function.Function;
+
+/**
+ * Operators of BetterList written as indexed loops over the first size elements of an array,
+ * used by the lists giving access to their backing array or to a snapshot of it.
+ * <p>
+ * Each method notifies the metrics hook like the default operator it replaces, and runs a check
+ * before reading each element so that a list modified by the applied function fails fast instead
+ * of reading stale slots of its array.
+ *
+ * @author Klemek
+ */
+final class ArrayLoops {
+
+    /**
+     * No check, for the loops over a snapshot which cannot be modified.
+     */
+    static final Check NONE = () -> {
+    };
+
+    private ArrayLoops() {
+    }
+
+    /**
+     * Checked before reading each element.
+     */
+    interface Check {
+
+        /**
+         * @throws java.util.ConcurrentModificationException if the list was modified
+         */
+        void check();
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> boolean all(BetterListMetrics metrics, Object[] elements, int size, Check check,
+                           Function<T, Boolean> predicate) {
+        long start = BetterListInstrumentation.start(metrics);
+        for (int i = 0; i < size; i++) {
+            check.check();
+            if (!predicate.apply((T) elements[i])) {
+                BetterListInstrumentation.end(metrics, "all", start, i + 1, 0, false);
+                return false;
+            }
+        }
+        BetterListInstrumentation.end(metrics, "all", start, size, size, false);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> boolean any(BetterListMetrics metrics, Object[] elements, int size, Check check,
+                           Function<T, Boolean> predicate) {
+        long start = BetterListInstrumentation.start(metrics);
+        for (int i = 0; i < size; i++) {
+            check.check();
+            if (predicate.apply((T) elements[i])) {
+                BetterListInstrumentation.end(metrics, "any", start, i + 1, 1, false);
+                return true;
+            }
+        }
+        BetterListInstrumentation.end(metrics, "any", start, size, 0, false);
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> int count(BetterListMetrics metrics, Object[] elements, int size, Check check,
+                         Function<T, Boolean> predicate) {
+        long start = BetterListInstrumentation.start(metrics);
+        int out = 0;
+        for (int i = 0; i < size; i++) {
+            check.check();
+            if (predicate.apply((T) elements[i]))
+                out++;
+        }
+        BetterListInstrumentation.end(metrics, "count", start, size, out, false);
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> Double max(BetterListMetrics metrics, Object[] elements, int size, Check check,
+                          Function<T, Double> selector) {
+        long start = BetterListInstrumentation.start(metrics);
+        Double max = null;
+        for (int i = 0; i < size; i++) {
+            check.check();
+            Double value = selector.apply((T) elements[i]);
+            if (max == null || value > max)
+                max = value;
+        }
+        BetterListInstrumentation.end(metrics, "max", start, size, max == null ? 0 : 1, false);
+        return max;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> Double min(BetterListMetrics metrics, Object[] elements, int size, Check check,
+                          Function<T, Double> selector) {
+        long start = BetterListInstrumentation.start(metrics);
+        Double min = null;
+        for (int i = 0; i < size; i++) {
+            check.check();
+            Double value = selector.apply((T) elements[i]);
+            if (min == null || value < min)
+                min = value;
+        }
+        BetterListInstrumentation.end(metrics, "min", start, size, min == null ? 0 : 1, false);
+        return min;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> Double sum(BetterListMetrics metrics, Object[] elements, int size, Check check,
+                          Function<T, Double> selector) {
+        long start = BetterListInstrumentation.start(metrics);
+        double sum = 0d;
+        for (int i = 0; i < size; i++) {
+            check.check();
+            sum += selector.apply((T) elements[i]);
+        }
+        BetterListInstrumentation.end(metrics, "sum", start, size, 1, false);
+        return sum;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T, E> BetterList<E> select(BetterListMetrics metrics, Object[] elements, int size, Check check,
+                                       Function<T, E> selector) {
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<E> out = new BetterArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            check.check();
+            out.add(selector.apply((T) elements[i]));
+        }
+        BetterListInstrumentation.end(metrics, "select", start, size, size, true);
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> BetterList<T> where(BetterListMetrics metrics, Object[] elements, int size, Check check,
+                                   Function<T, Boolean> predicate) {
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>();
+        for (int i = 0; i < size; i++) {
+            check.check();
+            T element = (T) elements[i];
+            if (predicate.apply(element))
+                out.add(element);
+        }
+        BetterListInstrumentation.end(metrics, "where", start, size, out.size(), true);
+        return out;
+    }
+}
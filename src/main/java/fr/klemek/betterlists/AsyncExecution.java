@@ -0,0 +1,99 @@
+package fr.klemek.betterlists;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Fan-out execution used by the asynchronous BetterList operators.
+ *
+ * @author Klemek
+ */
+final class AsyncExecution {
+
+    private static final Method VIRTUAL_EXECUTOR_FACTORY = findVirtualExecutorFactory();
+
+    private AsyncExecution() {
+    }
+
+    private static Method findVirtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates an executor running each task on a new virtual thread, or a pool of maxConcurrency
+     * daemon platform threads when virtual threads are not available (before JDK 21).
+     *
+     * @param maxConcurrency - the maximum number of tasks running at the same time
+     * @return a new executor, to shut down by the caller
+     */
+    static ExecutorService newExecutor(int maxConcurrency) {
+        if (VIRTUAL_EXECUTOR_FACTORY != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR_FACTORY.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // fall back to platform threads
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread thread = new Thread(r, "betterlists-async-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(maxConcurrency, factory);
+    }
+
+    /**
+     * Applies a function to every element of an array, with at most maxConcurrency calls running
+     * at the same time. Results are stored at the index of their source element.
+     *
+     * @param source         - the elements to transform
+     * @param function       - the function to apply
+     * @param maxConcurrency - the maximum number of concurrent calls
+     * @param executor       - the executor running the workers
+     * @return a future completed with the results or with the first error thrown by the function
+     */
+    @SuppressWarnings("unchecked")
+    static <T, E> CompletableFuture<Object[]> map(Object[] source, Function<T, E> function, int maxConcurrency,
+                                                  Executor executor) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        CompletableFuture<Object[]> future = new CompletableFuture<>();
+        Object[] results = new Object[source.length];
+        if (source.length == 0) {
+            future.complete(results);
+            return future;
+        }
+        int workers = Math.min(maxConcurrency, source.length);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(workers);
+        Runnable worker = () -> {
+            try {
+                int i;
+                while (!future.isDone() && (i = next.getAndIncrement()) < source.length)
+                    results[i] = function.apply((T) source[i]);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+            if (remaining.decrementAndGet() == 0)
+                future.complete(results);
+        };
+        try {
+            for (int i = 0; i < workers; i++)
+                executor.execute(worker);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -0,0 +1,348 @@
+package fr.klemek.betterlists;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A resizable circular array implementing both BetterList and Deque, an unsynchronized
+ * replacement for BetterStack.
+ * <p>
+ * Like java.util.ArrayDeque, push and pop work on the first element: used as a stack, the top of
+ * the stack is at index 0 and the query operators see the elements in LIFO order. Used as a queue,
+ * offer appends at the end and poll removes the first element. Insertions and removals at both
+ * ends are amortized O(1), indexed access is O(1) and insertions and removals in the middle move
+ * the elements of the shortest side.
+ *
+ * @author Klemek
+ * @see BetterStack
+ * @see java.util.ArrayDeque
+ */
+public class BetterArrayDeque<T> extends AbstractBetterDeque<T> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private Object[] elements;
+    private int head;
+    private int size;
+
+    /**
+     * Constructs a deque containing the elements of the specified collection, in the order they
+     * are returned by the collection's iterator.
+     *
+     * @param <T> - the type of List
+     * @param c   - the collection whose elements are to be placed into this deque
+     * @return the constructed deque
+     */
+    public static <T> BetterArrayDeque<T> fromList(Collection<T> c) {
+        return new BetterArrayDeque<>(c);
+    }
+
+    /**
+     * Constructs a deque containing the elements given in argument.
+     *
+     * @param <T> - the type of List
+     * @param a   - the elements to be placed into this deque
+     * @return the constructed deque
+     */
+    @SafeVarargs
+    public static <T> BetterArrayDeque<T> asList(T... a) {
+        return new BetterArrayDeque<>(a);
+    }
+
+    /**
+     * Constructs an empty deque with an initial capacity of 16 elements.
+     */
+    public BetterArrayDeque() {
+        this.elements = new Object[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Constructs an empty deque with enough room for the specified number of elements, rounded up
+     * to a power of two.
+     *
+     * @param initialCapacity - the initial capacity of the deque
+     * @throws IllegalArgumentException if the specified initial capacity is negative
+     */
+    public BetterArrayDeque(int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+        this.elements = new Object[capacityFor(initialCapacity)];
+    }
+
+    /**
+     * Constructs a deque containing the elements of the specified collection, in the order they
+     * are returned by the collection's iterator.
+     *
+     * @param c - the collection whose elements are to be placed into this deque
+     */
+    public BetterArrayDeque(Collection<? extends T> c) {
+        this(c.size());
+        for (T element : c)
+            addLast(element);
+    }
+
+    /**
+     * Constructs a deque containing the elements given in argument.
+     *
+     * @param a - the elements to be placed into this deque
+     */
+    @SafeVarargs
+    public BetterArrayDeque(T... a) {
+        this(Arrays.asList(a));
+    }
+
+    private static int capacityFor(int count) {
+        if (count <= DEFAULT_CAPACITY)
+            return DEFAULT_CAPACITY;
+        if (count > MAX_CAPACITY)
+            throw new IllegalArgumentException("Capacity too large: " + count);
+        return Integer.highestOneBit(count - 1) << 1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        checkIndex(index);
+        return (T) elements[(head + index) & (elements.length - 1)];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T set(int index, T element) {
+        checkIndex(index);
+        int i = (head + index) & (elements.length - 1);
+        T old = (T) elements[i];
+        elements[i] = element;
+        return old;
+    }
+
+    @Override
+    public void addFirst(T element) {
+        if (size == elements.length)
+            grow();
+        head = (head - 1) & (elements.length - 1);
+        elements[head] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public void addLast(T element) {
+        if (size == elements.length)
+            grow();
+        elements[(head + size) & (elements.length - 1)] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        if (index == size) {
+            addLast(element);
+            return;
+        }
+        if (index == 0) {
+            addFirst(element);
+            return;
+        }
+        if (size == elements.length)
+            grow();
+        int mask = elements.length - 1;
+        if (index < size / 2) {
+            head = (head - 1) & mask;
+            for (int i = 0; i < index; i++)
+                elements[(head + i) & mask] = elements[(head + i + 1) & mask];
+        } else {
+            for (int i = size; i > index; i--)
+                elements[(head + i) & mask] = elements[(head + i - 1) & mask];
+        }
+        elements[(head + index) & mask] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T pollFirst() {
+        if (size == 0)
+            return null;
+        T element = (T) elements[head];
+        elements[head] = null;
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        modCount++;
+        return element;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T pollLast() {
+        if (size == 0)
+            return null;
+        int i = (head + size - 1) & (elements.length - 1);
+        T element = (T) elements[i];
+        elements[i] = null;
+        size--;
+        modCount++;
+        return element;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T peekFirst() {
+        return (T) elements[head];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T peekLast() {
+        return size == 0 ? null : (T) elements[(head + size - 1) & (elements.length - 1)];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T remove(int index) {
+        checkIndex(index);
+        int mask = elements.length - 1;
+        T element = (T) elements[(head + index) & mask];
+        if (index < size / 2) {
+            for (int i = index; i > 0; i--)
+                elements[(head + i) & mask] = elements[(head + i - 1) & mask];
+            elements[head] = null;
+            head = (head + 1) & mask;
+        } else {
+            for (int i = index; i < size - 1; i++)
+                elements[(head + i) & mask] = elements[(head + i + 1) & mask];
+            elements[(head + size - 1) & mask] = null;
+        }
+        size--;
+        modCount++;
+        return element;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super T> filter) {
+        int mask = elements.length - 1;
+        long[] removed = new long[(size + 63) >> 6];
+        int expectedModCount = modCount;
+        for (int i = 0; i < size; i++)
+            if (filter.test((T) elements[(head + i) & mask]))
+                removed[i >> 6] |= 1L << i;
+        if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+            if ((removed[i >> 6] & (1L << i)) == 0)
+                elements[(head + kept++) & mask] = elements[(head + i) & mask];
+        if (kept == size)
+            return false;
+        for (int i = kept; i < size; i++)
+            elements[(head + i) & mask] = null;
+        size = kept;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        int mask = elements.length - 1;
+        for (int i = 0; i < size; i++)
+            elements[(head + i) & mask] = null;
+        head = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] out = new Object[size];
+        copyTo(out);
+        return out;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super T> action) {
+        int expectedModCount = modCount;
+        Object[] items = elements;
+        int mask = items.length - 1;
+        for (int i = 0; i < size && modCount == expectedModCount; i++)
+            action.accept((T) items[(head + i) & mask]);
+        if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    private void copyTo(Object[] target) {
+        int firstPart = Math.min(size, elements.length - head);
+        System.arraycopy(elements, head, target, 0, firstPart);
+        System.arraycopy(elements, 0, target, firstPart, size - firstPart);
+    }
+
+    private void grow() {
+        if (elements.length == MAX_CAPACITY)
+            throw new IllegalStateException("Deque too big");
+        Object[] newElements = new Object[elements.length << 1];
+        copyTo(newElements);
+        elements = newElements;
+        head = 0;
+    }
+
+    private final class Itr implements Iterator<T> {
+        private int index;
+        private int lastReturned = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return index < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            if (index >= size)
+                throw new NoSuchElementException();
+            lastReturned = index++;
+            return (T) elements[(head + lastReturned) & (elements.length - 1)];
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned < 0)
+                throw new IllegalStateException();
+            if (modCount != expectedModCount)
+                throw new ConcurrentModificationException();
+            BetterArrayDeque.this.remove(lastReturned);
+            index = lastReturned;
+            lastReturned = -1;
+            expectedModCount = modCount;
+        }
+    }
+}
@@ -3,10 +3,16 @@ package fr.klemek.betterlists;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.function.Function;
 
 /**
  * An extension of the java.util.ArrayList class which include some of the C#
  * LINQ useful functions.
+ * <p>
+ * The all, any, count, max, min, select, sum and where operators run indexed loops which stop, like
+ * ArrayList.forEach, as soon as the applied function modified the list, then throw a
+ * ConcurrentModificationException.
  *
  * @author Klemek
  * @see java.util.ArrayList
@@ -95,4 +101,139 @@ public class BetterArrayList<T> extends ArrayList<T> implements BetterList<T> {
     public BetterArrayList<T> subList(int fromIndex, int toIndex) {
         return (BetterArrayList<T>) super.subList(fromIndex, toIndex);
     }
+
+    @Override
+    public boolean all(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int expectedModCount = modCount;
+        int size = size();
+        for (int i = 0; i < size && modCount == expectedModCount; i++) {
+            if (!predicate.apply(get(i))) {
+                checkForComodification(expectedModCount);
+                BetterListInstrumentation.end(metrics, "all", start, i + 1, 0, false);
+                return false;
+            }
+        }
+        checkForComodification(expectedModCount);
+        BetterListInstrumentation.end(metrics, "all", start, size, size, false);
+        return true;
+    }
+
+    @Override
+    public boolean any(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int expectedModCount = modCount;
+        int size = size();
+        for (int i = 0; i < size && modCount == expectedModCount; i++) {
+            if (predicate.apply(get(i))) {
+                checkForComodification(expectedModCount);
+                BetterListInstrumentation.end(metrics, "any", start, i + 1, 1, false);
+                return true;
+            }
+        }
+        checkForComodification(expectedModCount);
+        BetterListInstrumentation.end(metrics, "any", start, size, 0, false);
+        return false;
+    }
+
+    @Override
+    public int count(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int expectedModCount = modCount;
+        int size = size();
+        int out = 0;
+        for (int i = 0; i < size && modCount == expectedModCount; i++)
+            if (predicate.apply(get(i)))
+                out++;
+        checkForComodification(expectedModCount);
+        BetterListInstrumentation.end(metrics, "count", start, size, out, false);
+        return out;
+    }
+
+    @Override
+    public Double max(Function<T, Double> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int expectedModCount = modCount;
+        int size = size();
+        Double max = null;
+        for (int i = 0; i < size && modCount == expectedModCount; i++) {
+            Double value = selector.apply(get(i));
+            if (max == null || value > max)
+                max = value;
+        }
+        checkForComodification(expectedModCount);
+        BetterListInstrumentation.end(metrics, "max", start, size, max == null ? 0 : 1, false);
+        return max;
+    }
+
+    @Override
+    public Double min(Function<T, Double> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int expectedModCount = modCount;
+        int size = size();
+        Double min = null;
+        for (int i = 0; i < size && modCount == expectedModCount; i++) {
+            Double value = selector.apply(get(i));
+            if (min == null || value < min)
+                min = value;
+        }
+        checkForComodification(expectedModCount);
+        BetterListInstrumentation.end(metrics, "min", start, size, min == null ? 0 : 1, false);
+        return min;
+    }
+
+    @Override
+    public <E> BetterList<E> select(Function<T, E> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int expectedModCount = modCount;
+        int size = size();
+        BetterList<E> out = new BetterArrayList<>(size);
+        for (int i = 0; i < size && modCount == expectedModCount; i++)
+            out.add(selector.apply(get(i)));
+        checkForComodification(expectedModCount);
+        BetterListInstrumentation.end(metrics, "select", start, size, size, true);
+        return out;
+    }
+
+    @Override
+    public Double sum(Function<T, Double> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int expectedModCount = modCount;
+        int size = size();
+        double sum = 0d;
+        for (int i = 0; i < size && modCount == expectedModCount; i++)
+            sum += selector.apply(get(i));
+        checkForComodification(expectedModCount);
+        BetterListInstrumentation.end(metrics, "sum", start, size, 1, false);
+        return sum;
+    }
+
+    @Override
+    public BetterList<T> where(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int expectedModCount = modCount;
+        int size = size();
+        BetterList<T> out = new BetterArrayList<>();
+        for (int i = 0; i < size && modCount == expectedModCount; i++) {
+            T element = get(i);
+            if (predicate.apply(element))
+                out.add(element);
+        }
+        checkForComodification(expectedModCount);
+        BetterListInstrumentation.end(metrics, "where", start, size, out.size(), true);
+        return out;
+    }
+
+    private void checkForComodification(int expectedModCount) {
+        if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+    }
 }
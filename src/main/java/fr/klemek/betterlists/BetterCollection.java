@@ -0,0 +1,1438 @@
+package fr.klemek.betterlists;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An extension of the java.util.Collection interface which include some of the C#
+ * LINQ useful functions. It is the query vocabulary shared by BetterList, BetterSet and the views
+ * of BetterHashMap: the operators visit the elements in the iteration order of the collection and
+ * return lists.
+ *
+ * @author Klemek
+ * @see java.util.Collection
+ */
+public interface BetterCollection<T> extends Collection<T> {
+
+    /**
+     * Returns the metrics hook notified by the operators of this collection. By default the global
+     * hook of BetterListInstrumentation is used, override this method to instrument a single
+     * collection.
+     *
+     * @return the metrics hook or null if instrumentation is disabled.
+     * @see BetterListInstrumentation#setGlobalMetrics(BetterListMetrics)
+     */
+    default BetterListMetrics metrics() {
+        return BetterListInstrumentation.getGlobalMetrics();
+    }
+
+    /**
+     * Appends all the elements of a collection to this collection, like addAll. The array-backed
+     * lists grow at most once.
+     *
+     * @param elements - The elements to add.
+     * @return The number of elements added.
+     */
+    default int addRange(Collection<? extends T> elements) {
+        int before = size();
+        addAll(elements);
+        return size() - before;
+    }
+
+    /**
+     * Applies an accumulator function over the sequence. The specified seed value is used as the
+     * initial accumulator value.
+     *
+     * @param <A>         The type of the accumulator value
+     * @param seed        - The initial accumulator value.
+     * @param accumulator - An accumulator function to be invoked on each element.
+     * @return The final accumulator value.
+     */
+    default <A> A aggregate(A seed, BiFunction<A, ? super T, A> accumulator) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        A value = seed;
+        for (T element : this)
+            value = accumulator.apply(value, element);
+        BetterListInstrumentation.end(metrics, "aggregate", start, size(), 1, false);
+        return value;
+    }
+
+    /**
+     * Applies an accumulator function over the sequence, then transforms the final accumulator
+     * value with a finisher function. Large random-access lists are split in index ranges reduced
+     * in parallel on the common ForkJoinPool: each range starts from a new seed value and the
+     * partial results are merged in order by the combiner.
+     * <p>
+     * The combiner must be associative and combining with a new seed value must not change a
+     * result. The seed supplier must return a new container on each call when the accumulator
+     * mutates it.
+     *
+     * @param <A>          The type of the accumulator value
+     * @param <R>          The type of the result
+     * @param seedSupplier - A function returning the initial accumulator value.
+     * @param accumulator  - An accumulator function to be invoked on each element.
+     * @param combiner     - A function merging two partial accumulator values.
+     * @param finisher     - A function to transform the final accumulator value into the result
+     *                     value.
+     * @return The transformed final accumulator value.
+     */
+    @SuppressWarnings("unchecked")
+    default <A, R> R aggregate(Supplier<A> seedSupplier, BiFunction<A, ? super T, A> accumulator,
+                               BinaryOperator<A> combiner, Function<A, R> finisher) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        A value;
+        if (this instanceof RandomAccess && this instanceof List) {
+            value = ParallelAggregation.aggregate((List<T>) this, seedSupplier, accumulator, combiner);
+        } else {
+            value = seedSupplier.get();
+            for (T element : this)
+                value = accumulator.apply(value, element);
+        }
+        R out = finisher.apply(value);
+        BetterListInstrumentation.end(metrics, "aggregate", start, size(), 1, false);
+        return out;
+    }
+
+    /**
+     * Determines whether all elements of the sequence satisfy a condition.
+     *
+     * @param predicate - A function to test each element for a condition.
+     * @return true if every element of the source sequence passes the test in the
+     * specified predicate, or if the sequence is empty; otherwise, false.
+     */
+    default boolean all(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int n = 0;
+        for (T element : this) {
+            n++;
+            if (!predicate.apply(element)) {
+                BetterListInstrumentation.end(metrics, "all", start, n, 0, false);
+                return false;
+            }
+        }
+        BetterListInstrumentation.end(metrics, "all", start, n, n, false);
+        return true;
+    }
+
+    /**
+     * Determines whether any element of the sequence satisfies a condition.
+     *
+     * @param predicate - A function to test each element for a condition.
+     * @return true if any elements in the source sequence pass the test in the
+     * specified predicate; otherwise, false.
+     */
+    default boolean any(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int n = 0;
+        for (T element : this) {
+            n++;
+            if (predicate.apply(element)) {
+                BetterListInstrumentation.end(metrics, "any", start, n, 1, false);
+                return true;
+            }
+        }
+        BetterListInstrumentation.end(metrics, "any", start, n, 0, false);
+        return false;
+    }
+
+    /**
+     * Estimates the number of distinct values obtained by invoking a transform function on each
+     * element of the sequence, using a HyperLogLog sketch of 2^precision bytes.
+     *
+     * @param <E>       The type of the projected values
+     * @param selector  - A transform function to apply to each element.
+     * @param precision - The precision of the sketch, between 4 and 18. The relative standard
+     *                  error of the estimate is about 1.04 / sqrt(2^precision).
+     * @return The estimated number of distinct projected values.
+     * @throws IllegalArgumentException If the precision is out of range.
+     * @see HyperLogLog#precisionFor(double)
+     */
+    default <E> long approxCountDistinct(Function<T, E> selector, int precision) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (T element : this)
+            sketch.add(selector.apply(element));
+        long out = sketch.estimate();
+        BetterListInstrumentation.end(metrics, "approxCountDistinct", start, size(), out, false);
+        return out;
+    }
+
+    /**
+     * Produces the probabilistic set exclusion of two sequences, using a Bloom filter of the other
+     * sequence instead of its contains method.
+     *
+     * @param other             - Another sequence whose elements form the second set for the
+     *                          exclusion.
+     * @param falsePositiveRate - The probability for an element absent from the other sequence to be
+     *                          excluded anyway, between 0 and 1 (exclusive).
+     * @return A List that contains the elements from the first sequence not present in the other,
+     * minus a fraction (about falsePositiveRate) of them.
+     */
+    default BetterList<T> bloomExclusion(Collection<? extends T> other, double falsePositiveRate) {
+        BloomFilter<T> filter = new BloomFilter<>(other.size(), falsePositiveRate);
+        for (T element : other)
+            filter.put(element);
+        return bloomExclusion(filter);
+    }
+
+    /**
+     * Produces the probabilistic set exclusion of the sequence and the elements of a Bloom filter.
+     *
+     * @param filter - A Bloom filter of the elements to exclude.
+     * @return A List that contains the elements from the sequence which are definitely not in the
+     * filter.
+     */
+    default BetterList<T> bloomExclusion(BloomFilter<? super T> filter) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>();
+        for (T element : this)
+            if (!filter.mightContain(element))
+                out.add(element);
+        BetterListInstrumentation.end(metrics, "bloomExclusion", start, size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Returns the number of elements in the sequence.
+     *
+     * @return The number of elements in the input sequence.
+     */
+    default int count() {
+        return count(e -> true);
+    }
+
+    /**
+     * Returns a number that represents how many elements in the specified sequence
+     * satisfy a condition.
+     *
+     * @param predicate - A function to test each element for a condition.
+     * @return A number that represents how many elements in the sequence satisfy
+     * the condition in the predicate function.
+     */
+    default int count(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int out = 0;
+        for (T element : this)
+            if (predicate.apply(element))
+                out++;
+        BetterListInstrumentation.end(metrics, "count", start, size(), out, false);
+        return out;
+    }
+
+    /**
+     * Returns distinct elements from the sequence, in order of first appearance.
+     *
+     * @return A List that contains distinct elements from the sequence.
+     */
+    default BetterList<T> distinct() {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>(new LinkedHashSet<>(this));
+        BetterListInstrumentation.end(metrics, "distinct", start, size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Produces the set exclusion of two sequences. The membership of the elements is tested with
+     * the contains method of the other sequence when it is a Set, and in a HashSet of its elements
+     * otherwise.
+     *
+     * @param other - Another sequence whose distinct elements form the second set for the
+     *              exclusion.
+     * @return A List that contains the elements from the first sequence not present
+     * in the other.
+     */
+    default BetterList<T> exclusion(Collection<T> other) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        Collection<T> lookup = QuerySupport.lookup(other);
+        BetterList<T> out = new BetterArrayList<>();
+        for (T element : this)
+            if (!lookup.contains(element))
+                out.add(element);
+        BetterListInstrumentation.end(metrics, "exclusion", start, size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Returns the first element in the sequence.
+     *
+     * @return The first element in the sequence.
+     * @throws NoSuchElementException If the sequence is empty.
+     */
+    default T first() {
+        return first(e -> true);
+    }
+
+    /**
+     * Returns the first element in the sequence that satisfies a specified
+     * condition.
+     *
+     * @param predicate - A function to test each element for a condition.
+     * @return The first element in the sequence that passes the test in the
+     * specified predicate function.
+     * @throws NoSuchElementException No element satisfies the condition in predicate or the sequence
+     *                                is empty.
+     */
+    default T first(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int n = 0;
+        for (T element : this) {
+            n++;
+            if (predicate.apply(element)) {
+                BetterListInstrumentation.end(metrics, "first", start, n, 1, false);
+                return element;
+            }
+        }
+        BetterListInstrumentation.end(metrics, "first", start, n, 0, false);
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * Returns the first element of the sequence that satisfies a condition or the
+     * default value if no such element is found.
+     *
+     * @param predicate    - A function to test each element for a condition.
+     * @param defaultValue - A default value to be returned if no element passes the test
+     * @return defaultValue if the sequence is empty or if no element passes the
+     * test specified by predicate; otherwise, the first element in the
+     * sequence that passes the test specified by predicate.
+     */
+    default T firstOrDefault(Function<T, Boolean> predicate, T defaultValue) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int n = 0;
+        for (T element : this) {
+            n++;
+            if (predicate.apply(element)) {
+                BetterListInstrumentation.end(metrics, "firstOrDefault", start, n, 1, false);
+                return element;
+            }
+        }
+        BetterListInstrumentation.end(metrics, "firstOrDefault", start, n, 0, false);
+        return defaultValue;
+    }
+
+    /**
+     * Returns the first element of the sequence or a default value if the sequence
+     * is empty.
+     *
+     * @param defaultValue - A default value to be returned if the sequence is empty
+     * @return defaultValue if the sequence is empty otherwise, the first element in
+     * the sequence.
+     */
+    default T firstOrDefault(T defaultValue) {
+        return firstOrDefault(e -> true, defaultValue);
+    }
+
+    /**
+     * Groups the elements of a sequence according to a specified key selector function.
+     *
+     * @param <K>         The type of the keys
+     * @param keySelector - A function to extract the key of each element.
+     * @return A map of the keys, in order of first appearance, and the List of the elements having
+     * each key.
+     */
+    default <K> Map<K, BetterList<T>> groupBy(Function<T, K> keySelector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        Map<K, BetterList<T>> out = new LinkedHashMap<>();
+        for (T element : this)
+            out.computeIfAbsent(keySelector.apply(element), k -> new BetterArrayList<>()).add(element);
+        BetterListInstrumentation.end(metrics, "groupBy", start, size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Returns the last element of the sequence.
+     *
+     * @return the last element of the sequence.
+     * @throws NoSuchElementException If the sequence is empty.
+     */
+    default T last() {
+        return last(e -> true);
+    }
+
+    /**
+     * Returns the last element of the sequence that satisfies a specified
+     * condition.
+     *
+     * @param predicate - A function to test each element for a condition.
+     * @return the last element of the sequence that satisfies a specified
+     * condition.
+     * @throws NoSuchElementException No element satisfies the condition in predicate or the sequence
+     *                                is empty.
+     */
+    default T last(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        T value = null;
+        for (T element : this)
+            if (predicate.apply(element))
+                value = element;
+        BetterListInstrumentation.end(metrics, "last", start, size(), value == null ? 0 : 1, false);
+        if (value == null)
+            throw new NoSuchElementException();
+        return value;
+    }
+
+    /**
+     * Returns the last element of the sequence that satisfies a condition or the
+     * default value if no such element is found.
+     *
+     * @param predicate    - A function to test each element for a condition.
+     * @param defaultValue - A default value to be returned if no element passes the test
+     * @return defaultValue if the sequence is empty or if no element passes the
+     * test specified by predicate; otherwise, the last element in the
+     * sequence that passes the test specified by predicate.
+     */
+    default T lastOrDefault(Function<T, Boolean> predicate, T defaultValue) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        T value = null;
+        for (T element : this)
+            if (predicate.apply(element))
+                value = element;
+        BetterListInstrumentation.end(metrics, "lastOrDefault", start, size(), value == null ? 0 : 1, false);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Returns the last element of the sequence or a default value if the sequence
+     * is empty.
+     *
+     * @param defaultValue - A default value to be returned if the sequence is empty
+     * @return defaultValue if the sequence is empty otherwise, the last element in
+     * the sequence.
+     */
+    default T lastOrDefault(T defaultValue) {
+        return lastOrDefault(e -> true, defaultValue);
+    }
+
+    /**
+     * Invokes a transform function on each element of the sequence and returns the
+     * maximum nullable Double value.
+     *
+     * @param selector - A transform function to apply to each element.
+     * @return The value of type Double that corresponds to the maximum value in the
+     * sequence or null if the sequence is empty.
+     */
+    default Double max(Function<T, Double> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        Double max = null;
+        for (T element : this)
+            if (max == null || selector.apply(element) > max)
+                max = selector.apply(element);
+        BetterListInstrumentation.end(metrics, "max", start, size(), max == null ? 0 : 1, false);
+        return max;
+    }
+
+    /**
+     * Returns the element of the sequence with the maximum key, the first one in case of ties.
+     *
+     * @param <E>         The type of the keys
+     * @param keySelector - A function to extract the key of each element.
+     * @return The element with the maximum key or null if the sequence is empty.
+     */
+    default <E extends Comparable<E>> T maxBy(Function<T, E> keySelector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        T out = null;
+        E best = null;
+        boolean found = false;
+        for (T element : this) {
+            E key = keySelector.apply(element);
+            if (!found || key.compareTo(best) > 0) {
+                out = element;
+                best = key;
+                found = true;
+            }
+        }
+        BetterListInstrumentation.end(metrics, "maxBy", start, size(), found ? 1 : 0, false);
+        return out;
+    }
+
+    /**
+     * Computes the mean of the sequence of Double values that are obtained by
+     * invoking a transform function on each element of the input sequence.
+     *
+     * @param selector - A transform function to apply to each element.
+     * @return The mean of the projected values. Null if the sequence contains no
+     * elements.
+     */
+    default Double mean(Function<T, Double> selector) {
+        int count = this.count();
+        if (count == 0)
+            return null;
+        return this.sum(selector) / this.count();
+    }
+
+    /**
+     * Invokes a transform function on each element of the sequence and returns the
+     * minimum nullable Double value.
+     *
+     * @param selector - A transform function to apply to each element.
+     * @return The value of type Double that corresponds to the minimum value in the
+     * sequence or null if the sequence is empty.
+     */
+    default Double min(Function<T, Double> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        Double min = null;
+        for (T element : this)
+            if (min == null || selector.apply(element) < min)
+                min = selector.apply(element);
+        BetterListInstrumentation.end(metrics, "min", start, size(), min == null ? 0 : 1, false);
+        return min;
+    }
+
+    /**
+     * Returns the element of the sequence with the minimum key, the first one in case of ties.
+     *
+     * @param <E>         The type of the keys
+     * @param keySelector - A function to extract the key of each element.
+     * @return The element with the minimum key or null if the sequence is empty.
+     */
+    default <E extends Comparable<E>> T minBy(Function<T, E> keySelector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        T out = null;
+        E best = null;
+        boolean found = false;
+        for (T element : this) {
+            E key = keySelector.apply(element);
+            if (!found || key.compareTo(best) < 0) {
+                out = element;
+                best = key;
+                found = true;
+            }
+        }
+        BetterListInstrumentation.end(metrics, "minBy", start, size(), found ? 1 : 0, false);
+        return out;
+    }
+
+    /**
+     * Estimates a percentile of the sequence of Double values that are obtained by invoking a
+     * transform function on each element of the input sequence, in one pass and bounded memory
+     * (t-digest).
+     *
+     * @param selector - A transform function to apply to each element.
+     * @param q        - The quantile to estimate, between 0 and 1 (0.99 for the 99th percentile).
+     * @return The estimated percentile of the projected values. Null if the sequence contains no
+     * elements.
+     * @throws IllegalArgumentException If q is out of range.
+     */
+    default Double percentile(Function<T, Double> selector, double q) {
+        return quantiles(selector, q).get(0);
+    }
+
+    /**
+     * Computes the exact percentile of the sequence of Double values that are obtained by invoking
+     * a transform function on each element of the input sequence, interpolating linearly between
+     * the two closest ranks. The values are selected in linear time, without sorting, but are all
+     * kept in memory.
+     *
+     * @param selector - A transform function to apply to each element.
+     * @param q        - The quantile to compute, between 0 and 1 (0.99 for the 99th percentile).
+     * @return The percentile of the projected values, NaN values being ignored. Null if the
+     * sequence contains no elements.
+     * @throws IllegalArgumentException If q is out of range.
+     */
+    default Double exactPercentile(Function<T, Double> selector, double q) {
+        if (q < 0 || q > 1)
+            throw new IllegalArgumentException("q must be between 0 and 1: " + q);
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        double[] values = new double[size()];
+        int n = 0;
+        for (T element : this) {
+            double value = selector.apply(element);
+            if (!Double.isNaN(value))
+                values[n++] = value;
+        }
+        Double out = n == 0 ? null : Selection.quantile(Arrays.copyOf(values, n), q);
+        BetterListInstrumentation.end(metrics, "exactPercentile", start, size(), 1, false);
+        return out;
+    }
+
+    /**
+     * Estimates several percentiles of the sequence of Double values that are obtained by invoking
+     * a transform function on each element of the input sequence, in one pass and bounded memory
+     * (t-digest).
+     *
+     * @param selector - A transform function to apply to each element.
+     * @param qs       - The quantiles to estimate, between 0 and 1.
+     * @return A List of the estimated percentiles, in the order of the given quantiles, containing
+     * null values if the sequence contains no elements.
+     * @throws IllegalArgumentException If a quantile is out of range.
+     */
+    default BetterList<Double> quantiles(Function<T, Double> selector, double... qs) {
+        for (double q : qs)
+            if (q < 0 || q > 1)
+                throw new IllegalArgumentException("q must be between 0 and 1: " + q);
+        TDigest digest = toDigest(selector, TDigest.DEFAULT_COMPRESSION);
+        BetterList<Double> out = new BetterArrayList<>(qs.length);
+        for (double q : qs)
+            out.add(digest.size() == 0 ? null : digest.quantile(q));
+        return out;
+    }
+
+    /**
+     * Builds a t-digest of the sequence of Double values that are obtained by invoking a transform
+     * function on each element of the input sequence. Digests of several sequences can be merged
+     * before querying their quantiles.
+     *
+     * @param selector    - A transform function to apply to each element.
+     * @param compression - The compression factor of the digest, 100 being a common value.
+     * @return A digest of the projected values.
+     * @see TDigest#merge(TDigest)
+     */
+    default TDigest toDigest(Function<T, Double> selector, double compression) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        TDigest digest = new TDigest(compression);
+        for (T element : this)
+            digest.add(selector.apply(element));
+        BetterListInstrumentation.end(metrics, "toDigest", start, size(), 1, false);
+        return digest;
+    }
+
+    /**
+     * Sorts the elements of a sequence in ascending order by using a specified comparer.
+     *
+     * @param <E>      The type of the projected values lists
+     * @param selector - A transform function to apply to each element.
+     * @return a List whose elements are sorted according to a key.
+     */
+    default <E extends Comparable<E>> BetterList<T> orderBy(Function<T, E> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>();
+        out.addAll(this);
+        Collections.sort(out, (o1, o2) -> selector.apply(o1).compareTo(selector.apply(o2)));
+        BetterListInstrumentation.end(metrics, "orderBy", start, out.size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Sorts the elements of a sequence in ascending order by using a specified comparer, holding at
+     * most maxElementsInMemory elements in memory: sorted runs are spilled to temporary files with
+     * the given codec then merged while iterating. The sort is stable.
+     *
+     * @param <E>                 The type of the projected values lists
+     * @param selector            - A transform function to apply to each element.
+     * @param maxElementsInMemory - The maximum number of elements held in memory by the sort.
+     * @param codec               - The codec used to write and read back the spilled elements.
+     * @return an Iterator of the elements sorted according to a key, deleting the temporary files
+     * when exhausted or closed.
+     * @throws java.io.UncheckedIOException If the temporary files cannot be written or read.
+     */
+    default <E extends Comparable<E>> CloseableIterator<T> orderBy(Function<T, E> selector, int maxElementsInMemory,
+                                                                   BetterListCodec<T> codec) {
+        return orderBy(selector, maxElementsInMemory, codec, null);
+    }
+
+    /**
+     * Sorts the elements of a sequence in ascending order by using a specified comparer, holding at
+     * most maxElementsInMemory elements in memory: sorted runs are spilled to temporary files of
+     * the given directory then merged while iterating. The sort is stable.
+     *
+     * @param <E>                 The type of the projected values lists
+     * @param selector            - A transform function to apply to each element.
+     * @param maxElementsInMemory - The maximum number of elements held in memory by the sort.
+     * @param codec               - The codec used to write and read back the spilled elements.
+     * @param directory           - The directory of the temporary files, null for the default
+     *                            temporary directory.
+     * @return an Iterator of the elements sorted according to a key, deleting the temporary files
+     * when exhausted or closed.
+     * @throws java.io.UncheckedIOException If the temporary files cannot be written or read.
+     */
+    default <E extends Comparable<E>> CloseableIterator<T> orderBy(Function<T, E> selector, int maxElementsInMemory,
+                                                                   BetterListCodec<T> codec, Path directory) {
+        return ExternalSort.sort(this, (o1, o2) -> selector.apply(o1).compareTo(selector.apply(o2)),
+                maxElementsInMemory, codec, directory);
+    }
+
+    /**
+     * Sorts the elements of a sequence in descending order by using a specified comparer, holding
+     * at most maxElementsInMemory elements in memory: sorted runs are spilled to temporary files
+     * with the given codec then merged while iterating. The sort is stable.
+     *
+     * @param <E>                 The type of the projected values lists
+     * @param selector            - A transform function to apply to each element.
+     * @param maxElementsInMemory - The maximum number of elements held in memory by the sort.
+     * @param codec               - The codec used to write and read back the spilled elements.
+     * @return an Iterator of the elements sorted according to a key, deleting the temporary files
+     * when exhausted or closed.
+     * @throws java.io.UncheckedIOException If the temporary files cannot be written or read.
+     */
+    default <E extends Comparable<E>> CloseableIterator<T> orderByDescending(Function<T, E> selector,
+                                                                             int maxElementsInMemory,
+                                                                             BetterListCodec<T> codec) {
+        return orderByDescending(selector, maxElementsInMemory, codec, null);
+    }
+
+    /**
+     * Sorts the elements of a sequence in descending order by using a specified comparer, holding
+     * at most maxElementsInMemory elements in memory: sorted runs are spilled to temporary files of
+     * the given directory then merged while iterating. The sort is stable.
+     *
+     * @param <E>                 The type of the projected values lists
+     * @param selector            - A transform function to apply to each element.
+     * @param maxElementsInMemory - The maximum number of elements held in memory by the sort.
+     * @param codec               - The codec used to write and read back the spilled elements.
+     * @param directory           - The directory of the temporary files, null for the default
+     *                            temporary directory.
+     * @return an Iterator of the elements sorted according to a key, deleting the temporary files
+     * when exhausted or closed.
+     * @throws java.io.UncheckedIOException If the temporary files cannot be written or read.
+     */
+    default <E extends Comparable<E>> CloseableIterator<T> orderByDescending(Function<T, E> selector,
+                                                                             int maxElementsInMemory,
+                                                                             BetterListCodec<T> codec,
+                                                                             Path directory) {
+        return ExternalSort.sort(this, (o1, o2) -> selector.apply(o2).compareTo(selector.apply(o1)),
+                maxElementsInMemory, codec, directory);
+    }
+
+    /**
+     * Sorts the elements of a sequence in ascending order by using a specified comparer into the
+     * given list, holding at most maxElementsInMemory elements in memory besides the target.
+     *
+     * @param <E>                 The type of the projected values lists
+     * @param <L>                 The type of the target list
+     * @param target              - The list the sorted elements are appended to.
+     * @param selector            - A transform function to apply to each element.
+     * @param maxElementsInMemory - The maximum number of elements held in memory by the sort.
+     * @param codec               - The codec used to write and read back the spilled elements.
+     * @return the target list.
+     * @throws java.io.UncheckedIOException If the temporary files cannot be written or read.
+     */
+    default <E extends Comparable<E>, L extends List<T>> L orderByInto(L target, Function<T, E> selector,
+                                                                       int maxElementsInMemory,
+                                                                       BetterListCodec<T> codec) {
+        return orderByInto(target, selector, maxElementsInMemory, codec, null);
+    }
+
+    /**
+     * Sorts the elements of a sequence in ascending order by using a specified comparer into the
+     * given list, holding at most maxElementsInMemory elements in memory besides the target and
+     * spilling the sorted runs to temporary files of the given directory.
+     *
+     * @param <E>                 The type of the projected values lists
+     * @param <L>                 The type of the target list
+     * @param target              - The list the sorted elements are appended to.
+     * @param selector            - A transform function to apply to each element.
+     * @param maxElementsInMemory - The maximum number of elements held in memory by the sort.
+     * @param codec               - The codec used to write and read back the spilled elements.
+     * @param directory           - The directory of the temporary files, null for the default
+     *                            temporary directory.
+     * @return the target list.
+     * @throws java.io.UncheckedIOException If the temporary files cannot be written or read.
+     */
+    default <E extends Comparable<E>, L extends List<T>> L orderByInto(L target, Function<T, E> selector,
+                                                                       int maxElementsInMemory,
+                                                                       BetterListCodec<T> codec, Path directory) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int n = 0;
+        try (CloseableIterator<T> sorted = orderBy(selector, maxElementsInMemory, codec, directory)) {
+            while (sorted.hasNext()) {
+                target.add(sorted.next());
+                n++;
+            }
+        }
+        BetterListInstrumentation.end(metrics, "orderByInto", start, n, n, false);
+        return target;
+    }
+
+    /**
+     * Sorts the elements of a sequence in descending order by using a specified comparer.
+     *
+     * @param <E>      The type of the projected values lists
+     * @param selector - A transform function to apply to each element.
+     * @return a List whose elements are sorted according to a key.
+     */
+    default <E extends Comparable<E>> BetterList<T> orderByDescending(Function<T, E> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>();
+        out.addAll(this);
+        Collections.sort(out, (o1, o2) -> selector.apply(o2).compareTo(selector.apply(o1)));
+        BetterListInstrumentation.end(metrics, "orderByDescending", start, out.size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Removes all the elements of the collection that satisfy a predicate, in a single pass: the
+     * array-backed lists compact their remaining elements in place instead of shifting them after
+     * each removal. The predicate is applied once per element, and if it fails the collection is
+     * left unchanged by the array-backed lists.
+     *
+     * @param predicate - A function to test each element for a condition.
+     * @return The number of elements removed.
+     */
+    default int removeWhere(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int before = size();
+        removeIf(predicate::apply);
+        int removed = before - size();
+        BetterListInstrumentation.end(metrics, "removeWhere", start, before, removed, false);
+        return removed;
+    }
+
+    /**
+     * Removes all the elements of the collection that do not satisfy a predicate, in a single
+     * pass.
+     *
+     * @param predicate - A function to test each element for a condition.
+     * @return The number of elements removed.
+     * @see #removeWhere(Function)
+     */
+    default int retainWhere(Function<T, Boolean> predicate) {
+        return removeWhere(element -> !predicate.apply(element));
+    }
+
+    /**
+     * Inverts the order of the elements in the sequence.
+     *
+     * @return A sequence whose elements correspond to those of the sequence in
+     * reverse order.
+     */
+    default BetterList<T> reverse() {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>(this.size());
+        for (T element : this)
+            out.add(0, element);
+        BetterListInstrumentation.end(metrics, "reverse", start, out.size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Returns a uniform random sample of the sequence, picked in one pass (reservoir sampling).
+     *
+     * @param count - The number of elements to pick.
+     * @return A List of count elements of the sequence (or all of them if the sequence is
+     * shorter), in no particular order.
+     */
+    default BetterList<T> sample(int count) {
+        return sample(count, new Random().nextLong());
+    }
+
+    /**
+     * Returns a uniform random sample of the sequence, picked in one pass (reservoir sampling).
+     *
+     * @param count - The number of elements to pick.
+     * @param seed  - The seed of the random generator, the same seed always giving the same sample
+     *              of the same sequence.
+     * @return A List of count elements of the sequence (or all of them if the sequence is
+     * shorter), in no particular order.
+     */
+    default BetterList<T> sample(int count, long seed) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        Random random = new Random(seed);
+        BetterList<T> out = new BetterArrayList<>(Math.min(count, size()));
+        int n = 0;
+        for (T element : this) {
+            if (n < count) {
+                out.add(element);
+            } else {
+                int j = random.nextInt(n + 1);
+                if (j < count)
+                    out.set(j, element);
+            }
+            n++;
+        }
+        BetterListInstrumentation.end(metrics, "sample", start, n, out.size(), true);
+        return out;
+    }
+
+    /**
+     * Projects each element of a sequence into a new form.
+     *
+     * @param <E>      The type of the projected values
+     * @param selector - A transform function to apply to each element.
+     * @return A List whose elements are the result of invoking the transform
+     * function on each element of the sequence.
+     */
+    default <E> BetterList<E> select(Function<T, E> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<E> out = new BetterArrayList<>(size());
+        for (T element : this)
+            out.add(selector.apply(element));
+        BetterListInstrumentation.end(metrics, "select", start, out.size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Projects each element of a sequence into a new form by incorporating the element's index.
+     *
+     * @param <E>      The type of the projected values
+     * @param selector - A transform function to apply to each element and its index.
+     * @return a List whose elements are the result of invoking the transform function on each
+     * element.
+     */
+    default <E> BetterList<E> selectIndexed(BiFunction<T, Integer, E> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<E> out = new BetterArrayList<>(size());
+        int index = 0;
+        for (T element : this)
+            out.add(selector.apply(element, index++));
+        BetterListInstrumentation.end(metrics, "selectIndexed", start, out.size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Projects each element of a sequence into a new form, running up to maxConcurrency
+     * transformations at the same time. Transformations run on virtual threads when available
+     * (JDK 21+) or on a temporary pool of platform threads otherwise.
+     *
+     * @param <E>            The type of the projected values
+     * @param selector       - A transform function to apply to each element, can block.
+     * @param maxConcurrency - The maximum number of transformations running at the same time.
+     * @return A future completed with a List whose elements are the result of invoking the
+     * transform function on each element of the sequence, in the same order, or completed
+     * exceptionally with the first error thrown by the transform function.
+     * @throws IllegalArgumentException If maxConcurrency is lower than 1.
+     */
+    default <E> CompletableFuture<BetterList<E>> selectAsync(Function<T, E> selector, int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        ExecutorService executor = AsyncExecution.newExecutor(maxConcurrency);
+        try {
+            return selectAsync(selector, maxConcurrency, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Projects each element of a sequence into a new form, running up to maxConcurrency
+     * transformations at the same time on the given executor.
+     *
+     * @param <E>            The type of the projected values
+     * @param selector       - A transform function to apply to each element, can block.
+     * @param maxConcurrency - The maximum number of transformations running at the same time.
+     * @param executor       - The executor running the transformations.
+     * @return A future completed with a List whose elements are the result of invoking the
+     * transform function on each element of the sequence, in the same order, or completed
+     * exceptionally with the first error thrown by the transform function.
+     * @throws IllegalArgumentException If maxConcurrency is lower than 1.
+     */
+    @SuppressWarnings("unchecked")
+    default <E> CompletableFuture<BetterList<E>> selectAsync(Function<T, E> selector, int maxConcurrency,
+                                                            Executor executor) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        return AsyncExecution.map(this.toArray(), selector, maxConcurrency, executor).thenApply(results -> {
+            BetterList<E> out = new BetterArrayList<>(results.length);
+            for (Object result : results)
+                out.add((E) result);
+            BetterListInstrumentation.end(metrics, "selectAsync", start, results.length, out.size(), true);
+            return out;
+        });
+    }
+
+    /**
+     * Projects each element of a sequence into a new form, appending the results to the given
+     * list instead of allocating a new one.
+     *
+     * @param <E>      The type of the projected values
+     * @param <L>      The type of the target list
+     * @param target   - The list the projected values are appended to.
+     * @param selector - A transform function to apply to each element.
+     * @return the target list.
+     */
+    default <E, L extends List<E>> L selectInto(L target, Function<T, E> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int n = 0;
+        for (T element : this) {
+            target.add(selector.apply(element));
+            n++;
+        }
+        BetterListInstrumentation.end(metrics, "selectInto", start, n, n, false);
+        return target;
+    }
+
+    /**
+     * Projects each element of a sequence into a new list and flattens the
+     * resulting sequences into one sequence.
+     *
+     * @param <E>      The type of the projected values lists
+     * @param selector - A transform function to apply to each element.
+     * @return A List whose elements are the result of invoking the one-to-many
+     * transform function on each element of the input sequence.
+     */
+    default <E> BetterList<E> selectMany(Function<T, Collection<? extends E>> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<E> out = new BetterArrayList<>();
+        for (T element : this)
+            out.addAll(selector.apply(element));
+        BetterListInstrumentation.end(metrics, "selectMany", start, size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Projects each element of a sequence into a new list and flattens the
+     * resulting sequences into one sequence.
+     *
+     * @param <E>      The type of the projected values lists
+     * @param selector - A transform function to apply to each element.
+     * @return A List whose elements are the result of invoking the one-to-many
+     * transform function on each element of the input sequence.
+     */
+    default <E> BetterList<E> selectManyArrays(Function<T, E[]> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<E> out = new BetterArrayList<>();
+        for (T element : this)
+            out.addAll(Arrays.asList(selector.apply(element)));
+        BetterListInstrumentation.end(metrics, "selectManyArrays", start, size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Projects each element of a sequence into a collection and appends the elements of the
+     * resulting collections to the given list instead of allocating a new one.
+     *
+     * @param <E>      The type of the projected values lists
+     * @param <L>      The type of the target list
+     * @param target   - The list the projected values are appended to.
+     * @param selector - A transform function to apply to each element.
+     * @return the target list.
+     */
+    default <E, L extends List<E>> L selectManyInto(L target, Function<T, Collection<? extends E>> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int before = target.size();
+        for (T element : this)
+            target.addAll(selector.apply(element));
+        BetterListInstrumentation.end(metrics, "selectManyInto", start, size(), target.size() - before, false);
+        return target;
+    }
+
+    /**
+     * Determines whether two sequences are equal by comparing their elements in order with
+     * equals, walking both sequences with iterators.
+     *
+     * @param other - A sequence to compare to this one.
+     * @return true if the two sequences are of equal length and their corresponding elements are
+     * equal; otherwise, false.
+     */
+    default boolean sequenceEqual(List<?> other) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int n = 0;
+        boolean equal = size() == other.size();
+        if (equal) {
+            Iterator<?> iterator = other.iterator();
+            for (T element : this) {
+                n++;
+                if (!iterator.hasNext() || !Objects.equals(element, iterator.next())) {
+                    equal = false;
+                    break;
+                }
+            }
+        }
+        BetterListInstrumentation.end(metrics, "sequenceEqual", start, n, equal ? 1 : 0, false);
+        return equal;
+    }
+
+    /**
+     * Bypasses a specified number of elements in the sequence and then returns the
+     * remaining elements.
+     *
+     * @param count - The number of elements to skip before returning the remaining
+     *              elements.
+     * @return a List that contains the elements that occur after the specified
+     * index in the sequence.
+     */
+    default BetterList<T> skip(int count) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>(Math.max(0, size() - Math.max(0, count)));
+        int n = 0;
+        for (T element : this) {
+            if (n >= count)
+                out.add(element);
+            n++;
+        }
+        BetterListInstrumentation.end(metrics, "skip", start, n, out.size(), true);
+        return out;
+    }
+
+    /**
+     * Bypasses a specified number of elements in the sequence and appends the remaining elements
+     * to the given list instead of allocating a new one.
+     *
+     * @param <L>    The type of the target list
+     * @param target - The list the remaining elements are appended to.
+     * @param count  - The number of elements to skip before appending the remaining elements.
+     * @return the target list.
+     */
+    default <L extends List<T>> L skipInto(L target, int count) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int n = 0;
+        int emitted = 0;
+        for (T element : this) {
+            if (n >= count) {
+                target.add(element);
+                emitted++;
+            }
+            n++;
+        }
+        BetterListInstrumentation.end(metrics, "skipInto", start, n, emitted, false);
+        return target;
+    }
+
+    /**
+     * Bypasses elements in the sequence as long as a specified condition is true
+     * and then returns the remaining elements.
+     *
+     * @param predicate - A function to test each element for a condition.
+     * @return a List that contains the elements from the sequence starting at the
+     * first element in the linear series that does not pass the test
+     * specified by predicate.
+     */
+    default BetterList<T> skipWhile(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>();
+        boolean match = true;
+        for (T element : this)
+            if (!match || !predicate.apply(element)) {
+                match = false;
+                out.add(element);
+            }
+        BetterListInstrumentation.end(metrics, "skipWhile", start, size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Computes the sum of the sequence of Double values that are obtained by
+     * invoking a transform function on each element of the input sequence.
+     *
+     * @param selector - A transform function to apply to each element.
+     * @return The sum of the projected values. Zero if the sequence contains no
+     * elements.
+     */
+    default Double sum(Function<T, Double> selector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        double sum = 0d;
+        for (T element : this)
+            sum += selector.apply(element);
+        BetterListInstrumentation.end(metrics, "sum", start, size(), 1, false);
+        return sum;
+    }
+
+    /**
+     * Returns a specified number of contiguous elements from the start of the
+     * sequence.
+     *
+     * @param count - The number of elements to return.
+     * @return a List that contains the specified number of elements from the start
+     * of the input sequence.
+     */
+    default BetterList<T> take(int count) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>(Math.max(0, Math.min(count, size())));
+        int n = 0;
+        for (T element : this) {
+            if (n < count)
+                out.add(element);
+            else
+                break;
+            n++;
+        }
+        BetterListInstrumentation.end(metrics, "take", start, n, out.size(), true);
+        return out;
+    }
+
+    /**
+     * Appends a specified number of contiguous elements from the start of the sequence to the
+     * given list instead of allocating a new one.
+     *
+     * @param <L>    The type of the target list
+     * @param target - The list the elements are appended to.
+     * @param count  - The number of elements to append.
+     * @return the target list.
+     */
+    default <L extends List<T>> L takeInto(L target, int count) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int n = 0;
+        for (T element : this) {
+            if (n >= count)
+                break;
+            target.add(element);
+            n++;
+        }
+        BetterListInstrumentation.end(metrics, "takeInto", start, n, n, false);
+        return target;
+    }
+
+    /**
+     * Builds a Bloom filter of the elements of the sequence, to test membership in constant memory.
+     *
+     * @param falsePositiveRate - The probability for mightContain to return true for an element
+     *                          absent from the sequence, between 0 and 1 (exclusive).
+     * @return A Bloom filter containing all the elements of the sequence.
+     */
+    default BloomFilter<T> toBloomFilter(double falsePositiveRate) {
+        BloomFilter<T> filter = new BloomFilter<>(size(), falsePositiveRate);
+        for (T element : this)
+            filter.put(element);
+        return filter;
+    }
+
+    /**
+     * Returns elements from the sequence as long as a specified condition is true.
+     *
+     * @param predicate - A function to test each element for a condition.
+     * @return a List that contains the elements from the sequence that occur before
+     * the element at which the test no longer passes.
+     */
+    default BetterList<T> takeWhile(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>();
+        int n = 0;
+        for (T element : this) {
+            n++;
+            if (predicate.apply(element))
+                out.add(element);
+            else
+                break;
+        }
+        BetterListInstrumentation.end(metrics, "takeWhile", start, n, out.size(), true);
+        return out;
+    }
+
+    /**
+     * Produces the set union of two sequences. The membership of the elements is tested with the
+     * contains method of the other sequence when it is a Set, and in a HashSet of its elements
+     * otherwise.
+     *
+     * @param other - Another sequence whose distinct elements form the second set for the
+     *              union.
+     * @return A List that contains the elements from both sequences, excluding
+     * duplicates.
+     */
+    default BetterList<T> union(Collection<T> other) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        Collection<T> lookup = QuerySupport.lookup(other);
+        BetterList<T> out = new BetterArrayList<>();
+        for (T element : this)
+            if (lookup.contains(element))
+                out.add(element);
+        BetterListInstrumentation.end(metrics, "union", start, size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Filters a sequence of values based on a predicate.
+     *
+     * @param predicate - A function to test each element for a condition.
+     * @return a List that contains elements from the sequence that satisfy the
+     * condition.
+     */
+    default BetterList<T> where(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>();
+        for (T element : this)
+            if (predicate.apply(element))
+                out.add(element);
+        BetterListInstrumentation.end(metrics, "where", start, size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Filters a sequence of values based on a predicate. Each element's index is used in the logic
+     * of the predicate function.
+     *
+     * @param predicate - A function to test each element and its index for a condition.
+     * @return a List that contains elements from the sequence that satisfy the condition.
+     */
+    default BetterList<T> whereIndexed(BiFunction<T, Integer, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>();
+        int index = 0;
+        for (T element : this)
+            if (predicate.apply(element, index++))
+                out.add(element);
+        BetterListInstrumentation.end(metrics, "whereIndexed", start, size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Filters a sequence of values based on a predicate, running up to maxConcurrency tests at the
+     * same time. Tests run on virtual threads when available (JDK 21+) or on a temporary pool of
+     * platform threads otherwise.
+     *
+     * @param predicate      - A function to test each element for a condition, can block.
+     * @param maxConcurrency - The maximum number of tests running at the same time.
+     * @return A future completed with a List that contains elements from the sequence that
+     * satisfy the condition, in the same order, or completed exceptionally with the first error
+     * thrown by the predicate.
+     * @throws IllegalArgumentException If maxConcurrency is lower than 1.
+     */
+    default CompletableFuture<BetterList<T>> whereAsync(Function<T, Boolean> predicate, int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        ExecutorService executor = AsyncExecution.newExecutor(maxConcurrency);
+        try {
+            return whereAsync(predicate, maxConcurrency, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Filters a sequence of values based on a predicate, running up to maxConcurrency tests at the
+     * same time on the given executor.
+     *
+     * @param predicate      - A function to test each element for a condition, can block.
+     * @param maxConcurrency - The maximum number of tests running at the same time.
+     * @param executor       - The executor running the tests.
+     * @return A future completed with a List that contains elements from the sequence that
+     * satisfy the condition, in the same order, or completed exceptionally with the first error
+     * thrown by the predicate.
+     * @throws IllegalArgumentException If maxConcurrency is lower than 1.
+     */
+    @SuppressWarnings("unchecked")
+    default CompletableFuture<BetterList<T>> whereAsync(Function<T, Boolean> predicate, int maxConcurrency,
+                                                      Executor executor) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        Object[] source = this.toArray();
+        return AsyncExecution.map(source, predicate, maxConcurrency, executor).thenApply(results -> {
+            BetterList<T> out = new BetterArrayList<>();
+            for (int i = 0; i < source.length; i++)
+                if ((Boolean) results[i])
+                    out.add((T) source[i]);
+            BetterListInstrumentation.end(metrics, "whereAsync", start, source.length, out.size(), true);
+            return out;
+        });
+    }
+
+    /**
+     * Filters a sequence of values based on a predicate, appending the matching elements to the
+     * given list instead of allocating a new one.
+     *
+     * @param <L>       The type of the target list
+     * @param target    - The list the matching elements are appended to.
+     * @param predicate - A function to test each element for a condition.
+     * @return the target list.
+     */
+    default <L extends List<T>> L whereInto(L target, Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int n = 0;
+        int emitted = 0;
+        for (T element : this) {
+            n++;
+            if (predicate.apply(element)) {
+                target.add(element);
+                emitted++;
+            }
+        }
+        BetterListInstrumentation.end(metrics, "whereInto", start, n, emitted, false);
+        return target;
+    }
+
+    /**
+     * Returns a read-only view of this collection whose operators check limits while they run: a
+     * deadline, a cancellation token and a maximum number of elements scanned by each operator.
+     * An operator exceeding a limit throws a QueryAbortedException and its partial results are
+     * dropped.
+     *
+     * @param limits - The limits checked by the operators of the view.
+     * @return a view of this collection checking the limits.
+     * @see QueryLimits
+     */
+    default BetterCollection<T> withLimits(QueryLimits limits) {
+        return new LimitedBetterCollection<>(this, limits);
+    }
+
+    /**
+     * Applies a specified function to the corresponding elements of two sequences, producing a
+     * sequence of the results. Both sequences are walked with iterators, so the operation is
+     * linear whatever the kind of lists.
+     *
+     * @param <U>      The type of the elements of the other sequence
+     * @param <E>      The type of the projected values
+     * @param other    - The second sequence to merge.
+     * @param combiner - A function that specifies how to merge the elements from the two
+     *                 sequences.
+     * @return a List that contains merged elements of two sequences, as long as the shortest one.
+     */
+    default <U, E> BetterList<E> zip(List<U> other, BiFunction<T, U, E> combiner) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<E> out = new BetterArrayList<>(Math.min(size(), other.size()));
+        Iterator<T> iterator = this.iterator();
+        Iterator<U> otherIterator = other.iterator();
+        while (iterator.hasNext() && otherIterator.hasNext())
+            out.add(combiner.apply(iterator.next(), otherIterator.next()));
+        BetterListInstrumentation.end(metrics, "zip", start, out.size(), out.size(), true);
+        return out;
+    }
+
+    /**
+     * Applies a specified function to the corresponding elements of three sequences, producing a
+     * sequence of the results. The sequences are walked with iterators, so the operation is linear
+     * whatever the kind of lists.
+     *
+     * @param <U>      The type of the elements of the second sequence
+     * @param <V>      The type of the elements of the third sequence
+     * @param <E>      The type of the projected values
+     * @param second   - The second sequence to merge.
+     * @param third    - The third sequence to merge.
+     * @param combiner - A function that specifies how to merge the elements from the three
+     *                 sequences.
+     * @return a List that contains merged elements of three sequences, as long as the shortest
+     * one.
+     */
+    default <U, V, E> BetterList<E> zip3(List<U> second, List<V> third, TriFunction<T, U, V, E> combiner) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<E> out = new BetterArrayList<>(Math.min(size(), Math.min(second.size(), third.size())));
+        Iterator<T> iterator = this.iterator();
+        Iterator<U> secondIterator = second.iterator();
+        Iterator<V> thirdIterator = third.iterator();
+        while (iterator.hasNext() && secondIterator.hasNext() && thirdIterator.hasNext())
+            out.add(combiner.apply(iterator.next(), secondIterator.next(), thirdIterator.next()));
+        BetterListInstrumentation.end(metrics, "zip3", start, out.size(), out.size(), true);
+        return out;
+    }
+
+}
@@ -0,0 +1,44 @@
+package fr.klemek.betterlists;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * A BetterCollection view of a Collection, reflecting its changes and writing through to it.
+ *
+ * @author Klemek
+ */
+final class BetterCollectionView<T> extends AbstractCollection<T> implements BetterCollection<T> {
+
+    private final Collection<T> collection;
+
+    BetterCollectionView(Collection<T> collection) {
+        this.collection = collection;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return collection.iterator();
+    }
+
+    @Override
+    public int size() {
+        return collection.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return collection.contains(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return collection.remove(o);
+    }
+
+    @Override
+    public void clear() {
+        collection.clear();
+    }
+}
@@ -3,11 +3,19 @@ package fr.klemek.betterlists;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * An extension of the java.concurrent.CopyOnWriteArrayList class which include some of the C#
  * LINQ useful functions.
+ * <p>
+ * The all, any, count, max, min, select, sum and where operators loop over a snapshot of the
+ * backing array, taken once. Many modifications can be applied with a single copy of the array
+ * through batch.
  *
  * @author Klemek
  * @see ArrayList
@@ -87,4 +95,135 @@ public class BetterCopyOnWriteArrayList<T> extends CopyOnWriteArrayList<T> imple
     public BetterCopyOnWriteArrayList<T> subList(int fromIndex, int toIndex) {
         return (BetterCopyOnWriteArrayList<T>) super.subList(fromIndex, toIndex);
     }
+
+    /**
+     * Applies many modifications to a private copy of this list, then publishes them, instead of
+     * copying the whole array for each modification.
+     * <p>
+     * The mutator receives a BetterArrayList holding the current elements. Batches are serialized
+     * with each other, and each write checks that no other writer modified the list since the
+     * snapshot given to the mutator, throwing a ConcurrentModificationException otherwise.
+     * <p>
+     * A batch which keeps the size of the list, only removes elements, or only appends elements
+     * (on Java 9+) is published with a single checked copy of the array: readers see all its
+     * modifications or none, and a conflicting writer makes it fail without publishing anything.
+     * <p>
+     * A batch which both replaces elements and changes the size is published in two steps, the
+     * replaced elements first and the size change second: it is not atomic, as readers can see
+     * the replaced elements before the size change, and it is not conflict-safe, as a writer
+     * modifying the list between the two steps makes it fail with the replaced elements already
+     * published.
+     *
+     * @param mutator - the modifications to apply
+     * @throws ConcurrentModificationException if the list was modified outside of the batch
+     */
+    public synchronized void batch(Consumer<? super BetterList<T>> mutator) {
+        List<T> view;
+        Object[] snapshot;
+        while (true) {
+            try {
+                view = super.subList(0, size());
+                snapshot = view.toArray();
+                if (snapshot.length == size())
+                    break;
+            } catch (IndexOutOfBoundsException | ConcurrentModificationException e) {
+                // another writer resized the list while the snapshot was taken, take it again
+            }
+        }
+        int oldSize = snapshot.length;
+        @SuppressWarnings("unchecked")
+        BetterArrayList<T> copy = new BetterArrayList<>(Arrays.asList((T[]) snapshot));
+        mutator.accept(copy);
+        int newSize = copy.size();
+        if (newSize < oldSize) {
+            boolean[] removed = removedElements(snapshot, copy);
+            if (removed != null) {
+                int[] index = {0};
+                view.removeIf(element -> removed[index[0]++]);
+                return;
+            }
+        }
+        int common = Math.min(oldSize, newSize);
+        int firstChange = 0;
+        while (firstChange < common && copy.get(firstChange) == snapshot[firstChange])
+            firstChange++;
+        if (firstChange < common) {
+            int[] index = {0};
+            view.replaceAll(element -> {
+                int i = index[0]++;
+                return i < common ? copy.get(i) : element;
+            });
+        }
+        if (newSize > oldSize) {
+            view.addAll(copy.skip(oldSize));
+        } else if (newSize < oldSize) {
+            view.subList(newSize, oldSize).clear();
+        }
+    }
+
+    /**
+     * @return the elements of the snapshot missing from the copy, or null if the copy is not the
+     * snapshot with some elements removed
+     */
+    private static boolean[] removedElements(Object[] snapshot, List<?> copy) {
+        boolean[] removed = new boolean[snapshot.length];
+        int j = 0;
+        for (Object element : copy) {
+            while (j < snapshot.length && snapshot[j] != element)
+                removed[j++] = true;
+            if (j++ == snapshot.length)
+                return null;
+        }
+        while (j < snapshot.length)
+            removed[j++] = true;
+        return removed;
+    }
+
+    @Override
+    public boolean all(Function<T, Boolean> predicate) {
+        Object[] snapshot = toArray();
+        return ArrayLoops.all(metrics(), snapshot, snapshot.length, ArrayLoops.NONE, predicate);
+    }
+
+    @Override
+    public boolean any(Function<T, Boolean> predicate) {
+        Object[] snapshot = toArray();
+        return ArrayLoops.any(metrics(), snapshot, snapshot.length, ArrayLoops.NONE, predicate);
+    }
+
+    @Override
+    public int count(Function<T, Boolean> predicate) {
+        Object[] snapshot = toArray();
+        return ArrayLoops.count(metrics(), snapshot, snapshot.length, ArrayLoops.NONE, predicate);
+    }
+
+    @Override
+    public Double max(Function<T, Double> selector) {
+        Object[] snapshot = toArray();
+        return ArrayLoops.max(metrics(), snapshot, snapshot.length, ArrayLoops.NONE, selector);
+    }
+
+    @Override
+    public Double min(Function<T, Double> selector) {
+        Object[] snapshot = toArray();
+        return ArrayLoops.min(metrics(), snapshot, snapshot.length, ArrayLoops.NONE, selector);
+    }
+
+    @Override
+    public <E> BetterList<E> select(Function<T, E> selector) {
+        Object[] snapshot = toArray();
+        return ArrayLoops.select(metrics(), snapshot, snapshot.length, ArrayLoops.NONE, selector);
+    }
+
+    @Override
+    public Double sum(Function<T, Double> selector) {
+        Object[] snapshot = toArray();
+        return ArrayLoops.sum(metrics(), snapshot, snapshot.length, ArrayLoops.NONE, selector);
+    }
+
+    @Override
+    public BetterList<T> where(Function<T, Boolean> predicate) {
+        Object[] snapshot = toArray();
+        return ArrayLoops.where(metrics(), snapshot, snapshot.length, ArrayLoops.NONE, predicate);
+    }
 }
@@ -0,0 +1,42 @@
+package fr.klemek.betterlists;
+
+import java.util.Deque;
+
+/**
+ * A BetterList which is also a java.util.Deque, like BetterChunkedList and BetterArrayDeque.
+ * <p>
+ * The end operations shared by List and Deque are redeclared here so that both interfaces can be
+ * extended on Java 21+, where List declares them as default methods.
+ *
+ * @author Klemek
+ * @see java.util.Deque
+ * @see BetterList
+ */
+public interface BetterDeque<T> extends Deque<T>, BetterList<T> {
+
+    @Override
+    void addFirst(T element);
+
+    @Override
+    void addLast(T element);
+
+    @Override
+    T getFirst();
+
+    @Override
+    T getLast();
+
+    @Override
+    T removeFirst();
+
+    @Override
+    T removeLast();
+
+    /**
+     * Returns a reverse-ordered view of this deque: changes to this deque are visible in the view
+     * and the view writes through to this deque. Use reverse to get a reversed copy instead.
+     *
+     * @return a reverse-ordered view of this deque
+     */
+    BetterDeque<T> reversed();
+}
@@ -0,0 +1,309 @@
+package fr.klemek.betterlists;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+
+/**
+ * A BetterList of doubles backed by a primitive array, without boxing on storage, with numeric
+ * aggregates running over the raw values.
+ * <p>
+ * On JDK 21+ with the jdk.incubator.vector module resolved (--add-modules jdk.incubator.vector),
+ * the aggregates of large lists use SIMD instructions through the Vector API. Sums are then
+ * computed in a different order and can differ by rounding from a sequential sum.
+ * <p>
+ * Null elements are not permitted.
+ *
+ * @author Klemek
+ */
+public class BetterDoubleList extends AbstractList<Double> implements BetterList<Double>, RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private double[] values;
+    private int size;
+
+    /**
+     * Constructs a list containing the elements of the specified collection, in the order they are
+     * returned by the collection's iterator.
+     *
+     * @param c - the collection whose elements are to be placed into this list
+     * @return the constructed list
+     */
+    public static BetterDoubleList fromList(Collection<Double> c) {
+        return new BetterDoubleList(c);
+    }
+
+    /**
+     * Constructs a list containing the values given in argument.
+     *
+     * @param a - the values to be placed into this list
+     * @return the constructed list
+     */
+    public static BetterDoubleList asList(double... a) {
+        BetterDoubleList list = new BetterDoubleList(a.length);
+        System.arraycopy(a, 0, list.values, 0, a.length);
+        list.size = a.length;
+        return list;
+    }
+
+    /**
+     * Constructs an empty list with an initial capacity of ten.
+     */
+    public BetterDoubleList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty list with the specified initial capacity.
+     *
+     * @param initialCapacity - the initial capacity of the list
+     * @throws IllegalArgumentException if the specified initial capacity is negative
+     */
+    public BetterDoubleList(int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+        this.values = new double[initialCapacity];
+    }
+
+    /**
+     * Constructs a list containing the elements of the specified collection, in the order they are
+     * returned by the collection's iterator.
+     *
+     * @param c - the collection whose elements are to be placed into this list
+     * @throws NullPointerException if the collection contains a null element
+     */
+    public BetterDoubleList(Collection<Double> c) {
+        this(c.size());
+        for (Double value : c)
+            addDouble(value);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Double get(int index) {
+        return getDouble(index);
+    }
+
+    /**
+     * Returns the value at the specified position in this list, without boxing.
+     *
+     * @param index - index of the value to return
+     * @return the value at the specified position in this list
+     */
+    public double getDouble(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    @Override
+    public Double set(int index, Double element) {
+        checkIndex(index);
+        double old = values[index];
+        values[index] = element;
+        return old;
+    }
+
+    @Override
+    public boolean add(Double element) {
+        addDouble(element);
+        return true;
+    }
+
+    /**
+     * Appends the specified value to the end of this list, without boxing.
+     *
+     * @param value - value to be appended to this list
+     */
+    public void addDouble(double value) {
+        if (size == values.length)
+            grow(size + 1);
+        values[size++] = value;
+        modCount++;
+    }
+
+    @Override
+    public void add(int index, Double element) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        double value = element;
+        if (size == values.length)
+            grow(size + 1);
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Double> c) {
+        return addAll(size, c);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Double> c) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        double[] addedValues;
+        if (c instanceof BetterDoubleList) {
+            addedValues = ((BetterDoubleList) c).toDoubleArray();
+        } else {
+            Object[] added = c.toArray();
+            addedValues = new double[added.length];
+            for (int i = 0; i < added.length; i++)
+                addedValues[i] = (Double) added[i];
+        }
+        if (addedValues.length == 0)
+            return false;
+        if (size + addedValues.length > values.length)
+            grow(size + addedValues.length);
+        System.arraycopy(values, index, values, index + addedValues.length, size - index);
+        System.arraycopy(addedValues, 0, values, index, addedValues.length);
+        size += addedValues.length;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public Double remove(int index) {
+        checkIndex(index);
+        double old = values[index];
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Double> filter) {
+        long[] removed = new long[(size + 63) >> 6];
+        int expectedModCount = modCount;
+        for (int i = 0; i < size; i++)
+            if (filter.test(values[i]))
+                removed[i >> 6] |= 1L << i;
+        if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+            if ((removed[i >> 6] & (1L << i)) == 0)
+                values[kept++] = values[i];
+        if (kept == size)
+            return false;
+        size = kept;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        System.arraycopy(values, toIndex, values, fromIndex, size - toIndex);
+        size -= toIndex - fromIndex;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Trims the capacity of this list to its current size, like ArrayList.trimToSize.
+     */
+    public void trimToSize() {
+        modCount++;
+        if (size < values.length)
+            values = Arrays.copyOf(values, size);
+    }
+
+    /**
+     * @return a new array containing the values of this list
+     */
+    public double[] toDoubleArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Computes the sum of the values.
+     *
+     * @return the sum of the values, 0 if the list is empty.
+     */
+    public double sum() {
+        return DoubleAggregates.sum(values, size);
+    }
+
+    /**
+     * Computes the mean of the values.
+     *
+     * @return the mean of the values or null if the list is empty.
+     */
+    public Double mean() {
+        return size == 0 ? null : DoubleAggregates.sum(values, size) / size;
+    }
+
+    /**
+     * Returns the minimum value.
+     *
+     * @return the minimum value (NaN if any value is NaN) or null if the list is empty.
+     */
+    public Double min() {
+        return size == 0 ? null : DoubleAggregates.min(values, size);
+    }
+
+    /**
+     * Returns the maximum value.
+     *
+     * @return the maximum value (NaN if any value is NaN) or null if the list is empty.
+     */
+    public Double max() {
+        return size == 0 ? null : DoubleAggregates.max(values, size);
+    }
+
+    /**
+     * Returns the number of values greater than a threshold.
+     *
+     * @param threshold - the exclusive lower bound
+     * @return the number of values greater than the threshold.
+     */
+    public int countGreaterThan(double threshold) {
+        return DoubleAggregates.countGreaterThan(values, size, threshold);
+    }
+
+    /**
+     * Returns the number of values lower than a threshold.
+     *
+     * @param threshold - the exclusive upper bound
+     * @return the number of values lower than the threshold.
+     */
+    public int countLessThan(double threshold) {
+        return DoubleAggregates.countLessThan(values, size, threshold);
+    }
+
+    /**
+     * Returns the number of values between lo (inclusive) and hi (exclusive).
+     *
+     * @param lo - the inclusive lower bound
+     * @param hi - the exclusive upper bound
+     * @return the number of values in the range.
+     */
+    public int countBetween(double lo, double hi) {
+        return DoubleAggregates.countBetween(values, size, lo, hi);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, values.length + (values.length >> 1));
+        values = Arrays.copyOf(values, Math.max(capacity, DEFAULT_CAPACITY));
+    }
+}
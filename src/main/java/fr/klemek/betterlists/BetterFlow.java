@@ -0,0 +1,607 @@
+package fr.klemek.betterlists;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A push-based counterpart of the BetterList operators: elements are processed one by one as they
+ * are pushed in, without buffering the whole source before the first operator runs.
+ * <p>
+ * A flow is first described with operators, then opened with a terminal operation returning an
+ * Inlet. Each push returns false as soon as the flow does not need more elements (after a take
+ * for example), which is the demand signal to forward to the source. On JDK 9+, the
+ * BetterFlowSubscriber adapter subscribes an Inlet to a java.util.concurrent.Flow.Publisher,
+ * requesting the elements in batches and cancelling the subscription once push returns false, and
+ * BetterFlowProcessor republishes the produced elements to other subscribers:
+ * <pre>
+ * BetterFlow.Inlet&lt;Message, BetterList&lt;String&gt;&gt; inlet = BetterFlow.&lt;Message&gt;create()
+ *         .where(m -&gt; m.isValid())
+ *         .select(m -&gt; m.getBody())
+ *         .take(100)
+ *         .toList();
+ * </pre>
+ * A flow description is immutable and can be opened several times, an Inlet must be used by a
+ * single thread at a time. The operators following an async boundary run on a worker thread,
+ * overlapping with the previous ones, until the Inlet is completed or closed.
+ *
+ * @param <S> the type of the elements pushed in the flow
+ * @param <T> the type of the elements produced by the flow
+ * @author Klemek
+ */
+public final class BetterFlow<S, T> {
+
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    private final Function<Stage<T>, Stage<S>> assembly;
+
+    private BetterFlow(Function<Stage<T>, Stage<S>> assembly) {
+        this.assembly = assembly;
+    }
+
+    /**
+     * Creates an empty flow, producing the elements pushed in.
+     *
+     * @param <S> - the type of the elements pushed in the flow
+     * @return a new flow
+     */
+    public static <S> BetterFlow<S, S> create() {
+        return new BetterFlow<>(Function.identity());
+    }
+
+    private <E> BetterFlow<S, E> then(Function<Stage<E>, Stage<T>> stage) {
+        return new BetterFlow<>(assembly.compose(stage));
+    }
+
+    /**
+     * Filters the elements based on a predicate.
+     *
+     * @param predicate - A function to test each element for a condition.
+     * @return a flow producing the elements that satisfy the condition.
+     */
+    public BetterFlow<S, T> where(Function<T, Boolean> predicate) {
+        return then(downstream -> new Forwarding<T, T>(downstream) {
+            @Override
+            public boolean push(T element) {
+                return !predicate.apply(element) || downstream.push(element);
+            }
+        });
+    }
+
+    /**
+     * Projects each element into a new form.
+     *
+     * @param <E>      The type of the projected values
+     * @param selector - A transform function to apply to each element.
+     * @return a flow producing the result of invoking the transform function on each element.
+     */
+    public <E> BetterFlow<S, E> select(Function<T, E> selector) {
+        return this.<E>then(downstream -> new Forwarding<T, E>(downstream) {
+            @Override
+            public boolean push(T element) {
+                return downstream.push(selector.apply(element));
+            }
+        });
+    }
+
+    /**
+     * Projects each element into a collection and flattens the resulting collections.
+     *
+     * @param <E>      The type of the projected values
+     * @param selector - A transform function to apply to each element.
+     * @return a flow producing the elements of the collections returned by the transform function.
+     */
+    public <E> BetterFlow<S, E> selectMany(Function<T, Collection<? extends E>> selector) {
+        return this.<E>then(downstream -> new Forwarding<T, E>(downstream) {
+            @Override
+            public boolean push(T element) {
+                for (E e : selector.apply(element))
+                    if (!downstream.push(e))
+                        return false;
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Bypasses a specified number of elements and then produces the remaining ones.
+     *
+     * @param count - The number of elements to skip.
+     * @return a flow producing the elements that occur after the specified number of elements.
+     */
+    public BetterFlow<S, T> skip(int count) {
+        return then(downstream -> new Forwarding<T, T>(downstream) {
+            private int skipped;
+
+            @Override
+            public boolean push(T element) {
+                if (skipped < count) {
+                    skipped++;
+                    return true;
+                }
+                return downstream.push(element);
+            }
+        });
+    }
+
+    /**
+     * Produces a specified number of elements then stops requesting elements.
+     *
+     * @param count - The number of elements to produce.
+     * @return a flow producing at most count elements.
+     */
+    public BetterFlow<S, T> take(int count) {
+        return then(downstream -> new Forwarding<T, T>(downstream) {
+            private int taken;
+
+            @Override
+            public boolean push(T element) {
+                if (taken >= count)
+                    return false;
+                taken++;
+                return downstream.push(element) && taken < count;
+            }
+        });
+    }
+
+    /**
+     * Produces elements as long as a specified condition is true then stops requesting elements.
+     *
+     * @param predicate - A function to test each element for a condition.
+     * @return a flow producing the elements that occur before the element at which the test no
+     * longer passes.
+     */
+    public BetterFlow<S, T> takeWhile(Function<T, Boolean> predicate) {
+        return then(downstream -> new Forwarding<T, T>(downstream) {
+            private boolean stopped;
+
+            @Override
+            public boolean push(T element) {
+                if (stopped || !predicate.apply(element)) {
+                    stopped = true;
+                    return false;
+                }
+                return downstream.push(element);
+            }
+        });
+    }
+
+    /**
+     * Runs the following operators on a new worker thread, so that they process elements while the
+     * previous ones (and the source) produce the next ones, in batches of 256 elements with at most
+     * 16 batches waiting.
+     *
+     * @return a flow producing the same elements, in the same order.
+     * @see #async(int, int)
+     */
+    public BetterFlow<S, T> async() {
+        return async(DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Runs the following operators on a new worker thread, so that they process elements while the
+     * previous ones (and the source) produce the next ones. Chaining several async boundaries
+     * between expensive operators runs them as a pipeline, each stage on its own thread, without
+     * materializing the intermediate results.
+     * <p>
+     * The elements are handed to the worker in batches through a bounded lock-free queue: the
+     * producing side waits when the queue is full, which bounds the memory held between the
+     * stages. The elements keep their order, and once the following operators need no more
+     * elements push eventually returns false. Each opened Inlet starts one thread per boundary
+     * with the first batch, which parks while the queue is empty and ends when complete or close is
+     * called: complete waits for the workers to process all the pushed elements, rethrows the first
+     * exception thrown by the following operators, and the result of the Inlet must not be read
+     * before. close drops the waiting elements instead.
+     *
+     * @param batchSize     - the number of elements handed to the worker at once
+     * @param queueCapacity - the maximum number of batches waiting for the worker
+     * @return a flow producing the same elements, in the same order.
+     */
+    public BetterFlow<S, T> async(int batchSize, int queueCapacity) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        if (queueCapacity < 1)
+            throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+        return then(downstream -> new AsyncStage<>(downstream, batchSize, queueCapacity));
+    }
+
+    /**
+     * Opens the flow, appending the produced elements to the given list.
+     *
+     * @param <L>    The type of the target list
+     * @param target - The list receiving the produced elements.
+     * @return an Inlet whose result is the target list.
+     */
+    public <L extends List<T>> Inlet<S, L> into(L target) {
+        return new Inlet<>(assembly.apply(new Stage<T>() {
+            @Override
+            public boolean push(T element) {
+                target.add(element);
+                return true;
+            }
+
+            @Override
+            public void complete() {
+                // nothing to flush
+            }
+
+            @Override
+            public void cancel() {
+                // nothing to release
+            }
+        }), target);
+    }
+
+    /**
+     * Opens the flow, collecting the produced elements in a new BetterArrayList.
+     *
+     * @return an Inlet whose result is the list of the produced elements.
+     */
+    public Inlet<S, BetterList<T>> toList() {
+        return into(new BetterArrayList<>());
+    }
+
+    /**
+     * Opens the flow, grouping the produced elements by key in order of first appearance.
+     *
+     * @param <K>         The type of the keys
+     * @param keySelector - A function to extract the key of each element.
+     * @return an Inlet whose result is the map of the keys and their elements.
+     */
+    public <K> Inlet<S, Map<K, BetterList<T>>> groupBy(Function<T, K> keySelector) {
+        Map<K, BetterList<T>> groups = new LinkedHashMap<>();
+        return new Inlet<>(assembly.apply(new Stage<T>() {
+            @Override
+            public boolean push(T element) {
+                groups.computeIfAbsent(keySelector.apply(element), k -> new BetterArrayList<>()).add(element);
+                return true;
+            }
+
+            @Override
+            public void complete() {
+                // nothing to flush
+            }
+
+            @Override
+            public void cancel() {
+                // nothing to release
+            }
+        }), groups);
+    }
+
+    /**
+     * Opens the flow, handing each produced element to a consumer (which can push it in another
+     * flow or republish it).
+     *
+     * @param consumer - The consumer of the produced elements.
+     * @return an Inlet without result.
+     */
+    public Inlet<S, Void> forEach(Consumer<? super T> consumer) {
+        return new Inlet<>(assembly.apply(new Stage<T>() {
+            @Override
+            public boolean push(T element) {
+                consumer.accept(element);
+                return true;
+            }
+
+            @Override
+            public void complete() {
+                // nothing to flush
+            }
+
+            @Override
+            public void cancel() {
+                // nothing to release
+            }
+        }), null);
+    }
+
+    /**
+     * A step of an opened flow.
+     */
+    interface Stage<T> {
+
+        /**
+         * Processes an element.
+         *
+         * @param element - the element
+         * @return false if the stage does not need more elements
+         */
+        boolean push(T element);
+
+        /**
+         * Signals that no more elements will be pushed.
+         */
+        void complete();
+
+        /**
+         * Signals that the flow is abandoned, releasing the resources of the stage without
+         * completing it.
+         */
+        void cancel();
+    }
+
+    /**
+     * A stage passing the end of the flow to the next one.
+     */
+    private abstract static class Forwarding<T, E> implements Stage<T> {
+
+        final Stage<E> downstream;
+
+        Forwarding(Stage<E> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void complete() {
+            downstream.complete();
+        }
+
+        @Override
+        public void cancel() {
+            downstream.cancel();
+        }
+    }
+
+    /**
+     * A stage handing the elements to a worker thread running the downstream stages, started with
+     * the first batch.
+     */
+    private static final class AsyncStage<T> implements Stage<T>, Runnable {
+
+        private static final Object[] END = new Object[0];
+        private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+        private final Stage<T> downstream;
+        private final int batchSize;
+        private final SpscQueue<Object[]> queue;
+        private Thread worker;
+        private Object[] batch;
+        private int batchLength;
+        private volatile boolean stopped;
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+
+        AsyncStage(Stage<T> downstream, int batchSize, int queueCapacity) {
+            this.downstream = downstream;
+            this.batchSize = batchSize;
+            this.queue = new SpscQueue<>(queueCapacity);
+            this.batch = new Object[batchSize];
+        }
+
+        @Override
+        public boolean push(T element) {
+            if (stopped)
+                return false;
+            batch[batchLength++] = element;
+            if (batchLength == batchSize) {
+                enqueue(batch);
+                batch = new Object[batchSize];
+                batchLength = 0;
+            }
+            return !stopped;
+        }
+
+        @Override
+        public void complete() {
+            if (batchLength > 0)
+                enqueue(Arrays.copyOf(batch, batchLength));
+            batch = null;
+            batchLength = 0;
+            if (worker == null) {
+                downstream.complete();
+                return;
+            }
+            enqueue(END);
+            join();
+            Throwable t = failure;
+            if (t instanceof RuntimeException)
+                throw (RuntimeException) t;
+            if (t instanceof Error)
+                throw (Error) t;
+        }
+
+        @Override
+        public void cancel() {
+            stopped = true;
+            batch = null;
+            batchLength = 0;
+            if (worker == null) {
+                downstream.cancel();
+                return;
+            }
+            cancelled = true;
+            LockSupport.unpark(worker);
+            join();
+        }
+
+        private void enqueue(Object[] elements) {
+            if (worker == null) {
+                worker = new Thread(this, "betterlists-flow-" + THREAD_COUNT.incrementAndGet());
+                worker.setDaemon(true);
+                worker.start();
+            }
+            for (int attempt = 0; !queue.offer(elements); attempt++)
+                SpscQueue.backoff(attempt);
+            LockSupport.unpark(worker);
+        }
+
+        private void join() {
+            boolean interrupted = false;
+            while (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            boolean ended = false;
+            for (int attempt = 0; !ended && !cancelled; ) {
+                Object[] elements = queue.poll();
+                if (elements == null) {
+                    if (attempt++ < SpscQueue.SPINS)
+                        Thread.yield();
+                    else
+                        LockSupport.park(this);
+                    continue;
+                }
+                attempt = 0;
+                if (elements == END) {
+                    ended = true;
+                    continue;
+                }
+                try {
+                    for (int i = 0; i < elements.length && !stopped; i++)
+                        if (!downstream.push((T) elements[i]))
+                            stopped = true;
+                } catch (Throwable t) {
+                    failure = t;
+                    stopped = true;
+                }
+            }
+            try {
+                if (ended)
+                    downstream.complete();
+                else
+                    downstream.cancel();
+            } catch (Throwable t) {
+                if (failure == null)
+                    failure = t;
+            }
+        }
+    }
+
+    /**
+     * The entry point of an opened flow, to complete, or to close if it is abandoned (closing a
+     * completed Inlet has no effect):
+     * <pre>
+     * try (BetterFlow.Inlet&lt;Message, BetterList&lt;String&gt;&gt; inlet = flow.toList()) {
+     *     inlet.pushAll(messages);
+     *     return inlet.complete();
+     * }
+     * </pre>
+     *
+     * @param <S> the type of the elements pushed in the flow
+     * @param <R> the type of the result of the flow
+     */
+    public static final class Inlet<S, R> implements AutoCloseable {
+
+        private final Stage<S> head;
+        private final R result;
+        private boolean done;
+        private boolean completed;
+
+        Inlet(Stage<S> head, R result) {
+            this.head = head;
+            this.result = result;
+        }
+
+        /**
+         * Pushes an element in the flow. Elements pushed once the flow is done are ignored. If an
+         * operator throws an exception, the flow is closed.
+         *
+         * @param element - the element
+         * @return true if the flow accepts more elements, false if the source can stop.
+         */
+        public boolean push(S element) {
+            if (done)
+                return false;
+            try {
+                if (!head.push(element))
+                    done = true;
+            } catch (RuntimeException | Error e) {
+                close();
+                throw e;
+            }
+            return !done;
+        }
+
+        /**
+         * Pushes elements in the flow until the flow is done.
+         *
+         * @param elements - the elements
+         * @return true if the flow accepts more elements, false if the source can stop.
+         */
+        public boolean pushAll(Iterable<? extends S> elements) {
+            return drain(elements.iterator());
+        }
+
+        /**
+         * Pushes the elements of an iterator in the flow until the iterator is exhausted or the
+         * flow is done. Remaining elements are left in the iterator. If the iterator or an
+         * operator throws an exception, the flow is closed.
+         *
+         * @param iterator - the source of the elements
+         * @return true if the flow accepts more elements, false if the source can stop.
+         */
+        public boolean drain(Iterator<? extends S> iterator) {
+            try {
+                while (!done && iterator.hasNext())
+                    push(iterator.next());
+            } catch (RuntimeException | Error e) {
+                close();
+                throw e;
+            }
+            return !done;
+        }
+
+        /**
+         * Signals that no more elements will be pushed and returns the result of the flow.
+         *
+         * @return the result of the flow
+         */
+        public R complete() {
+            done = true;
+            if (!completed) {
+                completed = true;
+                head.complete();
+            }
+            return result;
+        }
+
+        /**
+         * Abandons the flow if it was not completed: the pushed elements still waiting for an
+         * async boundary are dropped and its worker thread ends, without completing the
+         * following operators.
+         */
+        @Override
+        public void close() {
+            done = true;
+            if (!completed) {
+                completed = true;
+                head.cancel();
+            }
+        }
+
+        /**
+         * @return true if the flow does not accept more elements
+         */
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Returns the result of the flow, which is filled as elements are pushed.
+         *
+         * @return the result of the flow
+         */
+        public R result() {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package fr.klemek.betterlists;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An extension of the java.util.HashMap class whose entries, keys and values can be queried with
+ * the C# LINQ useful functions of BetterCollection.
+ *
+ * @author Klemek
+ * @see java.util.HashMap
+ */
+public class BetterHashMap<K, V> extends HashMap<K, V> {
+
+    private static final long serialVersionUID = -5318232097815296470L;
+
+    /**
+     * Constructs a map with the same mappings as the specified map.
+     *
+     * @param <K> - the type of keys
+     * @param <V> - the type of values
+     * @param m   - the map whose mappings are to be placed in this map
+     * @return the constructed map
+     */
+    public static <K, V> BetterHashMap<K, V> fromMap(Map<K, V> m) {
+        return new BetterHashMap<>(m);
+    }
+
+    /**
+     * Constructs an empty map with the default initial capacity (16) and load factor (0.75).
+     */
+    public BetterHashMap() {
+        super();
+    }
+
+    /**
+     * Constructs an empty map with the specified initial capacity and the default load factor
+     * (0.75).
+     *
+     * @param initialCapacity - the initial capacity of the map
+     */
+    public BetterHashMap(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    /**
+     * Constructs a map with the same mappings as the specified map.
+     *
+     * @param m - the map whose mappings are to be placed in this map
+     */
+    public BetterHashMap(Map<? extends K, ? extends V> m) {
+        super(m);
+    }
+
+    /**
+     * Returns a BetterSet view of the mappings contained in this map, like entrySet.
+     *
+     * @return a set view of the mappings contained in this map
+     * @see HashMap#entrySet()
+     */
+    public BetterSet<Map.Entry<K, V>> entries() {
+        return new BetterSetView<>(entrySet());
+    }
+
+    /**
+     * Returns a BetterSet view of the keys contained in this map, like keySet.
+     *
+     * @return a set view of the keys contained in this map
+     * @see HashMap#keySet()
+     */
+    public BetterSet<K> keys() {
+        return new BetterSetView<>(keySet());
+    }
+
+    /**
+     * Returns a BetterCollection view of the values contained in this map, like values.
+     *
+     * @return a collection view of the values contained in this map
+     * @see HashMap#values()
+     */
+    public BetterCollection<V> valueCollection() {
+        return new BetterCollectionView<>(values());
+    }
+}
@@ -0,0 +1,66 @@
+package fr.klemek.betterlists;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * An extension of the java.util.HashSet class which include some of the C#
+ * LINQ useful functions.
+ *
+ * @author Klemek
+ * @see java.util.HashSet
+ */
+public class BetterHashSet<T> extends HashSet<T> implements BetterSet<T> {
+
+    private static final long serialVersionUID = -3086416436514529373L;
+
+    /**
+     * Constructs a set containing the distinct elements of the specified collection.
+     *
+     * @param <T> - the type of Set
+     * @param c   - the collection whose elements are to be placed into this set
+     * @return the constructed set
+     */
+    public static <T> BetterHashSet<T> fromCollection(Collection<T> c) {
+        return new BetterHashSet<>(c);
+    }
+
+    /**
+     * Constructs a set containing the distinct elements given in argument.
+     *
+     * @param <T> - the type of Set
+     * @param a   - the elements to be placed into this set
+     * @return the constructed set
+     */
+    @SafeVarargs
+    public static <T> BetterHashSet<T> asSet(T... a) {
+        return new BetterHashSet<>(Arrays.asList(a));
+    }
+
+    /**
+     * Constructs an empty set with the default initial capacity (16) and load factor (0.75).
+     */
+    public BetterHashSet() {
+        super();
+    }
+
+    /**
+     * Constructs a set containing the distinct elements of the specified collection.
+     *
+     * @param c - the collection whose elements are to be placed into this set
+     */
+    public BetterHashSet(Collection<? extends T> c) {
+        super(c);
+    }
+
+    /**
+     * Constructs an empty set with the specified initial capacity and the default load factor
+     * (0.75).
+     *
+     * @param initialCapacity - the initial capacity of the set
+     */
+    public BetterHashSet(int initialCapacity) {
+        super(initialCapacity);
+    }
+}
@@ -0,0 +1,66 @@
+package fr.klemek.betterlists;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+
+/**
+ * An extension of the java.util.LinkedHashSet class which include some of the C#
+ * LINQ useful functions. The operators visit the elements in insertion order.
+ *
+ * @author Klemek
+ * @see java.util.LinkedHashSet
+ */
+public class BetterLinkedHashSet<T> extends LinkedHashSet<T> implements BetterSet<T> {
+
+    private static final long serialVersionUID = 6390125834867201245L;
+
+    /**
+     * Constructs a set containing the distinct elements of the specified collection.
+     *
+     * @param <T> - the type of Set
+     * @param c   - the collection whose elements are to be placed into this set
+     * @return the constructed set
+     */
+    public static <T> BetterLinkedHashSet<T> fromCollection(Collection<T> c) {
+        return new BetterLinkedHashSet<>(c);
+    }
+
+    /**
+     * Constructs a set containing the distinct elements given in argument.
+     *
+     * @param <T> - the type of Set
+     * @param a   - the elements to be placed into this set
+     * @return the constructed set
+     */
+    @SafeVarargs
+    public static <T> BetterLinkedHashSet<T> asSet(T... a) {
+        return new BetterLinkedHashSet<>(Arrays.asList(a));
+    }
+
+    /**
+     * Constructs an empty set with the default initial capacity (16) and load factor (0.75).
+     */
+    public BetterLinkedHashSet() {
+        super();
+    }
+
+    /**
+     * Constructs a set containing the distinct elements of the specified collection.
+     *
+     * @param c - the collection whose elements are to be placed into this set
+     */
+    public BetterLinkedHashSet(Collection<? extends T> c) {
+        super(c);
+    }
+
+    /**
+     * Constructs an empty set with the specified initial capacity and the default load factor
+     * (0.75).
+     *
+     * @param initialCapacity - the initial capacity of the set
+     */
+    public BetterLinkedHashSet(int initialCapacity) {
+        super(initialCapacity);
+    }
+}
@@ -1,6 +1,9 @@
 package fr.klemek.betterlists;
 
-import java.util.*;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
 import java.util.function.Function;
 
 /**
@@ -9,451 +12,140 @@ import java.util.function.Function;
  *
  * @author Klemek
  * @see java.util.List
+ * @see BetterCollection
  */
-public interface BetterList<T> extends List<T> {
+public interface BetterList<T> extends List<T>, BetterCollection<T> {
 
     /**
-     * Determines whether all elements of the sequence satisfy a condition.
+     * Inserts all the elements of a collection at the specified position, like addAll. The
+     * array-backed lists grow at most once and shift the following elements once.
      *
-     * @param predicate - A function to test each element for a condition.
-     * @return true if every element of the source sequence passes the test in the
-     * specified predicate, or if the sequence is empty; otherwise, false.
-     */
-    default boolean all(Function<T, Boolean> predicate) {
-        for (T element : this)
-            if (!predicate.apply(element))
-                return false;
-        return true;
-    }
-
-    /**
-     * Determines whether any element of the sequence satisfies a condition.
-     *
-     * @param predicate - A function to test each element for a condition.
-     * @return true if any elements in the source sequence pass the test in the
-     * specified predicate; otherwise, false.
-     */
-    default boolean any(Function<T, Boolean> predicate) {
-        for (T element : this)
-            if (predicate.apply(element))
-                return true;
-        return false;
-    }
-
-    /**
-     * Returns the number of elements in the sequence.
-     *
-     * @return The number of elements in the input sequence.
-     */
-    default int count() {
-        return count(e -> true);
-    }
-
-    /**
-     * Returns a number that represents how many elements in the specified sequence
-     * satisfy a condition.
-     *
-     * @param predicate - A function to test each element for a condition.
-     * @return A number that represents how many elements in the sequence satisfy
-     * the condition in the predicate function.
-     */
-    default int count(Function<T, Boolean> predicate) {
-        int out = 0;
-        for (T element : this)
-            if (predicate.apply(element))
-                out++;
-        return out;
-    }
-
-    /**
-     * Produces the set exclusion of two sequences.
-     *
-     * @param other - Another List whose distinct elements form the second set for the
-     *              exclusion.
-     * @return A List that contains the elements from the first sequence not present
-     * in the other.
+     * @param index    - The index at which to insert the first element.
+     * @param elements - The elements to insert.
+     * @return The number of elements inserted.
+     * @throws IndexOutOfBoundsException if the index is out of range (index &lt; 0 || index &gt; size())
      */
-    default BetterList<T> exclusion(List<T> other) {
-        BetterList<T> out = new BetterArrayList<>();
-        for (T element : this)
-            if (!other.contains(element))
-                out.add(element);
-        return out;
-    }
-
-    /**
-     * Returns the first element in the sequence.
-     *
-     * @return The first element in the sequence.
-     * @throws NoSuchElementException If the sequence is empty.
-     */
-    default T first() {
-        return first(e -> true);
+    default int insertRange(int index, Collection<? extends T> elements) {
+        int before = size();
+        addAll(index, elements);
+        return size() - before;
     }
 
     /**
-     * Returns the first element in the sequence that satisfies a specified
-     * condition.
+     * Replaces all the elements of the list that satisfy a predicate by the result of a mapper, in
+     * a single pass (and a single copy for BetterCopyOnWriteArrayList).
      *
      * @param predicate - A function to test each element for a condition.
-     * @return The first element in the sequence that passes the test in the
-     * specified predicate function.
-     * @throws NoSuchElementException No element satisfies the condition in predicate or the sequence
-     *                                is empty.
-     */
-    default T first(Function<T, Boolean> predicate) {
-        for (T element : this)
-            if (predicate.apply(element))
-                return element;
-        throw new NoSuchElementException();
-    }
-
-    /**
-     * Returns the first element of the sequence that satisfies a condition or the
-     * default value if no such element is found.
-     *
-     * @param predicate    - A function to test each element for a condition.
-     * @param defaultValue - A default value to be returned if no element passes the test
-     * @return defaultValue if the sequence is empty or if no element passes the
-     * test specified by predicate; otherwise, the first element in the
-     * sequence that passes the test specified by predicate.
-     */
-    default T firstOrDefault(Function<T, Boolean> predicate, T defaultValue) {
-        for (T element : this)
-            if (predicate.apply(element))
+     * @param mapper    - A function giving the replacement of a matching element.
+     * @return The number of elements replaced.
+     */
+    default int replaceWhere(Function<T, Boolean> predicate, Function<T, T> mapper) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int[] replaced = new int[1];
+        replaceAll(element -> {
+            if (!predicate.apply(element))
                 return element;
-        return defaultValue;
-    }
-
-    /**
-     * Returns the first element of the sequence or a default value if the sequence
-     * is empty.
-     *
-     * @param defaultValue - A default value to be returned if the sequence is empty
-     * @return defaultValue if the sequence is empty otherwise, the first element in
-     * the sequence.
-     */
-    default T firstOrDefault(T defaultValue) {
-        return firstOrDefault(e -> true, defaultValue);
-    }
-
-    /**
-     * Returns the last element of the sequence.
-     *
-     * @return the last element of the sequence.
-     * @throws NoSuchElementException If the sequence is empty.
-     */
-    default T last() {
-        return last(e -> true);
-    }
-
-    /**
-     * Returns the last element of the sequence that satisfies a specified
-     * condition.
-     *
-     * @param predicate - A function to test each element for a condition.
-     * @return the last element of the sequence that satisfies a specified
-     * condition.
-     * @throws NoSuchElementException No element satisfies the condition in predicate or the sequence
-     *                                is empty.
-     */
-    default T last(Function<T, Boolean> predicate) {
-        T value = null;
-        for (T element : this)
-            if (predicate.apply(element))
-                value = element;
-        if (value == null)
-            throw new NoSuchElementException();
-        return value;
-    }
-
-    /**
-     * Returns the last element of the sequence that satisfies a condition or the
-     * default value if no such element is found.
-     *
-     * @param predicate    - A function to test each element for a condition.
-     * @param defaultValue - A default value to be returned if no element passes the test
-     * @return defaultValue if the sequence is empty or if no element passes the
-     * test specified by predicate; otherwise, the last element in the
-     * sequence that passes the test specified by predicate.
-     */
-    default T lastOrDefault(Function<T, Boolean> predicate, T defaultValue) {
-        T value = null;
-        for (T element : this)
-            if (predicate.apply(element))
-                value = element;
-        return value == null ? defaultValue : value;
-    }
-
-    /**
-     * Returns the last element of the sequence or a default value if the sequence
-     * is empty.
-     *
-     * @param defaultValue - A default value to be returned if the sequence is empty
-     * @return defaultValue if the sequence is empty otherwise, the last element in
-     * the sequence.
-     */
-    default T lastOrDefault(T defaultValue) {
-        return lastOrDefault(e -> true, defaultValue);
-    }
-
-    /**
-     * Invokes a transform function on each element of the sequence and returns the
-     * maximum nullable Double value.
-     *
-     * @param selector - A transform function to apply to each element.
-     * @return The value of type Double that corresponds to the maximum value in the
-     * sequence or null if the sequence is empty.
-     */
-    default Double max(Function<T, Double> selector) {
-        Double max = null;
-        for (T element : this)
-            if (max == null || selector.apply(element) > max)
-                max = selector.apply(element);
-        return max;
-    }
-
-    /**
-     * Computes the mean of the sequence of Double values that are obtained by
-     * invoking a transform function on each element of the input sequence.
-     *
-     * @param selector - A transform function to apply to each element.
-     * @return The mean of the projected values. Null if the sequence contains no
-     * elements.
-     */
-    default Double mean(Function<T, Double> selector) {
-        int count = this.count();
-        if (count == 0)
-            return null;
-        return this.sum(selector) / this.count();
-    }
-
-    /**
-     * Invokes a transform function on each element of the sequence and returns the
-     * minimum nullable Double value.
-     *
-     * @param selector - A transform function to apply to each element.
-     * @return The value of type Double that corresponds to the minimum value in the
-     * sequence or null if the sequence is empty.
-     */
-    default Double min(Function<T, Double> selector) {
-        Double min = null;
-        for (T element : this)
-            if (min == null || selector.apply(element) < min)
-                min = selector.apply(element);
-        return min;
-    }
-
-    /**
-     * Sorts the elements of a sequence in ascending order by using a specified comparer.
-     *
-     * @param <E>      The type of the projected values lists
-     * @param selector - A transform function to apply to each element.
-     * @return a List whose elements are sorted according to a key.
-     */
-    default <E extends Comparable<E>> BetterList<T> orderBy(Function<T, E> selector) {
-        BetterList<T> out = new BetterArrayList<>();
-        out.addAll(this);
-        Collections.sort(out, (o1, o2) -> selector.apply(o1).compareTo(selector.apply(o2)));
-        return out;
-    }
-
-    /**
-     * Sorts the elements of a sequence in descending order by using a specified comparer.
-     *
-     * @param <E>      The type of the projected values lists
-     * @param selector - A transform function to apply to each element.
-     * @return a List whose elements are sorted according to a key.
-     */
-    default <E extends Comparable<E>> BetterList<T> orderByDescending(Function<T, E> selector) {
-        BetterList<T> out = new BetterArrayList<>();
-        out.addAll(this);
-        Collections.sort(out, (o1, o2) -> selector.apply(o2).compareTo(selector.apply(o1)));
-        return out;
-    }
-
-    /**
-     * Inverts the order of the elements in the sequence.
-     *
-     * @return A sequence whose elements correspond to those of the sequence in
-     * reverse order.
-     */
-    default BetterList<T> reverse() {
-        BetterList<T> out = new BetterArrayList<>(this.size());
-        for (T element : this)
-            out.add(0, element);
-        return out;
-    }
-
-    /**
-     * Projects each element of a sequence into a new form.
-     *
-     * @param <E>      The type of the projected values
-     * @param selector - A transform function to apply to each element.
-     * @return A List whose elements are the result of invoking the transform
-     * function on each element of the sequence.
-     */
-    default <E> BetterList<E> select(Function<T, E> selector) {
-        BetterList<E> out = new BetterArrayList<>();
-        for (T element : this)
-            out.add(selector.apply(element));
-        return out;
-    }
-
-    /**
-     * Projects each element of a sequence into a new list and flattens the
-     * resulting sequences into one sequence.
-     *
-     * @param <E>      The type of the projected values lists
-     * @param selector - A transform function to apply to each element.
-     * @return A List whose elements are the result of invoking the one-to-many
-     * transform function on each element of the input sequence.
-     */
-    default <E> BetterList<E> selectMany(Function<T, Collection<? extends E>> selector) {
-        BetterList<E> out = new BetterArrayList<>();
-        for (T element : this)
-            out.addAll(selector.apply(element));
-        return out;
-    }
-
-    /**
-     * Projects each element of a sequence into a new list and flattens the
-     * resulting sequences into one sequence.
-     *
-     * @param <E>      The type of the projected values lists
-     * @param selector - A transform function to apply to each element.
-     * @return A List whose elements are the result of invoking the one-to-many
-     * transform function on each element of the input sequence.
-     */
-    default <E> BetterList<E> selectManyArrays(Function<T, E[]> selector) {
-        BetterList<E> out = new BetterArrayList<>();
-        for (T element : this)
-            out.addAll(Arrays.asList(selector.apply(element)));
-        return out;
-    }
-
-    /**
-     * Bypasses a specified number of elements in the sequence and then returns the
-     * remaining elements.
-     *
-     * @param count - The number of elements to skip before returning the remaining
-     *              elements.
-     * @return a List that contains the elements that occur after the specified
-     * index in the sequence.
-     */
-    default BetterList<T> skip(int count) {
-        BetterList<T> out = new BetterArrayList<>();
-        int n = 0;
-        for (T element : this) {
-            if (n >= count)
+            replaced[0]++;
+            return mapper.apply(element);
+        });
+        BetterListInstrumentation.end(metrics, "replaceWhere", start, size(), replaced[0], false);
+        return replaced[0];
+    }
+
+    /**
+     * Returns the elements of the list whose indices are in a bitmap, in ascending index order.
+     *
+     * @param mask - The indices of the elements to return, as produced by whereMask.
+     * @return a List that contains the elements at the indices of the bitmap.
+     * @throws IndexOutOfBoundsException if an index of the bitmap is out of range
+     */
+    default BetterList<T> select(IndexBitmap mask) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>(mask.cardinality());
+        if (this instanceof RandomAccess) {
+            mask.forEach(index -> out.add(get(index)));
+        } else {
+            int[] indices = mask.toArray();
+            if (indices.length > 0 && indices[indices.length - 1] >= size())
+                throw new IndexOutOfBoundsException("Index: " + indices[indices.length - 1] + ", Size: " + size());
+            Iterator<T> iterator = iterator();
+            int position = 0;
+            for (int index : indices) {
+                T element = iterator.next();
+                while (position++ < index)
+                    element = iterator.next();
                 out.add(element);
-            n++;
+            }
         }
+        BetterListInstrumentation.end(metrics, "select", start, out.size(), out.size(), true);
         return out;
     }
 
     /**
-     * Bypasses elements in the sequence as long as a specified condition is true
-     * and then returns the remaining elements.
+     * Evaluates a predicate on each element of the list and returns the indices of the matching
+     * ones as a compressed bitmap, which can be combined with the bitmaps of other predicates
+     * (and, or, andNot, not) before being materialized by select(IndexBitmap).
      *
      * @param predicate - A function to test each element for a condition.
-     * @return a List that contains the elements from the sequence starting at the
-     * first element in the linear series that does not pass the test
-     * specified by predicate.
+     * @return the bitmap of the indices of the elements that satisfy the condition.
      */
-    default BetterList<T> skipWhile(Function<T, Boolean> predicate) {
-        BetterList<T> out = new BetterArrayList<>();
-        boolean match = true;
-        for (T element : this)
-            if (!match || !predicate.apply(element)) {
-                match = false;
-                out.add(element);
-            }
-        return out;
-    }
-
-    /**
-     * Computes the sum of the sequence of Double values that are obtained by
-     * invoking a transform function on each element of the input sequence.
-     *
-     * @param selector - A transform function to apply to each element.
-     * @return The sum of the projected values. Zero if the sequence contains no
-     * elements.
-     */
-    default Double sum(Function<T, Double> selector) {
-        double sum = 0d;
-        for (T element : this)
-            sum += selector.apply(element);
-        return sum;
-    }
-
-    /**
-     * Returns a specified number of contiguous elements from the start of the
-     * sequence.
-     *
-     * @param count - The number of elements to return.
-     * @return a List that contains the specified number of elements from the start
-     * of the input sequence.
-     */
-    default BetterList<T> take(int count) {
-        BetterList<T> out = new BetterArrayList<>(count);
-        int n = 0;
+    default IndexBitmap whereMask(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        IndexBitmap.Builder builder = new IndexBitmap.Builder();
+        int index = 0;
         for (T element : this) {
-            if (n < count)
-                out.add(element);
-            else
-                break;
-            n++;
+            if (predicate.apply(element))
+                builder.add(index);
+            index++;
         }
-        return out;
+        IndexBitmap mask = builder.build();
+        BetterListInstrumentation.end(metrics, "whereMask", start, index, mask.cardinality(), true);
+        return mask;
     }
 
     /**
-     * Returns elements from the sequence as long as a specified condition is true.
+     * Produces the set exclusion of two sequences, kept for binary compatibility with the
+     * callers compiled against the List signature.
      *
-     * @param predicate - A function to test each element for a condition.
-     * @return a List that contains the elements from the sequence that occur before
-     * the element at which the test no longer passes.
+     * @param other - Another List whose distinct elements form the second set for the
+     *              exclusion.
+     * @return A List that contains the elements from the first sequence not present
+     * in the other.
+     * @see BetterCollection#exclusion(Collection)
      */
-    default BetterList<T> takeWhile(Function<T, Boolean> predicate) {
-        BetterList<T> out = new BetterArrayList<>();
-        for (T element : this)
-            if (predicate.apply(element))
-                out.add(element);
-            else
-                break;
-        return out;
+    default BetterList<T> exclusion(List<T> other) {
+        return exclusion((Collection<T>) other);
     }
 
     /**
-     * Produces the set union of two sequences.
+     * Produces the set union of two sequences, kept for binary compatibility with the callers
+     * compiled against the List signature.
      *
      * @param other - Another List whose distinct elements form the second set for the
      *              union.
      * @return A List that contains the elements from both sequences, excluding
      * duplicates.
+     * @see BetterCollection#union(Collection)
      */
     default BetterList<T> union(List<T> other) {
-        BetterList<T> out = new BetterArrayList<>();
-        for (T element : this)
-            if (other.contains(element))
-                out.add(element);
-        return out;
+        return union((Collection<T>) other);
     }
 
     /**
-     * Filters a sequence of values based on a predicate.
+     * Returns a read-only view of this list whose operators check limits while they run: a
+     * deadline, a cancellation token and a maximum number of elements scanned by each operator.
+     * An operator exceeding a limit throws a QueryAbortedException and its partial results are
+     * dropped.
      *
-     * @param predicate - A function to test each element for a condition.
-     * @return a List that contains elements from the sequence that satisfy the
-     * condition.
+     * @param limits - The limits checked by the operators of the view.
+     * @return a view of this list checking the limits.
+     * @see QueryLimits
      */
-    default BetterList<T> where(Function<T, Boolean> predicate) {
-        BetterList<T> out = new BetterArrayList<>();
-        for (T element : this)
-            if (predicate.apply(element))
-                out.add(element);
-        return out;
+    @Override
+    default BetterList<T> withLimits(QueryLimits limits) {
+        return new LimitedBetterList<>(this, limits);
     }
-
 }
@@ -0,0 +1,143 @@
+package fr.klemek.betterlists;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes and reads elements to and from binary streams, used to spill elements to disk.
+ *
+ * @param <T> the type of the elements
+ * @author Klemek
+ * @see BetterList#orderBy(java.util.function.Function, int, BetterListCodec)
+ */
+public interface BetterListCodec<T> {
+
+    /**
+     * Writes an element.
+     *
+     * @param out     - the stream to write to
+     * @param element - the element
+     * @throws IOException if the stream cannot be written
+     */
+    void write(DataOutput out, T element) throws IOException;
+
+    /**
+     * Reads an element written by write.
+     *
+     * @param in - the stream to read from
+     * @return the element
+     * @throws IOException if the stream cannot be read
+     */
+    T read(DataInput in) throws IOException;
+
+    /**
+     * @return a codec of non-null strings, encoded in UTF-8
+     */
+    static BetterListCodec<String> strings() {
+        return new BetterListCodec<String>() {
+            @Override
+            public void write(DataOutput out, String element) throws IOException {
+                byte[] bytes = element.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            @Override
+            public String read(DataInput in) throws IOException {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * @return a codec of non-null integers
+     */
+    static BetterListCodec<Integer> integers() {
+        return new BetterListCodec<Integer>() {
+            @Override
+            public void write(DataOutput out, Integer element) throws IOException {
+                out.writeInt(element);
+            }
+
+            @Override
+            public Integer read(DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+    }
+
+    /**
+     * @return a codec of non-null longs
+     */
+    static BetterListCodec<Long> longs() {
+        return new BetterListCodec<Long>() {
+            @Override
+            public void write(DataOutput out, Long element) throws IOException {
+                out.writeLong(element);
+            }
+
+            @Override
+            public Long read(DataInput in) throws IOException {
+                return in.readLong();
+            }
+        };
+    }
+
+    /**
+     * @return a codec of non-null doubles
+     */
+    static BetterListCodec<Double> doubles() {
+        return new BetterListCodec<Double>() {
+            @Override
+            public void write(DataOutput out, Double element) throws IOException {
+                out.writeDouble(element);
+            }
+
+            @Override
+            public Double read(DataInput in) throws IOException {
+                return in.readDouble();
+            }
+        };
+    }
+
+    /**
+     * Returns a codec using Java serialization, slower and larger than a dedicated codec.
+     *
+     * @param <T> - the type of the elements
+     * @return a codec of serializable elements (null included)
+     */
+    static <T extends Serializable> BetterListCodec<T> serializable() {
+        return new BetterListCodec<T>() {
+            @Override
+            public void write(DataOutput out, T element) throws IOException {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                    oos.writeObject(element);
+                }
+                out.writeInt(bytes.size());
+                out.write(bytes.toByteArray());
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T read(DataInput in) throws IOException {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return (T) ois.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            }
+        };
+    }
+}
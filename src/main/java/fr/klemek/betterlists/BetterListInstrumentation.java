@@ -0,0 +1,63 @@
+package fr.klemek.betterlists;
+
+/**
+ * Holds the global metrics hook used by the BetterList operators.
+ * <p>
+ * Instrumentation is disabled by default: operators then only perform a null check and never read
+ * the clock.
+ *
+ * @author Klemek
+ * @see BetterListMetrics
+ * @see BetterList#metrics()
+ */
+public final class BetterListInstrumentation {
+
+    private static volatile BetterListMetrics globalMetrics;
+
+    private BetterListInstrumentation() {
+    }
+
+    /**
+     * Returns the metrics hook used by every list which does not override BetterList.metrics().
+     *
+     * @return the global metrics hook or null if instrumentation is disabled
+     */
+    public static BetterListMetrics getGlobalMetrics() {
+        return globalMetrics;
+    }
+
+    /**
+     * Sets the metrics hook used by every list which does not override BetterList.metrics().
+     *
+     * @param metrics - the hook to notify or null to disable instrumentation
+     */
+    public static void setGlobalMetrics(BetterListMetrics metrics) {
+        globalMetrics = metrics;
+    }
+
+    /**
+     * Starts measuring an operator.
+     *
+     * @param metrics - the hook of the list, can be null
+     * @return the start time or 0 if the hook is null
+     */
+    static long start(BetterListMetrics metrics) {
+        return metrics == null ? 0L : System.nanoTime();
+    }
+
+    /**
+     * Ends measuring an operator and notifies the hook.
+     *
+     * @param metrics   - the hook of the list, can be null
+     * @param operator  - the name of the operator
+     * @param start     - the value returned by start
+     * @param scanned   - the number of elements visited
+     * @param emitted   - the number of elements produced or matched
+     * @param allocated - true if a result list was allocated
+     */
+    static void end(BetterListMetrics metrics, String operator, long start, long scanned, long emitted,
+                    boolean allocated) {
+        if (metrics != null)
+            metrics.record(operator, scanned, emitted, allocated, System.nanoTime() - start);
+    }
+}
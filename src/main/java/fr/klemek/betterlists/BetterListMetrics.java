@@ -0,0 +1,23 @@
+package fr.klemek.betterlists;
+
+/**
+ * A hook notified each time a BetterList operator completes.
+ *
+ * @author Klemek
+ * @see BetterListInstrumentation
+ * @see BetterListStatistics
+ */
+@FunctionalInterface
+public interface BetterListMetrics {
+
+    /**
+     * Records the execution of an operator.
+     *
+     * @param operator  - the name of the operator (where, orderBy, exclusion, ...)
+     * @param scanned   - the number of elements of the source sequence visited by the operator
+     * @param emitted   - the number of elements produced (or matched) by the operator
+     * @param allocated - true if the operator allocated a new result list
+     * @param nanos     - the time spent in the operator, in nanoseconds
+     */
+    void record(String operator, long scanned, long emitted, boolean allocated, long nanos);
+}
@@ -0,0 +1,162 @@
+package fr.klemek.betterlists;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe BetterListMetrics implementation which aggregates, for each operator, the number
+ * of invocations, the elements scanned and emitted, the result lists allocated and a latency
+ * histogram.
+ * <p>
+ * The latency histogram has 64 buckets, bucket i counting the invocations which took between
+ * 2^(i-1) (exclusive) and 2^i (inclusive) nanoseconds.
+ *
+ * @author Klemek
+ * @see BetterListInstrumentation#setGlobalMetrics(BetterListMetrics)
+ */
+public class BetterListStatistics implements BetterListMetrics {
+
+    private final ConcurrentHashMap<String, OperatorStatistics> operators = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(String operator, long scanned, long emitted, boolean allocated, long nanos) {
+        operators.computeIfAbsent(operator, k -> new OperatorStatistics()).record(scanned, emitted, allocated, nanos);
+    }
+
+    /**
+     * Returns the statistics of an operator.
+     *
+     * @param operator - the name of the operator
+     * @return the statistics of the operator or null if it was never recorded
+     */
+    public OperatorStatistics get(String operator) {
+        return operators.get(operator);
+    }
+
+    /**
+     * Returns the statistics of all recorded operators, sorted by name.
+     *
+     * @return a map of the operators names and their statistics
+     */
+    public Map<String, OperatorStatistics> getAll() {
+        return new TreeMap<>(operators);
+    }
+
+    /**
+     * Clears all recorded statistics.
+     */
+    public void reset() {
+        operators.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, OperatorStatistics> entry : getAll().entrySet())
+            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * The statistics recorded for a single operator.
+     */
+    public static class OperatorStatistics {
+
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder scanned = new LongAdder();
+        private final LongAdder emitted = new LongAdder();
+        private final LongAdder allocations = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLongArray histogram = new AtomicLongArray(64);
+
+        void record(long scanned, long emitted, boolean allocated, long nanos) {
+            this.invocations.increment();
+            this.scanned.add(scanned);
+            this.emitted.add(emitted);
+            if (allocated)
+                this.allocations.increment();
+            this.totalNanos.add(nanos);
+            this.histogram.incrementAndGet(nanos <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(nanos - 1));
+        }
+
+        /**
+         * @return the number of invocations of the operator
+         */
+        public long getInvocations() {
+            return invocations.sum();
+        }
+
+        /**
+         * @return the total number of elements visited by the operator
+         */
+        public long getScanned() {
+            return scanned.sum();
+        }
+
+        /**
+         * @return the total number of elements produced or matched by the operator
+         */
+        public long getEmitted() {
+            return emitted.sum();
+        }
+
+        /**
+         * @return the number of result lists allocated by the operator
+         */
+        public long getAllocations() {
+            return allocations.sum();
+        }
+
+        /**
+         * @return the total time spent in the operator, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * Returns a copy of the latency histogram, bucket i counting the invocations which took
+         * between 2^(i-1) (exclusive) and 2^i (inclusive) nanoseconds.
+         *
+         * @return the 64 buckets of the histogram
+         */
+        public long[] getLatencyHistogram() {
+            long[] out = new long[histogram.length()];
+            for (int i = 0; i < out.length; i++)
+                out[i] = histogram.get(i);
+            return out;
+        }
+
+        /**
+         * Returns an upper bound of the latency under which the given fraction of the invocations
+         * completed, based on the histogram.
+         *
+         * @param q - the quantile, between 0 and 1
+         * @return the upper bound of the bucket containing the quantile, in nanoseconds
+         */
+        public long getLatencyQuantile(double q) {
+            long[] buckets = getLatencyHistogram();
+            long total = 0;
+            for (long bucket : buckets)
+                total += bucket;
+            long target = (long) Math.ceil(q * total);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= target && seen > 0)
+                    return i == 63 ? Long.MAX_VALUE : 1L << i;
+            }
+            return 0L;
+        }
+
+        @Override
+        public String toString() {
+            return "invocations=" + getInvocations() + ", scanned=" + getScanned() + ", emitted=" + getEmitted()
+                    + ", allocations=" + getAllocations() + ", totalNanos=" + getTotalNanos()
+                    + ", p50<=" + getLatencyQuantile(0.5) + "ns, p99<=" + getLatencyQuantile(0.99) + "ns";
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package fr.klemek.betterlists;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Static utilities building BetterLists.
+ *
+ * @author Klemek
+ */
+public final class BetterLists {
+
+    private BetterLists() {
+    }
+
+    /**
+     * Loads the lines of a UTF-8 text file into a list, parsing each of them.
+     * <p>
+     * Files of 1 MB or more are split into line-aligned chunks read with large NIO buffers and
+     * parsed in parallel on the common ForkJoinPool, the parser must then be thread-safe. Each chunk
+     * is pre-sized from the line density of its first buffer and the result is sized exactly (a
+     * single chunk being trimmed to its size), the elements staying in file order. Lines are split
+     * on '\n', a trailing '\r' being dropped.
+     *
+     * @param <T>    - the type of the elements
+     * @param path   - the file to read
+     * @param parser - the function parsing a line into an element
+     * @return a new list of the parsed lines
+     * @throws IOException if the file cannot be read
+     */
+    public static <T> BetterArrayList<T> load(Path path, Function<String, T> parser) throws IOException {
+        return load(path, parser, null, null);
+    }
+
+    /**
+     * Loads the lines of a UTF-8 text file into a list, parsing each of them and keeping the
+     * elements satisfying a predicate, without keeping the others in memory.
+     *
+     * @param <T>       - the type of the elements
+     * @param path      - the file to read
+     * @param parser    - the function parsing a line into an element
+     * @param predicate - A function to test each element for a condition.
+     * @return a new list of the parsed lines satisfying the condition
+     * @throws IOException if the file cannot be read
+     * @see #load(Path, Function)
+     */
+    public static <T> BetterArrayList<T> load(Path path, Function<String, T> parser,
+                                              Function<T, Boolean> predicate) throws IOException {
+        return load(path, parser, predicate, null);
+    }
+
+    /**
+     * Loads the lines of a UTF-8 text file into a list, parsing each of them, keeping the elements
+     * satisfying a predicate and projecting them, as where and select would do on the loaded list,
+     * but without keeping the whole file in memory.
+     *
+     * @param <T>       - the type of the parsed lines
+     * @param <E>       - the type of the elements
+     * @param path      - the file to read
+     * @param parser    - the function parsing a line
+     * @param predicate - A function to test each parsed line for a condition, or null to keep all
+     *                  of them.
+     * @param selector  - A transform function to apply to each kept parsed line, or null to keep
+     *                  them as they are.
+     * @return a new list of the elements
+     * @throws IOException if the file cannot be read
+     * @see #load(Path, Function)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, E> BetterArrayList<E> load(Path path, Function<String, T> parser, Function<T, Boolean> predicate,
+                                                 Function<T, E> selector) throws IOException {
+        List<BetterArrayList<E>> chunks = ParallelLineReader.read(path,
+                () -> new ParallelLineReader.LineHandler<BetterArrayList<E>>() {
+                    private BetterArrayList<E> out;
+
+                    @Override
+                    public void expect(int lines) {
+                        out = new BetterArrayList<>(predicate == null ? lines : 16);
+                    }
+
+                    @Override
+                    public void line(byte[] bytes, int offset, int length) {
+                        T element = parser.apply(new String(bytes, offset, length, StandardCharsets.UTF_8));
+                        if (predicate == null || predicate.apply(element))
+                            out.add(selector == null ? (E) element : selector.apply(element));
+                    }
+
+                    @Override
+                    public BetterArrayList<E> result() {
+                        return out == null ? new BetterArrayList<>(0) : out;
+                    }
+                });
+        if (chunks.size() == 1) {
+            chunks.get(0).trimToSize();
+            return chunks.get(0);
+        }
+        int size = 0;
+        for (BetterArrayList<E> chunk : chunks)
+            size += chunk.size();
+        BetterArrayList<E> out = new BetterArrayList<>(size);
+        for (BetterArrayList<E> chunk : chunks)
+            out.addAll(chunk);
+        return out;
+    }
+
+    /**
+     * Loads the lines of a UTF-8 text file into a list of doubles, parsing each of them, without
+     * boxing the values.
+     *
+     * @param path   - the file to read
+     * @param parser - the function parsing a line into a value
+     * @return a new list of the parsed values
+     * @throws IOException if the file cannot be read
+     * @see #load(Path, Function)
+     */
+    public static BetterDoubleList loadDoubles(Path path, ToDoubleFunction<String> parser) throws IOException {
+        return loadDoubleLines(path, (bytes, offset, length) ->
+                parser.applyAsDouble(new String(bytes, offset, length, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Loads a column of a delimited text file (like CSV) into a list of doubles, without building
+     * the strings of the other columns nor boxing the values. The fields are not unquoted.
+     *
+     * @param path      - the file to read
+     * @param delimiter - the field delimiter, an ASCII character
+     * @param column    - the index of the column to load, starting at 0
+     * @return a new list of the values of the column
+     * @throws IOException           if the file cannot be read
+     * @throws NumberFormatException if a line has no such column or its field is not a number
+     * @see #load(Path, Function)
+     */
+    public static BetterDoubleList loadDoubles(Path path, char delimiter, int column) throws IOException {
+        if (column < 0)
+            throw new IllegalArgumentException("Illegal column: " + column);
+        return loadDoubleLines(path, (bytes, offset, length) -> {
+            int end = offset + length;
+            int start = offset;
+            for (int c = 0; c < column; c++) {
+                while (start < end && bytes[start] != delimiter)
+                    start++;
+                if (start == end)
+                    throw new NumberFormatException("No column " + column + " in line: " +
+                            new String(bytes, offset, length, StandardCharsets.UTF_8));
+                start++;
+            }
+            int stop = start;
+            while (stop < end && bytes[stop] != delimiter)
+                stop++;
+            return Double.parseDouble(new String(bytes, start, stop - start, StandardCharsets.ISO_8859_1));
+        });
+    }
+
+    /**
+     * Merges lists already sorted by a comparator into a new sorted list, in O(N log k) for N
+     * elements in k lists instead of sorting their concatenation. Equal elements are kept in the
+     * order of the lists.
+     *
+     * @param <T>        - the type of the elements
+     * @param comparator - the order of the lists
+     * @param lists      - the sorted lists to merge
+     * @return a new sorted list of all the elements, sized exactly
+     */
+    @SafeVarargs
+    public static <T> BetterArrayList<T> mergeSorted(Comparator<? super T> comparator, List<? extends T>... lists) {
+        return mergeSorted(comparator, false, lists);
+    }
+
+    /**
+     * Merges lists already sorted by a comparator into a new sorted list, in O(N log k) for N
+     * elements in k lists, optionally keeping only the first of the elements comparing equal.
+     *
+     * @param <T>        - the type of the elements
+     * @param comparator - the order of the lists
+     * @param distinct   - true to remove the duplicates while merging
+     * @param lists      - the sorted lists to merge
+     * @return a new sorted list of the elements
+     * @see #mergeSorted(Comparator, List[])
+     */
+    @SafeVarargs
+    public static <T> BetterArrayList<T> mergeSorted(Comparator<? super T> comparator, boolean distinct,
+                                                     List<? extends T>... lists) {
+        int size = 0;
+        for (List<? extends T> list : lists)
+            size += list.size();
+        BetterArrayList<T> out = new BetterArrayList<>(size);
+        Iterator<T> merged = mergeSortedIterator(comparator, distinct, lists);
+        while (merged.hasNext())
+            out.add(merged.next());
+        return out;
+    }
+
+    /**
+     * Merges lists already sorted by a key into a new sorted list, in O(N log k) for N elements in
+     * k lists.
+     *
+     * @param <T>         - the type of the elements
+     * @param <E>         - the type of the keys
+     * @param keySelector - the function giving the key by which the lists are sorted
+     * @param lists       - the sorted lists to merge
+     * @return a new sorted list of all the elements, sized exactly
+     * @see #mergeSorted(Comparator, List[])
+     */
+    @SafeVarargs
+    public static <T, E extends Comparable<E>> BetterArrayList<T> mergeSortedBy(Function<T, E> keySelector,
+                                                                                List<? extends T>... lists) {
+        return mergeSorted(Comparator.comparing(keySelector), false, lists);
+    }
+
+    /**
+     * Merges lists already sorted by a key into a new sorted list, in O(N log k) for N elements in
+     * k lists, optionally keeping only the first of the elements with equal keys.
+     *
+     * @param <T>         - the type of the elements
+     * @param <E>         - the type of the keys
+     * @param keySelector - the function giving the key by which the lists are sorted
+     * @param distinct    - true to remove the elements with duplicate keys while merging
+     * @param lists       - the sorted lists to merge
+     * @return a new sorted list of the elements
+     * @see #mergeSorted(Comparator, List[])
+     */
+    @SafeVarargs
+    public static <T, E extends Comparable<E>> BetterArrayList<T> mergeSortedBy(Function<T, E> keySelector,
+                                                                                boolean distinct,
+                                                                                List<? extends T>... lists) {
+        return mergeSorted(Comparator.comparing(keySelector), distinct, lists);
+    }
+
+    /**
+     * Merges lists already sorted by a comparator lazily: each call to next costs O(log k) for k
+     * lists, and the lists must not be modified during the iteration.
+     *
+     * @param <T>        - the type of the elements
+     * @param comparator - the order of the lists
+     * @param distinct   - true to remove the duplicates while merging
+     * @param lists      - the sorted lists to merge
+     * @return an iterator over the merged elements
+     * @see #mergeSorted(Comparator, List[])
+     */
+    @SafeVarargs
+    public static <T> Iterator<T> mergeSortedIterator(Comparator<? super T> comparator, boolean distinct,
+                                                      List<? extends T>... lists) {
+        List<Iterator<? extends T>> sources = new ArrayList<>(lists.length);
+        for (List<? extends T> list : lists)
+            sources.add(list.iterator());
+        return new MergeIterator<>(sources, comparator, distinct);
+    }
+
+    private static BetterDoubleList loadDoubleLines(Path path, LineParser parser) throws IOException {
+        List<BetterDoubleList> chunks = ParallelLineReader.read(path,
+                () -> new ParallelLineReader.LineHandler<BetterDoubleList>() {
+                    private BetterDoubleList out;
+
+                    @Override
+                    public void expect(int lines) {
+                        out = new BetterDoubleList(lines);
+                    }
+
+                    @Override
+                    public void line(byte[] bytes, int offset, int length) {
+                        out.addDouble(parser.parse(bytes, offset, length));
+                    }
+
+                    @Override
+                    public BetterDoubleList result() {
+                        return out == null ? new BetterDoubleList(0) : out;
+                    }
+                });
+        if (chunks.size() == 1) {
+            chunks.get(0).trimToSize();
+            return chunks.get(0);
+        }
+        int size = 0;
+        for (BetterDoubleList chunk : chunks)
+            size += chunk.size();
+        BetterDoubleList out = new BetterDoubleList(size);
+        for (BetterDoubleList chunk : chunks)
+            out.addAll(chunk);
+        return out;
+    }
+
+    private interface LineParser {
+        double parse(byte[] bytes, int offset, int length);
+    }
+}
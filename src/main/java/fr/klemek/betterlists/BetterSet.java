@@ -0,0 +1,38 @@
+package fr.klemek.betterlists;
+
+import java.util.Set;
+
+/**
+ * An extension of the java.util.Set interface which include some of the C#
+ * LINQ useful functions.
+ *
+ * @author Klemek
+ * @see java.util.Set
+ * @see BetterCollection
+ */
+public interface BetterSet<T> extends Set<T>, BetterCollection<T> {
+
+    /**
+     * Returns the number of elements in the set.
+     *
+     * @return The number of elements in the set.
+     */
+    @Override
+    default int count() {
+        return size();
+    }
+
+    /**
+     * Returns the elements of the set, which are already distinct.
+     *
+     * @return A List that contains the elements of the set.
+     */
+    @Override
+    default BetterList<T> distinct() {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        BetterList<T> out = new BetterArrayList<>(this);
+        BetterListInstrumentation.end(metrics, "distinct", start, out.size(), out.size(), true);
+        return out;
+    }
+}
@@ -0,0 +1,44 @@
+package fr.klemek.betterlists;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A BetterSet view of a Set, reflecting its changes and writing through to it.
+ *
+ * @author Klemek
+ */
+final class BetterSetView<T> extends AbstractSet<T> implements BetterSet<T> {
+
+    private final Set<T> set;
+
+    BetterSetView(Set<T> set) {
+        this.set = set;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return set.iterator();
+    }
+
+    @Override
+    public int size() {
+        return set.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return set.contains(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return set.remove(o);
+    }
+
+    @Override
+    public void clear() {
+        set.clear();
+    }
+}
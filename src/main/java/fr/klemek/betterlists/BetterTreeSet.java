@@ -0,0 +1,92 @@
+package fr.klemek.betterlists;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * An extension of the java.util.TreeSet class which include some of the C#
+ * LINQ useful functions. The operators visit the elements in ascending order.
+ *
+ * @author Klemek
+ * @see java.util.TreeSet
+ */
+public class BetterTreeSet<T> extends TreeSet<T> implements BetterSet<T> {
+
+    private static final long serialVersionUID = 2871580413270367502L;
+
+    /**
+     * Constructs a set containing the distinct elements of the specified collection, sorted
+     * according to their natural ordering.
+     *
+     * @param <T> - the type of Set
+     * @param c   - the collection whose elements are to be placed into this set
+     * @return the constructed set
+     */
+    public static <T> BetterTreeSet<T> fromCollection(Collection<T> c) {
+        return new BetterTreeSet<>(c);
+    }
+
+    /**
+     * Constructs a set containing the distinct elements given in argument, sorted according to
+     * their natural ordering.
+     *
+     * @param <T> - the type of Set
+     * @param a   - the elements to be placed into this set
+     * @return the constructed set
+     */
+    @SafeVarargs
+    public static <T> BetterTreeSet<T> asSet(T... a) {
+        return new BetterTreeSet<>(Arrays.asList(a));
+    }
+
+    /**
+     * Constructs an empty set, sorted according to the natural ordering of its elements.
+     */
+    public BetterTreeSet() {
+        super();
+    }
+
+    /**
+     * Constructs an empty set, sorted according to the specified comparator.
+     *
+     * @param comparator - the comparator that will be used to order this set
+     */
+    public BetterTreeSet(Comparator<? super T> comparator) {
+        super(comparator);
+    }
+
+    /**
+     * Constructs a set containing the distinct elements of the specified collection, sorted
+     * according to their natural ordering.
+     *
+     * @param c - the collection whose elements are to be placed into this set
+     */
+    public BetterTreeSet(Collection<? extends T> c) {
+        super(c);
+    }
+
+    /**
+     * Constructs a set containing the elements of the specified sorted set, with the same
+     * ordering.
+     *
+     * @param s - the sorted set whose elements are to be placed into this set
+     */
+    public BetterTreeSet(SortedSet<T> s) {
+        super(s);
+    }
+
+    /**
+     * Returns the elements whose value is between lo (inclusive) and hi (exclusive), in
+     * O(log n) plus the size of the result.
+     *
+     * @param lo - low endpoint (inclusive) of the range
+     * @param hi - high endpoint (exclusive) of the range
+     * @return a List of the elements in the range, in ascending order.
+     */
+    public BetterList<T> range(T lo, T hi) {
+        return new BetterArrayList<>(subSet(lo, true, hi, false));
+    }
+}
@@ -2,11 +2,16 @@ package fr.klemek.betterlists;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Vector;
+import java.util.function.Function;
 
 /**
  * An extension of the java.util.Vector class which include some of the C# LINQ
  * useful functions.
+ * <p>
+ * The all, any, count, max, min, select, sum and where operators hold the lock of the vector once
+ * and loop over its backing array, instead of locking on each element.
  *
  * @author Klemek
  * @see java.util.Vector
@@ -110,4 +115,93 @@ public class BetterVector<T> extends Vector<T> implements BetterList<T> {
         return (BetterVector<T>) super.subList(fromIndex, toIndex);
     }
 
+    /**
+     * Appends all of the elements of a collection, like Vector.addAll, but holding the lock of the
+     * list while updating modCount: since Java 9 Vector increments it before locking, which could
+     * make a concurrent operator of this list fail with a ConcurrentModificationException.
+     *
+     * @param c - the elements to be inserted into this list
+     * @return true if this list changed as a result of the call
+     */
+    @Override
+    public synchronized boolean addAll(Collection<? extends T> c) {
+        return super.addAll(c);
+    }
+
+    @Override
+    public synchronized boolean all(Function<T, Boolean> predicate) {
+        int expectedModCount = modCount;
+        boolean out = ArrayLoops.all(metrics(), elementData, elementCount,
+                () -> checkForComodification(expectedModCount), predicate);
+        checkForComodification(expectedModCount);
+        return out;
+    }
+
+    @Override
+    public synchronized boolean any(Function<T, Boolean> predicate) {
+        int expectedModCount = modCount;
+        boolean out = ArrayLoops.any(metrics(), elementData, elementCount,
+                () -> checkForComodification(expectedModCount), predicate);
+        checkForComodification(expectedModCount);
+        return out;
+    }
+
+    @Override
+    public synchronized int count(Function<T, Boolean> predicate) {
+        int expectedModCount = modCount;
+        int out = ArrayLoops.count(metrics(), elementData, elementCount,
+                () -> checkForComodification(expectedModCount), predicate);
+        checkForComodification(expectedModCount);
+        return out;
+    }
+
+    @Override
+    public synchronized Double max(Function<T, Double> selector) {
+        int expectedModCount = modCount;
+        Double out = ArrayLoops.max(metrics(), elementData, elementCount,
+                () -> checkForComodification(expectedModCount), selector);
+        checkForComodification(expectedModCount);
+        return out;
+    }
+
+    @Override
+    public synchronized Double min(Function<T, Double> selector) {
+        int expectedModCount = modCount;
+        Double out = ArrayLoops.min(metrics(), elementData, elementCount,
+                () -> checkForComodification(expectedModCount), selector);
+        checkForComodification(expectedModCount);
+        return out;
+    }
+
+    @Override
+    public synchronized <E> BetterList<E> select(Function<T, E> selector) {
+        int expectedModCount = modCount;
+        BetterList<E> out = ArrayLoops.select(metrics(), elementData, elementCount,
+                () -> checkForComodification(expectedModCount), selector);
+        checkForComodification(expectedModCount);
+        return out;
+    }
+
+    @Override
+    public synchronized Double sum(Function<T, Double> selector) {
+        int expectedModCount = modCount;
+        Double out = ArrayLoops.sum(metrics(), elementData, elementCount,
+                () -> checkForComodification(expectedModCount), selector);
+        checkForComodification(expectedModCount);
+        return out;
+    }
+
+    @Override
+    public synchronized BetterList<T> where(Function<T, Boolean> predicate) {
+        int expectedModCount = modCount;
+        BetterList<T> out = ArrayLoops.where(metrics(), elementData, elementCount,
+                () -> checkForComodification(expectedModCount), predicate);
+        checkForComodification(expectedModCount);
+        return out;
+    }
+
+    private void checkForComodification(int expectedModCount) {
+        if (modCount != expectedModCount)
+            throw new ConcurrentModificationException();
+    }
 }
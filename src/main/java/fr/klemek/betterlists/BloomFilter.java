@@ -0,0 +1,99 @@
+package fr.klemek.betterlists;
+
+/**
+ * A Bloom filter, answering whether an element might have been added (with a configurable false
+ * positive rate) or definitely was not, in constant memory.
+ * <p>
+ * About -n.ln(p)/ln(2)^2 bits are used for n expected elements and a false positive rate p, for
+ * example 1.2 MB per million elements at 1%. Elements are hashed from their hashCode.
+ *
+ * @param <T> the type of the elements
+ * @author Klemek
+ * @see BetterList#toBloomFilter(double)
+ * @see BetterList#bloomExclusion(java.util.Collection, double)
+ */
+public class BloomFilter<T> {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Constructs an empty filter.
+     *
+     * @param expectedElements  - the number of elements expected to be added
+     * @param falsePositiveRate - the expected false positive rate once expectedElements are added,
+     *                          between 0 and 1 (exclusive)
+     * @throws IllegalArgumentException if the rate is out of range
+     */
+    public BloomFilter(long expectedElements, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1)
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1: " + falsePositiveRate);
+        long n = Math.max(1, expectedElements);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, Math.min(m, (long) Integer.MAX_VALUE * 64));
+        this.bits = new long[(int) ((m + 63) / 64)];
+        this.bitCount = (long) bits.length * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * Adds an element to the filter.
+     *
+     * @param element - the element, can be null
+     */
+    public void put(T element) {
+        long hash = Hashing.hash64(element);
+        long h1 = hash;
+        long h2 = Hashing.mix64(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Tests whether an element might have been added to the filter.
+     *
+     * @param element - the element, can be null
+     * @return false if the element was definitely not added, true if it probably was
+     */
+    public boolean mightContain(Object element) {
+        long hash = Hashing.hash64(element);
+        long h1 = hash;
+        long h2 = Hashing.mix64(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Adds all elements of another filter to this one.
+     *
+     * @param other - a filter constructed with the same parameters
+     * @throws IllegalArgumentException if the filters have different sizes
+     */
+    public void merge(BloomFilter<? extends T> other) {
+        if (other.bitCount != bitCount || other.hashCount != hashCount)
+            throw new IllegalArgumentException("cannot merge filters of different sizes");
+        for (int i = 0; i < bits.length; i++)
+            bits[i] |= other.bits[i];
+    }
+
+    /**
+     * @return the number of bits of the filter
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * @return the number of hash functions of the filter
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+}
@@ -0,0 +1,28 @@
+package fr.klemek.betterlists;
+
+/**
+ * A flag shared between the code running queries and the code which can cancel them, for instance
+ * when the client of a request disconnects.
+ *
+ * @author Klemek
+ * @see QueryLimits#cancellable(CancellationToken)
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    /**
+     * Cancels the queries using this token: they abort with a QueryAbortedException at their next
+     * check.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if cancel was called
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
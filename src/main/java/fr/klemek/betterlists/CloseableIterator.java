@@ -0,0 +1,19 @@
+package fr.klemek.betterlists;
+
+import java.util.Iterator;
+
+/**
+ * An iterator holding resources (temporary files, threads), released when the iterator is
+ * exhausted or closed.
+ *
+ * @param <T> the type of the elements
+ * @author Klemek
+ */
+public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
+
+    /**
+     * Releases the resources of the iterator. Further calls to hasNext return false.
+     */
+    @Override
+    void close();
+}
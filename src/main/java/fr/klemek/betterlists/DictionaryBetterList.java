@@ -0,0 +1,483 @@
+package fr.klemek.betterlists;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * A BetterList of low-cardinality values stored as small integer codes into a dictionary of the
+ * distinct values. The codes use one byte per element while the dictionary holds at most 256
+ * values, two bytes up to 65536 values and four bytes beyond, the width growing automatically.
+ * <p>
+ * where, count, groupBy and distinct run over the codes: the predicate or key selector is
+ * evaluated once per distinct value instead of once per element, so it must only depend on the
+ * value. contains and indexOf look the value up once then compare codes.
+ * <p>
+ * The dictionary keeps the values which were removed from the list, use compact to drop them.
+ * Null elements are permitted.
+ *
+ * @author Klemek
+ */
+public class DictionaryBetterList<T> extends AbstractList<T> implements BetterList<T>, RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final int BYTE_CODES = 1 << 8;
+    private static final int SHORT_CODES = 1 << 16;
+
+    private final List<T> dictionary;
+    private final Map<T, Integer> codes;
+    private int width;
+    private byte[] bytes;
+    private short[] shorts;
+    private int[] ints;
+    private int size;
+
+    /**
+     * Constructs a list containing the elements of the specified collection, in the order they are
+     * returned by the collection's iterator.
+     *
+     * @param <T> - the type of the elements
+     * @param c   - the collection whose elements are to be placed into this list
+     * @return the constructed list
+     */
+    public static <T> DictionaryBetterList<T> fromList(Collection<T> c) {
+        return new DictionaryBetterList<>(c);
+    }
+
+    /**
+     * Constructs a list containing the elements given in argument.
+     *
+     * @param <T> - the type of the elements
+     * @param a   - the elements to be placed into this list
+     * @return the constructed list
+     */
+    @SafeVarargs
+    public static <T> DictionaryBetterList<T> asList(T... a) {
+        return new DictionaryBetterList<>(Arrays.asList(a));
+    }
+
+    /**
+     * Constructs an empty list with an initial capacity of ten.
+     */
+    public DictionaryBetterList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty list with the specified initial capacity.
+     *
+     * @param initialCapacity - the initial capacity of the list
+     * @throws IllegalArgumentException if the specified initial capacity is negative
+     */
+    public DictionaryBetterList(int initialCapacity) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Illegal Capacity: " + initialCapacity);
+        this.dictionary = new ArrayList<>();
+        this.codes = new HashMap<>();
+        this.width = 1;
+        this.bytes = new byte[initialCapacity];
+    }
+
+    /**
+     * Constructs a list containing the elements of the specified collection, in the order they are
+     * returned by the collection's iterator.
+     *
+     * @param c - the collection whose elements are to be placed into this list
+     */
+    public DictionaryBetterList(Collection<T> c) {
+        this(c.size());
+        for (T element : c)
+            add(element);
+    }
+
+    /**
+     * Constructs an empty list with a copy of the dictionary of another list and codes of the same
+     * width.
+     */
+    private DictionaryBetterList(DictionaryBetterList<T> source, int capacity) {
+        this.dictionary = new ArrayList<>(source.dictionary);
+        this.codes = new HashMap<>(source.codes);
+        this.width = source.width;
+        allocate(capacity);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index);
+        return dictionary.get(code(index));
+    }
+
+    @Override
+    public T set(int index, T element) {
+        checkIndex(index);
+        T old = dictionary.get(code(index));
+        setCode(index, encode(element));
+        return old;
+    }
+
+    @Override
+    public boolean add(T element) {
+        int code = encode(element);
+        if (size == capacity())
+            grow(size + 1);
+        setCode(size++, code);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        int code = encode(element);
+        if (size == capacity())
+            grow(size + 1);
+        Object array = array();
+        System.arraycopy(array, index, array, index + 1, size - index);
+        setCode(index, code);
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        checkIndex(index);
+        T old = dictionary.get(code(index));
+        Object array = array();
+        System.arraycopy(array, index + 1, array, index, size - index - 1);
+        size--;
+        modCount++;
+        return old;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        Object array = array();
+        System.arraycopy(array, toIndex, array, fromIndex, size - toIndex);
+        size -= toIndex - fromIndex;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        dictionary.clear();
+        codes.clear();
+        width = 1;
+        allocate(DEFAULT_CAPACITY);
+        modCount++;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        Integer code = codes.get(o);
+        if (code != null)
+            for (int i = 0; i < size; i++)
+                if (code(i) == code)
+                    return i;
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        Integer code = codes.get(o);
+        if (code != null)
+            for (int i = size - 1; i >= 0; i--)
+                if (code(i) == code)
+                    return i;
+        return -1;
+    }
+
+    @Override
+    public int count(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        boolean[] matches = matches(predicate);
+        int out = 0;
+        switch (width) {
+            case 1:
+                for (int i = 0; i < size; i++)
+                    if (matches[bytes[i] & 0xFF])
+                        out++;
+                break;
+            case 2:
+                for (int i = 0; i < size; i++)
+                    if (matches[shorts[i] & 0xFFFF])
+                        out++;
+                break;
+            default:
+                for (int i = 0; i < size; i++)
+                    if (matches[ints[i]])
+                        out++;
+                break;
+        }
+        BetterListInstrumentation.end(metrics, "count", start, size, out, false);
+        return out;
+    }
+
+    @Override
+    public BetterList<T> distinct() {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        boolean[] seen = new boolean[dictionary.size()];
+        BetterList<T> out = new BetterArrayList<>();
+        for (int i = 0; i < size && out.size() < seen.length; i++) {
+            int code = code(i);
+            if (!seen[code]) {
+                seen[code] = true;
+                out.add(dictionary.get(code));
+            }
+        }
+        BetterListInstrumentation.end(metrics, "distinct", start, size, out.size(), true);
+        return out;
+    }
+
+    /**
+     * Groups the elements of a sequence according to a specified key selector function. The key
+     * selector is applied once per distinct value.
+     *
+     * @param <K>         The type of the keys
+     * @param keySelector - A function to extract the key of each element.
+     * @return A map of the keys, in order of first appearance, and the List of the elements having
+     * each key.
+     */
+    @Override
+    public <K> Map<K, BetterList<T>> groupBy(Function<T, K> keySelector) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        int[] groups = new int[dictionary.size()];
+        Arrays.fill(groups, -1);
+        Map<K, Integer> keys = new LinkedHashMap<>();
+        int[] counts = new int[Math.min(groups.length, 16)];
+        for (int i = 0; i < size; i++) {
+            int code = code(i);
+            int group = groups[code];
+            if (group < 0) {
+                Integer index = keys.putIfAbsent(keySelector.apply(dictionary.get(code)), keys.size());
+                group = groups[code] = index == null ? keys.size() - 1 : index;
+                if (group == counts.length)
+                    counts = Arrays.copyOf(counts, Math.min(groups.length, counts.length * 2));
+            }
+            counts[group]++;
+        }
+        List<BetterList<T>> lists = new ArrayList<>(keys.size());
+        for (int g = 0; g < keys.size(); g++)
+            lists.add(new BetterArrayList<>(counts[g]));
+        for (int i = 0; i < size; i++) {
+            int code = code(i);
+            lists.get(groups[code]).add(dictionary.get(code));
+        }
+        Map<K, BetterList<T>> out = new LinkedHashMap<>();
+        for (Map.Entry<K, Integer> entry : keys.entrySet())
+            out.put(entry.getKey(), lists.get(entry.getValue()));
+        BetterListInstrumentation.end(metrics, "groupBy", start, size, out.size(), true);
+        return out;
+    }
+
+    /**
+     * Filters a sequence of values based on a predicate, applied once per distinct value. The
+     * result is a DictionaryBetterList with a copy of the dictionary of this list.
+     *
+     * @param predicate - A function to test each distinct value for a condition.
+     * @return a List that contains elements from the sequence that satisfy the condition.
+     */
+    @Override
+    public DictionaryBetterList<T> where(Function<T, Boolean> predicate) {
+        BetterListMetrics metrics = metrics();
+        long start = BetterListInstrumentation.start(metrics);
+        boolean[] matches = matches(predicate);
+        int count = 0;
+        for (int i = 0; i < size; i++)
+            if (matches[code(i)])
+                count++;
+        DictionaryBetterList<T> out = new DictionaryBetterList<>(this, count);
+        int n = 0;
+        switch (width) {
+            case 1:
+                for (int i = 0; n < count; i++)
+                    if (matches[bytes[i] & 0xFF])
+                        out.bytes[n++] = bytes[i];
+                break;
+            case 2:
+                for (int i = 0; n < count; i++)
+                    if (matches[shorts[i] & 0xFFFF])
+                        out.shorts[n++] = shorts[i];
+                break;
+            default:
+                for (int i = 0; n < count; i++)
+                    if (matches[ints[i]])
+                        out.ints[n++] = ints[i];
+                break;
+        }
+        out.size = count;
+        BetterListInstrumentation.end(metrics, "where", start, size, count, true);
+        return out;
+    }
+
+    /**
+     * Removes the values which are no longer in the list from the dictionary, renumbering the
+     * codes and narrowing them if possible.
+     */
+    public void compact() {
+        int[] remap = new int[dictionary.size()];
+        Arrays.fill(remap, -1);
+        List<T> kept = new ArrayList<>();
+        int[] newCodes = new int[size];
+        for (int i = 0; i < size; i++) {
+            int code = code(i);
+            if (remap[code] < 0) {
+                remap[code] = kept.size();
+                kept.add(dictionary.get(code));
+            }
+            newCodes[i] = remap[code];
+        }
+        dictionary.clear();
+        codes.clear();
+        for (T value : kept) {
+            codes.put(value, dictionary.size());
+            dictionary.add(value);
+        }
+        width = kept.size() <= BYTE_CODES ? 1 : kept.size() <= SHORT_CODES ? 2 : 4;
+        allocate(Math.max(size, DEFAULT_CAPACITY));
+        for (int i = 0; i < size; i++)
+            setCode(i, newCodes[i]);
+        modCount++;
+    }
+
+    /**
+     * @return the distinct values which can be stored in this list, in order of their codes
+     */
+    public List<T> dictionary() {
+        return Collections.unmodifiableList(dictionary);
+    }
+
+    /**
+     * @return the number of bytes used by the code of each element: 1, 2 or 4
+     */
+    int codeWidth() {
+        return width;
+    }
+
+    private boolean[] matches(Function<T, Boolean> predicate) {
+        boolean[] matches = new boolean[dictionary.size()];
+        for (int code = 0; code < matches.length; code++)
+            matches[code] = predicate.apply(dictionary.get(code));
+        return matches;
+    }
+
+    private int encode(T element) {
+        Integer code = codes.get(element);
+        if (code != null)
+            return code;
+        int newCode = dictionary.size();
+        if (newCode == BYTE_CODES && width == 1)
+            widen(2);
+        else if (newCode == SHORT_CODES && width == 2)
+            widen(4);
+        dictionary.add(element);
+        codes.put(element, newCode);
+        return newCode;
+    }
+
+    private int code(int index) {
+        switch (width) {
+            case 1:
+                return bytes[index] & 0xFF;
+            case 2:
+                return shorts[index] & 0xFFFF;
+            default:
+                return ints[index];
+        }
+    }
+
+    private void setCode(int index, int code) {
+        switch (width) {
+            case 1:
+                bytes[index] = (byte) code;
+                break;
+            case 2:
+                shorts[index] = (short) code;
+                break;
+            default:
+                ints[index] = code;
+                break;
+        }
+    }
+
+    private Object array() {
+        switch (width) {
+            case 1:
+                return bytes;
+            case 2:
+                return shorts;
+            default:
+                return ints;
+        }
+    }
+
+    private int capacity() {
+        switch (width) {
+            case 1:
+                return bytes.length;
+            case 2:
+                return shorts.length;
+            default:
+                return ints.length;
+        }
+    }
+
+    private void allocate(int capacity) {
+        bytes = width == 1 ? new byte[capacity] : null;
+        shorts = width == 2 ? new short[capacity] : null;
+        ints = width == 4 ? new int[capacity] : null;
+    }
+
+    private void widen(int newWidth) {
+        int[] old = new int[size];
+        for (int i = 0; i < size; i++)
+            old[i] = code(i);
+        int capacity = capacity();
+        width = newWidth;
+        allocate(capacity);
+        for (int i = 0; i < size; i++)
+            setCode(i, old[i]);
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(Math.max(minCapacity, capacity() + (capacity() >> 1)), DEFAULT_CAPACITY);
+        switch (width) {
+            case 1:
+                bytes = Arrays.copyOf(bytes, capacity);
+                break;
+            case 2:
+                shorts = Arrays.copyOf(shorts, capacity);
+                break;
+            default:
+                ints = Arrays.copyOf(ints, capacity);
+                break;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+}
@@ -0,0 +1,47 @@
+package fr.klemek.betterlists;
+
+/**
+ * Aggregates over the first length values of a double array, used by BetterDoubleList.
+ * <p>
+ * This is the Java 8 version, running plain loops. The JAR is multi-release: on JDK 21+, the
+ * version of this class in META-INF/versions/21 uses SIMD reductions of the Vector API when the
+ * jdk.incubator.vector module is available.
+ *
+ * @author Klemek
+ */
+final class DoubleAggregates {
+
+    private DoubleAggregates() {
+    }
+
+    /**
+     * @return true if the aggregates use the Vector API
+     */
+    static boolean isVectorized() {
+        return false;
+    }
+
+    static double sum(double[] values, int length) {
+        return ScalarDoubleAggregates.sum(values, length);
+    }
+
+    static double min(double[] values, int length) {
+        return ScalarDoubleAggregates.min(values, length);
+    }
+
+    static double max(double[] values, int length) {
+        return ScalarDoubleAggregates.max(values, length);
+    }
+
+    static int countGreaterThan(double[] values, int length, double threshold) {
+        return ScalarDoubleAggregates.countGreaterThan(values, length, threshold);
+    }
+
+    static int countLessThan(double[] values, int length, double threshold) {
+        return ScalarDoubleAggregates.countLessThan(values, length, threshold);
+    }
+
+    static int countBetween(double[] values, int length, double lo, double hi) {
+        return ScalarDoubleAggregates.countBetween(values, length, lo, hi);
+    }
+}
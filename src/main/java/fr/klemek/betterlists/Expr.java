@@ -0,0 +1,969 @@
+package fr.klemek.betterlists;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A predicate built from field comparisons and boolean combinators, usable wherever a BetterList
+ * operator takes a Function&lt;T, Boolean&gt; (where, count, any, first...):
+ * <pre>
+ * Expr&lt;Contact&gt; rule = Expr.longField(Contact::getAge).ge(21)
+ *         .and(Expr.field(Contact::getCountry).in("FR", "BE"))
+ *         .simplify();
+ * BetterList&lt;Contact&gt; matches = contacts.where(rule);
+ * </pre>
+ * Each comparison operator is a separate final class holding its getter and constant, and
+ * numeric fields are compared without boxing. simplify() flattens nested and/or into n-ary nodes,
+ * removes constant branches and double negations, giving a shallower tree that can be built once
+ * from runtime rules (see Operator) and reused across calls. It does not generate code: the tree
+ * is still evaluated through virtual calls, one per node, and stays slower than the equivalent
+ * lambda (see ExprBenchmark, mvn -P benchmarks).
+ * <p>
+ * Comparisons on a null field value are false, except eq(null), isNull and ne.
+ *
+ * @param <T> the type of the tested elements
+ * @author Klemek
+ */
+public abstract class Expr<T> implements Function<T, Boolean> {
+
+    Expr() {
+    }
+
+    /**
+     * Creates a field whose values are compared with their natural order.
+     *
+     * @param <T>    - the type of the tested elements
+     * @param <V>    - the type of the field values
+     * @param getter - the function reading the field of an element
+     * @return a field to build comparisons on
+     */
+    public static <T, V extends Comparable<? super V>> Field<T, V> field(Function<T, V> getter) {
+        return new Field<>(getter);
+    }
+
+    /**
+     * Creates a numeric field read as a primitive double.
+     *
+     * @param <T>    - the type of the tested elements
+     * @param getter - the function reading the field of an element
+     * @return a field to build comparisons on
+     */
+    public static <T> DoubleField<T> doubleField(ToDoubleFunction<T> getter) {
+        return new DoubleField<>(getter);
+    }
+
+    /**
+     * Creates an integral field read as a primitive long.
+     *
+     * @param <T>    - the type of the tested elements
+     * @param getter - the function reading the field of an element
+     * @return a field to build comparisons on
+     */
+    public static <T> LongField<T> longField(ToLongFunction<T> getter) {
+        return new LongField<>(getter);
+    }
+
+    /**
+     * @param <T> - the type of the tested elements
+     * @return an expression always true
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Expr<T> always() {
+        return (Expr<T>) Constant.TRUE;
+    }
+
+    /**
+     * @param <T> - the type of the tested elements
+     * @return an expression always false
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Expr<T> never() {
+        return (Expr<T>) Constant.FALSE;
+    }
+
+    /**
+     * Combines expressions with a logical and, true if there are none.
+     *
+     * @param <T>         - the type of the tested elements
+     * @param expressions - the expressions to combine
+     * @return an expression true if all the expressions are true
+     */
+    public static <T> Expr<T> allOf(Collection<? extends Expr<T>> expressions) {
+        return new And<>(expressions.toArray(array(0)));
+    }
+
+    /**
+     * Combines expressions with a logical or, false if there are none.
+     *
+     * @param <T>         - the type of the tested elements
+     * @param expressions - the expressions to combine
+     * @return an expression true if any of the expressions is true
+     */
+    public static <T> Expr<T> anyOf(Collection<? extends Expr<T>> expressions) {
+        return new Or<>(expressions.toArray(array(0)));
+    }
+
+    /**
+     * @return a new array of expressions, generic arrays not being creatable directly
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Expr<T>[] array(int length) {
+        return (Expr<T>[]) new Expr<?>[length];
+    }
+
+    /**
+     * @return an array holding two expressions
+     */
+    static <T> Expr<T>[] array(Expr<T> first, Expr<T> second) {
+        Expr<T>[] array = array(2);
+        array[0] = first;
+        array[1] = second;
+        return array;
+    }
+
+    /**
+     * Evaluates the expression on an element.
+     *
+     * @param element - the element to test
+     * @return true if the element satisfies the expression
+     */
+    public abstract boolean test(T element);
+
+    @Override
+    public final Boolean apply(T element) {
+        return test(element);
+    }
+
+    /**
+     * @param other - another expression
+     * @return an expression true if both expressions are true, evaluating other only if this one
+     * is true
+     */
+    public Expr<T> and(Expr<T> other) {
+        return new And<>(array(this, other));
+    }
+
+    /**
+     * @param other - another expression
+     * @return an expression true if any of the expressions is true, evaluating other only if this
+     * one is false
+     */
+    public Expr<T> or(Expr<T> other) {
+        return new Or<>(array(this, other));
+    }
+
+    /**
+     * @return an expression true if this one is false
+     */
+    public Expr<T> not() {
+        return new Not<>(this);
+    }
+
+    /**
+     * Returns an equivalent expression with flattened and/or nodes, without constant branches and
+     * double negations.
+     *
+     * @return the simplified expression
+     */
+    public Expr<T> simplify() {
+        return this;
+    }
+
+    /**
+     * The comparison operators, to build expressions from rules read at runtime.
+     */
+    public enum Operator {
+        EQ("=="), NE("!="), GT(">"), GE(">="), LT("<"), LE("<=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * @return the symbol of the operator, like "&gt;="
+         */
+        public String getSymbol() {
+            return symbol;
+        }
+
+        /**
+         * Parses an operator from its name (case insensitive, "ge") or its symbol ("&gt;=", "=" is
+         * accepted for equality).
+         *
+         * @param text - the name or symbol of the operator
+         * @return the operator
+         * @throws IllegalArgumentException if the text is not an operator
+         */
+        public static Operator parse(String text) {
+            String trimmed = text.trim();
+            if ("=".equals(trimmed))
+                return EQ;
+            for (Operator operator : values())
+                if (operator.name().equalsIgnoreCase(trimmed) || operator.symbol.equals(trimmed))
+                    return operator;
+            throw new IllegalArgumentException("Unknown operator: " + text);
+        }
+    }
+
+    /**
+     * A field compared with the natural order of its values.
+     *
+     * @param <T> the type of the tested elements
+     * @param <V> the type of the field values
+     */
+    public static final class Field<T, V extends Comparable<? super V>> {
+
+        private final Function<T, V> getter;
+
+        Field(Function<T, V> getter) {
+            this.getter = getter;
+        }
+
+        /**
+         * @param operator - the comparison operator
+         * @param value    - the constant to compare the field to
+         * @return an expression comparing the field to the constant
+         */
+        public Expr<T> is(Operator operator, V value) {
+            switch (operator) {
+                case EQ:
+                    return eq(value);
+                case NE:
+                    return ne(value);
+                case GT:
+                    return gt(value);
+                case GE:
+                    return ge(value);
+                case LT:
+                    return lt(value);
+                default:
+                    return le(value);
+            }
+        }
+
+        /**
+         * @param value - the constant, can be null
+         * @return an expression true if the field equals the constant
+         */
+        public Expr<T> eq(V value) {
+            return value == null ? isNull() : new Eq<>(getter, value);
+        }
+
+        /**
+         * @param value - the constant, can be null
+         * @return an expression true if the field does not equal the constant
+         */
+        public Expr<T> ne(V value) {
+            return eq(value).not();
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field is greater than the constant
+         */
+        public Expr<T> gt(V value) {
+            return new Gt<>(getter, Objects.requireNonNull(value));
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field is greater than or equal to the constant
+         */
+        public Expr<T> ge(V value) {
+            return new Ge<>(getter, Objects.requireNonNull(value));
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field is lower than the constant
+         */
+        public Expr<T> lt(V value) {
+            return new Lt<>(getter, Objects.requireNonNull(value));
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field is lower than or equal to the constant
+         */
+        public Expr<T> le(V value) {
+            return new Le<>(getter, Objects.requireNonNull(value));
+        }
+
+        /**
+         * @param lo - low endpoint (inclusive)
+         * @param hi - high endpoint (exclusive)
+         * @return an expression true if the field is between the endpoints
+         */
+        public Expr<T> between(V lo, V hi) {
+            return new Between<>(getter, Objects.requireNonNull(lo), Objects.requireNonNull(hi));
+        }
+
+        /**
+         * @param values - the accepted values
+         * @return an expression true if the field is one of the values, tested in a HashSet
+         */
+        @SafeVarargs
+        public final Expr<T> in(V... values) {
+            return in(Arrays.asList(values));
+        }
+
+        /**
+         * @param values - the accepted values
+         * @return an expression true if the field is one of the values, tested in a HashSet
+         */
+        public Expr<T> in(Collection<? extends V> values) {
+            return new In<>(getter, new HashSet<>(values));
+        }
+
+        /**
+         * @return an expression true if the field is null
+         */
+        public Expr<T> isNull() {
+            return new IsNull<>(getter);
+        }
+
+        /**
+         * @return an expression true if the field is not null
+         */
+        public Expr<T> notNull() {
+            return isNull().not();
+        }
+    }
+
+    /**
+     * A numeric field read as a primitive double.
+     *
+     * @param <T> the type of the tested elements
+     */
+    public static final class DoubleField<T> {
+
+        private final ToDoubleFunction<T> getter;
+
+        DoubleField(ToDoubleFunction<T> getter) {
+            this.getter = getter;
+        }
+
+        /**
+         * @param operator - the comparison operator
+         * @param value    - the constant to compare the field to
+         * @return an expression comparing the field to the constant
+         */
+        public Expr<T> is(Operator operator, double value) {
+            switch (operator) {
+                case EQ:
+                    return eq(value);
+                case NE:
+                    return ne(value);
+                case GT:
+                    return gt(value);
+                case GE:
+                    return ge(value);
+                case LT:
+                    return lt(value);
+                default:
+                    return le(value);
+            }
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field equals the constant
+         */
+        public Expr<T> eq(double value) {
+            return new DoubleEq<>(getter, value);
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field does not equal the constant
+         */
+        public Expr<T> ne(double value) {
+            return eq(value).not();
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field is greater than the constant
+         */
+        public Expr<T> gt(double value) {
+            return new DoubleGt<>(getter, value);
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field is greater than or equal to the constant
+         */
+        public Expr<T> ge(double value) {
+            return new DoubleGe<>(getter, value);
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field is lower than the constant
+         */
+        public Expr<T> lt(double value) {
+            return new DoubleLt<>(getter, value);
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field is lower than or equal to the constant
+         */
+        public Expr<T> le(double value) {
+            return new DoubleLe<>(getter, value);
+        }
+
+        /**
+         * @param lo - low endpoint (inclusive)
+         * @param hi - high endpoint (exclusive)
+         * @return an expression true if the field is between the endpoints
+         */
+        public Expr<T> between(double lo, double hi) {
+            return new DoubleBetween<>(getter, lo, hi);
+        }
+    }
+
+    /**
+     * An integral field read as a primitive long.
+     *
+     * @param <T> the type of the tested elements
+     */
+    public static final class LongField<T> {
+
+        private final ToLongFunction<T> getter;
+
+        LongField(ToLongFunction<T> getter) {
+            this.getter = getter;
+        }
+
+        /**
+         * @param operator - the comparison operator
+         * @param value    - the constant to compare the field to
+         * @return an expression comparing the field to the constant
+         */
+        public Expr<T> is(Operator operator, long value) {
+            switch (operator) {
+                case EQ:
+                    return eq(value);
+                case NE:
+                    return ne(value);
+                case GT:
+                    return gt(value);
+                case GE:
+                    return ge(value);
+                case LT:
+                    return lt(value);
+                default:
+                    return le(value);
+            }
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field equals the constant
+         */
+        public Expr<T> eq(long value) {
+            return new LongEq<>(getter, value);
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field does not equal the constant
+         */
+        public Expr<T> ne(long value) {
+            return eq(value).not();
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field is greater than the constant
+         */
+        public Expr<T> gt(long value) {
+            return value == Long.MAX_VALUE ? never() : ge(value + 1);
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field is greater than or equal to the constant
+         */
+        public Expr<T> ge(long value) {
+            return new LongGe<>(getter, value);
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field is lower than the constant
+         */
+        public Expr<T> lt(long value) {
+            return new LongLt<>(getter, value);
+        }
+
+        /**
+         * @param value - the constant
+         * @return an expression true if the field is lower than or equal to the constant
+         */
+        public Expr<T> le(long value) {
+            return value == Long.MAX_VALUE ? always() : lt(value + 1);
+        }
+
+        /**
+         * @param lo - low endpoint (inclusive)
+         * @param hi - high endpoint (exclusive)
+         * @return an expression true if the field is between the endpoints
+         */
+        public Expr<T> between(long lo, long hi) {
+            return new LongBetween<>(getter, lo, hi);
+        }
+    }
+
+    private static final class Constant extends Expr<Object> {
+        static final Constant TRUE = new Constant(true);
+        static final Constant FALSE = new Constant(false);
+
+        private final boolean value;
+
+        private Constant(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(Object element) {
+            return value;
+        }
+
+        @Override
+        public Expr<Object> not() {
+            return value ? FALSE : TRUE;
+        }
+    }
+
+    private static final class Not<T> extends Expr<T> {
+        private final Expr<T> operand;
+
+        Not(Expr<T> operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return !operand.test(element);
+        }
+
+        @Override
+        public Expr<T> not() {
+            return operand;
+        }
+
+        @Override
+        public Expr<T> simplify() {
+            return operand.simplify().not();
+        }
+    }
+
+    private static final class And<T> extends Expr<T> {
+        private final Expr<T>[] operands;
+
+        And(Expr<T>[] operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        public boolean test(T element) {
+            for (Expr<T> operand : operands)
+                if (!operand.test(element))
+                    return false;
+            return true;
+        }
+
+        @Override
+        public Expr<T> simplify() {
+            List<Expr<T>> flat = new ArrayList<>();
+            for (Expr<T> operand : operands) {
+                Expr<T> simplified = operand.simplify();
+                if (simplified == Constant.FALSE)
+                    return never();
+                if (simplified instanceof And)
+                    flat.addAll(Arrays.asList(((And<T>) simplified).operands));
+                else if (simplified instanceof And2) {
+                    flat.add(((And2<T>) simplified).left);
+                    flat.add(((And2<T>) simplified).right);
+                } else if (simplified != Constant.TRUE)
+                    flat.add(simplified);
+            }
+            switch (flat.size()) {
+                case 0:
+                    return always();
+                case 1:
+                    return flat.get(0);
+                case 2:
+                    return new And2<>(flat.get(0), flat.get(1));
+                default:
+                    return new And<>(flat.toArray(array(flat.size())));
+            }
+        }
+    }
+
+    private static final class And2<T> extends Expr<T> {
+        private final Expr<T> left;
+        private final Expr<T> right;
+
+        And2(Expr<T> left, Expr<T> right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return left.test(element) && right.test(element);
+        }
+    }
+
+    private static final class Or<T> extends Expr<T> {
+        private final Expr<T>[] operands;
+
+        Or(Expr<T>[] operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        public boolean test(T element) {
+            for (Expr<T> operand : operands)
+                if (operand.test(element))
+                    return true;
+            return false;
+        }
+
+        @Override
+        public Expr<T> simplify() {
+            List<Expr<T>> flat = new ArrayList<>();
+            for (Expr<T> operand : operands) {
+                Expr<T> simplified = operand.simplify();
+                if (simplified == Constant.TRUE)
+                    return always();
+                if (simplified instanceof Or)
+                    flat.addAll(Arrays.asList(((Or<T>) simplified).operands));
+                else if (simplified instanceof Or2) {
+                    flat.add(((Or2<T>) simplified).left);
+                    flat.add(((Or2<T>) simplified).right);
+                } else if (simplified != Constant.FALSE)
+                    flat.add(simplified);
+            }
+            switch (flat.size()) {
+                case 0:
+                    return never();
+                case 1:
+                    return flat.get(0);
+                case 2:
+                    return new Or2<>(flat.get(0), flat.get(1));
+                default:
+                    return new Or<>(flat.toArray(array(flat.size())));
+            }
+        }
+    }
+
+    private static final class Or2<T> extends Expr<T> {
+        private final Expr<T> left;
+        private final Expr<T> right;
+
+        Or2(Expr<T> left, Expr<T> right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return left.test(element) || right.test(element);
+        }
+    }
+
+    private static final class Eq<T, V> extends Expr<T> {
+        private final Function<T, V> getter;
+        private final V value;
+
+        Eq(Function<T, V> getter, V value) {
+            this.getter = getter;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return value.equals(getter.apply(element));
+        }
+    }
+
+    private static final class IsNull<T, V> extends Expr<T> {
+        private final Function<T, V> getter;
+
+        IsNull(Function<T, V> getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return getter.apply(element) == null;
+        }
+    }
+
+    private static final class In<T, V> extends Expr<T> {
+        private final Function<T, V> getter;
+        private final Set<? extends V> values;
+
+        In(Function<T, V> getter, Set<? extends V> values) {
+            this.getter = getter;
+            this.values = values;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return values.contains(getter.apply(element));
+        }
+    }
+
+    private static final class Gt<T, V extends Comparable<? super V>> extends Expr<T> {
+        private final Function<T, V> getter;
+        private final V value;
+
+        Gt(Function<T, V> getter, V value) {
+            this.getter = getter;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T element) {
+            V v = getter.apply(element);
+            return v != null && v.compareTo(value) > 0;
+        }
+    }
+
+    private static final class Ge<T, V extends Comparable<? super V>> extends Expr<T> {
+        private final Function<T, V> getter;
+        private final V value;
+
+        Ge(Function<T, V> getter, V value) {
+            this.getter = getter;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T element) {
+            V v = getter.apply(element);
+            return v != null && v.compareTo(value) >= 0;
+        }
+    }
+
+    private static final class Lt<T, V extends Comparable<? super V>> extends Expr<T> {
+        private final Function<T, V> getter;
+        private final V value;
+
+        Lt(Function<T, V> getter, V value) {
+            this.getter = getter;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T element) {
+            V v = getter.apply(element);
+            return v != null && v.compareTo(value) < 0;
+        }
+    }
+
+    private static final class Le<T, V extends Comparable<? super V>> extends Expr<T> {
+        private final Function<T, V> getter;
+        private final V value;
+
+        Le(Function<T, V> getter, V value) {
+            this.getter = getter;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T element) {
+            V v = getter.apply(element);
+            return v != null && v.compareTo(value) <= 0;
+        }
+    }
+
+    private static final class Between<T, V extends Comparable<? super V>> extends Expr<T> {
+        private final Function<T, V> getter;
+        private final V lo;
+        private final V hi;
+
+        Between(Function<T, V> getter, V lo, V hi) {
+            this.getter = getter;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean test(T element) {
+            V v = getter.apply(element);
+            return v != null && v.compareTo(lo) >= 0 && v.compareTo(hi) < 0;
+        }
+    }
+
+    private static final class DoubleEq<T> extends Expr<T> {
+        private final ToDoubleFunction<T> getter;
+        private final double value;
+
+        DoubleEq(ToDoubleFunction<T> getter, double value) {
+            this.getter = getter;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return getter.applyAsDouble(element) == value;
+        }
+    }
+
+    private static final class DoubleGt<T> extends Expr<T> {
+        private final ToDoubleFunction<T> getter;
+        private final double value;
+
+        DoubleGt(ToDoubleFunction<T> getter, double value) {
+            this.getter = getter;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return getter.applyAsDouble(element) > value;
+        }
+    }
+
+    private static final class DoubleGe<T> extends Expr<T> {
+        private final ToDoubleFunction<T> getter;
+        private final double value;
+
+        DoubleGe(ToDoubleFunction<T> getter, double value) {
+            this.getter = getter;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return getter.applyAsDouble(element) >= value;
+        }
+    }
+
+    private static final class DoubleLt<T> extends Expr<T> {
+        private final ToDoubleFunction<T> getter;
+        private final double value;
+
+        DoubleLt(ToDoubleFunction<T> getter, double value) {
+            this.getter = getter;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return getter.applyAsDouble(element) < value;
+        }
+    }
+
+    private static final class DoubleLe<T> extends Expr<T> {
+        private final ToDoubleFunction<T> getter;
+        private final double value;
+
+        DoubleLe(ToDoubleFunction<T> getter, double value) {
+            this.getter = getter;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return getter.applyAsDouble(element) <= value;
+        }
+    }
+
+    private static final class DoubleBetween<T> extends Expr<T> {
+        private final ToDoubleFunction<T> getter;
+        private final double lo;
+        private final double hi;
+
+        DoubleBetween(ToDoubleFunction<T> getter, double lo, double hi) {
+            this.getter = getter;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean test(T element) {
+            double v = getter.applyAsDouble(element);
+            return v >= lo && v < hi;
+        }
+    }
+
+    private static final class LongEq<T> extends Expr<T> {
+        private final ToLongFunction<T> getter;
+        private final long value;
+
+        LongEq(ToLongFunction<T> getter, long value) {
+            this.getter = getter;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return getter.applyAsLong(element) == value;
+        }
+    }
+
+    private static final class LongGe<T> extends Expr<T> {
+        private final ToLongFunction<T> getter;
+        private final long value;
+
+        LongGe(ToLongFunction<T> getter, long value) {
+            this.getter = getter;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return getter.applyAsLong(element) >= value;
+        }
+    }
+
+    private static final class LongLt<T> extends Expr<T> {
+        private final ToLongFunction<T> getter;
+        private final long value;
+
+        LongLt(ToLongFunction<T> getter, long value) {
+            this.getter = getter;
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T element) {
+            return getter.applyAsLong(element) < value;
+        }
+    }
+
+    private static final class LongBetween<T> extends Expr<T> {
+        private final ToLongFunction<T> getter;
+        private final long lo;
+        private final long hi;
+
+        LongBetween(ToLongFunction<T> getter, long lo, long hi) {
+            this.getter = getter;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean test(T element) {
+            long v = getter.applyAsLong(element);
+            return v >= lo && v < hi;
+        }
+    }
+}
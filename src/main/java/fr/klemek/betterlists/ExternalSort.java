@@ -0,0 +1,263 @@
+package fr.klemek.betterlists;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Sorts sequences larger than a memory budget: runs of the sequence are sorted in memory and
+ * spilled to temporary files, then merged back while iterating. At most MAX_FAN_IN runs are merged at
+ * once, to bound the number of open files and read buffers: beyond it, groups of consecutive runs
+ * are first merged into longer runs in intermediate passes, which keeps the sort stable.
+ *
+ * @author Klemek
+ */
+final class ExternalSort {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The maximum number of runs merged at once.
+     */
+    static final int MAX_FAN_IN = 64;
+
+    private ExternalSort() {
+    }
+
+    /**
+     * Sorts the elements of a sequence.
+     *
+     * @param source              - the elements to sort
+     * @param comparator          - the order of the elements
+     * @param maxElementsInMemory - the maximum number of elements held in memory by the sort
+     * @param codec               - the codec used to spill the elements
+     * @return an iterator of the sorted elements, deleting the temporary files when exhausted or
+     * closed
+     */
+    static <T> CloseableIterator<T> sort(Iterable<T> source, Comparator<? super T> comparator,
+                                         int maxElementsInMemory, BetterListCodec<T> codec) {
+        return sort(source, comparator, maxElementsInMemory, codec, null);
+    }
+
+    /**
+     * Sorts the elements of a sequence, spilling the runs in a given directory.
+     *
+     * @param source              - the elements to sort
+     * @param comparator          - the order of the elements
+     * @param maxElementsInMemory - the maximum number of elements held in memory by the sort
+     * @param codec               - the codec used to spill the elements
+     * @param directory           - the directory of the temporary files, null for the default
+     *                            temporary directory
+     * @return an iterator of the sorted elements, deleting the temporary files when exhausted or
+     * closed
+     */
+    static <T> CloseableIterator<T> sort(Iterable<T> source, Comparator<? super T> comparator,
+                                         int maxElementsInMemory, BetterListCodec<T> codec, Path directory) {
+        return sort(source, comparator, maxElementsInMemory, codec, directory, MAX_FAN_IN);
+    }
+
+    /**
+     * Sorts the elements of a sequence, spilling the runs in a given directory and merging at most
+     * maxFanIn runs at once.
+     *
+     * @param source              - the elements to sort
+     * @param comparator          - the order of the elements
+     * @param maxElementsInMemory - the maximum number of elements held in memory by the sort
+     * @param codec               - the codec used to spill the elements
+     * @param directory           - the directory of the temporary files, null for the default
+     *                            temporary directory
+     * @param maxFanIn            - the maximum number of runs merged at once
+     * @return an iterator of the sorted elements, deleting the temporary files when exhausted or
+     * closed
+     */
+    @SuppressWarnings("unchecked")
+    static <T> CloseableIterator<T> sort(Iterable<T> source, Comparator<? super T> comparator,
+                                         int maxElementsInMemory, BetterListCodec<T> codec, Path directory,
+                                         int maxFanIn) {
+        if (maxElementsInMemory < 1)
+            throw new IllegalArgumentException("maxElementsInMemory must be positive: " + maxElementsInMemory);
+        if (maxFanIn < 2)
+            throw new IllegalArgumentException("maxFanIn must be at least 2: " + maxFanIn);
+        List<RunIterator<T>> runs = new ArrayList<>();
+        Object[] buffer = new Object[Math.min(maxElementsInMemory, 1024)];
+        int n = 0;
+        try {
+            for (T element : source) {
+                if (n == buffer.length) {
+                    if (n == maxElementsInMemory) {
+                        runs.add(spill(buffer, n, comparator, codec, directory));
+                        n = 0;
+                    } else {
+                        buffer = Arrays.copyOf(buffer, (int) Math.min(maxElementsInMemory, 2L * buffer.length));
+                    }
+                }
+                buffer[n++] = element;
+            }
+            if (runs.isEmpty()) {
+                Arrays.sort((T[]) buffer, 0, n, comparator);
+                return new ArrayIterator<>(buffer, n);
+            }
+            if (n > 0)
+                runs.add(spill(buffer, n, comparator, codec, directory));
+            buffer = null;
+            while (runs.size() > maxFanIn)
+                runs = mergePass(runs, comparator, codec, directory, maxFanIn);
+        } catch (IOException | RuntimeException e) {
+            for (RunIterator<T> run : runs)
+                run.close();
+            if (e instanceof IOException)
+                throw new UncheckedIOException((IOException) e);
+            throw (RuntimeException) e;
+        }
+        return new MergeIterator<>(runs, comparator);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> RunIterator<T> spill(Object[] buffer, int n, Comparator<? super T> comparator,
+                                            BetterListCodec<T> codec, Path directory) throws IOException {
+        Arrays.sort((T[]) buffer, 0, n, comparator);
+        Path file = createRunFile(directory);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                BUFFER_SIZE))) {
+            for (int i = 0; i < n; i++) {
+                codec.write(out, (T) buffer[i]);
+                buffer[i] = null;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new RunIterator<>(file, n, codec);
+    }
+
+    /**
+     * Merges each group of maxFanIn consecutive runs into a single run.
+     */
+    private static <T> List<RunIterator<T>> mergePass(List<RunIterator<T>> runs, Comparator<? super T> comparator,
+                                                      BetterListCodec<T> codec, Path directory, int maxFanIn)
+            throws IOException {
+        List<RunIterator<T>> merged = new ArrayList<>((runs.size() + maxFanIn - 1) / maxFanIn);
+        try {
+            for (int from = 0; from < runs.size(); from += maxFanIn) {
+                List<RunIterator<T>> group = runs.subList(from, Math.min(runs.size(), from + maxFanIn));
+                merged.add(group.size() == 1 ? group.get(0) : merge(group, comparator, codec, directory));
+            }
+        } catch (IOException | RuntimeException e) {
+            for (RunIterator<T> run : merged)
+                run.close();
+            throw e;
+        }
+        return merged;
+    }
+
+    private static <T> RunIterator<T> merge(List<RunIterator<T>> group, Comparator<? super T> comparator,
+                                            BetterListCodec<T> codec, Path directory) throws IOException {
+        Path file = createRunFile(directory);
+        int n = 0;
+        try (MergeIterator<T> elements = new MergeIterator<>(group, comparator);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+                     BUFFER_SIZE))) {
+            while (elements.hasNext()) {
+                codec.write(out, elements.next());
+                n++;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new RunIterator<>(file, n, codec);
+    }
+
+    private static Path createRunFile(Path directory) throws IOException {
+        return directory == null ? Files.createTempFile("betterlists-sort", ".run")
+                : Files.createTempFile(directory, "betterlists-sort", ".run");
+    }
+
+    private static final class ArrayIterator<T> implements CloseableIterator<T> {
+        private Object[] array;
+        private final int size;
+        private int index;
+
+        ArrayIterator(Object[] array, int size) {
+            this.array = array;
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return array != null && index < size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return (T) array[index++];
+        }
+
+        @Override
+        public void close() {
+            array = null;
+        }
+    }
+
+    private static final class RunIterator<T> implements CloseableIterator<T> {
+        private final Path file;
+        private final BetterListCodec<T> codec;
+        private DataInputStream in;
+        private int remaining;
+
+        RunIterator(Path file, int count, BetterListCodec<T> codec) {
+            this.file = file;
+            this.remaining = count;
+            this.codec = codec;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public T next() {
+            if (remaining <= 0)
+                throw new NoSuchElementException();
+            try {
+                if (in == null)
+                    in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+                T element = codec.read(in);
+                if (--remaining == 0)
+                    close();
+                return element;
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            remaining = 0;
+            try {
+                if (in != null)
+                    in.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                in = null;
+            }
+        }
+    }
+}
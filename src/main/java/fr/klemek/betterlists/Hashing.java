@@ -0,0 +1,37 @@
+package fr.klemek.betterlists;
+
+/**
+ * Hash functions shared by the probabilistic structures.
+ *
+ * @author Klemek
+ */
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * Spreads the hash code of an object over 64 bits.
+     *
+     * @param o - the object, can be null
+     * @return a 64 bits hash of the object
+     */
+    static long hash64(Object o) {
+        return mix64((o == null ? 0 : o.hashCode()) * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * The finalization step of MurmurHash3, spreading every input bit over all output bits.
+     *
+     * @param h - the value to mix
+     * @return the mixed value
+     */
+    static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,131 @@
+package fr.klemek.betterlists;
+
+/**
+ * A HyperLogLog sketch, estimating the number of distinct elements of a sequence in constant
+ * memory (2^precision bytes).
+ * <p>
+ * The relative standard error of the estimate is about 1.04 / sqrt(2^precision), from 26% with a
+ * precision of 4 to 0.2% with a precision of 18. Elements are hashed from their hashCode, so
+ * distinct elements with equal hash codes are counted once. Sketches with the same precision can
+ * be merged to count the distinct elements of several sequences.
+ *
+ * @author Klemek
+ * @see BetterList#approxCountDistinct(java.util.function.Function, int)
+ */
+public class HyperLogLog {
+
+    /**
+     * The lowest supported precision.
+     */
+    public static final int MIN_PRECISION = 4;
+    /**
+     * The highest supported precision.
+     */
+    public static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    /**
+     * Constructs an empty sketch.
+     *
+     * @param precision - the number of bits used to select a register, between 4 and 18
+     * @throws IllegalArgumentException if the precision is out of range
+     */
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION)
+            throw new IllegalArgumentException("precision must be between " + MIN_PRECISION + " and "
+                    + MAX_PRECISION + ": " + precision);
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Returns the lowest precision whose relative standard error is below the given one.
+     *
+     * @param relativeError - the expected relative standard error, for example 0.01 for 1%
+     * @return the precision to use, capped to MAX_PRECISION
+     */
+    public static int precisionFor(double relativeError) {
+        if (relativeError <= 0)
+            throw new IllegalArgumentException("relativeError must be positive: " + relativeError);
+        int precision = MIN_PRECISION;
+        while (precision < MAX_PRECISION && 1.04 / Math.sqrt(1 << precision) > relativeError)
+            precision++;
+        return precision;
+    }
+
+    /**
+     * Adds an element to the sketch.
+     *
+     * @param element - the element, can be null
+     */
+    public void add(Object element) {
+        long hash = Hashing.hash64(element);
+        int index = (int) (hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index])
+            registers[index] = (byte) rank;
+    }
+
+    /**
+     * Merges another sketch in this one, which then estimates the distinct elements of both.
+     *
+     * @param other - a sketch with the same precision
+     * @throws IllegalArgumentException if the precisions differ
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision)
+            throw new IllegalArgumentException("cannot merge sketches of precision " + precision + " and "
+                    + other.precision);
+        for (int i = 0; i < registers.length; i++)
+            if (other.registers[i] > registers[i])
+                registers[i] = other.registers[i];
+    }
+
+    /**
+     * @return the estimated number of distinct elements added to the sketch
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1d / (1L << register);
+            if (register == 0)
+                zeros++;
+        }
+        double alpha;
+        switch (m) {
+            case 16:
+                alpha = 0.673;
+                break;
+            case 32:
+                alpha = 0.697;
+                break;
+            case 64:
+                alpha = 0.709;
+                break;
+            default:
+                alpha = 0.7213 / (1 + 1.079 / m);
+        }
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0)
+            estimate = m * Math.log((double) m / zeros);
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return the precision of the sketch
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * @return the relative standard error of the estimates of this sketch
+     */
+    public double getRelativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+}
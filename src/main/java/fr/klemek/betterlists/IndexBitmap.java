@@ -0,0 +1,450 @@
+package fr.klemek.betterlists;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable compressed set of list indices, as produced by BetterList.whereMask, which can be
+ * combined with word-level operations before materializing the matching elements.
+ * <p>
+ * Like a Roaring bitmap, the indices are split in chunks of 65536 by their 16 high bits. A chunk
+ * holding at most 4096 indices stores them as a sorted array of their 16 low bits, a denser chunk
+ * stores them as a bitmap of 1024 words. Intersections, unions and differences are computed chunk by
+ * chunk, with sorted merges or 64 indices per word operation.
+ *
+ * @author Klemek
+ * @see BetterList#whereMask(java.util.function.Function)
+ * @see BetterList#select(IndexBitmap)
+ */
+public final class IndexBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+    private static final IndexBitmap EMPTY = new IndexBitmap(new int[0], new Container[0], 0);
+
+    private final int[] keys;
+    private final Container[] containers;
+    private final int cardinality;
+
+    private IndexBitmap(int[] keys, Container[] containers, int length) {
+        this.keys = length == keys.length ? keys : Arrays.copyOf(keys, length);
+        this.containers = length == containers.length ? containers : Arrays.copyOf(containers, length);
+        int count = 0;
+        for (int i = 0; i < length; i++)
+            count += this.containers[i].cardinality();
+        this.cardinality = count;
+    }
+
+    /**
+     * @return an empty bitmap
+     */
+    public static IndexBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Constructs a bitmap containing the given indices.
+     *
+     * @param indices - the indices, in any order
+     * @return the constructed bitmap
+     * @throws IllegalArgumentException if an index is negative
+     */
+    public static IndexBitmap of(int... indices) {
+        int[] sorted = indices.clone();
+        Arrays.sort(sorted);
+        Builder builder = new Builder();
+        for (int index : sorted)
+            builder.add(index);
+        return builder.build();
+    }
+
+    /**
+     * Constructs a bitmap containing all the indices from fromIndex (inclusive) to toIndex
+     * (exclusive).
+     *
+     * @param fromIndex - the first index
+     * @param toIndex   - the index after the last one
+     * @return the constructed bitmap
+     * @throws IllegalArgumentException if fromIndex is negative or greater than toIndex
+     */
+    public static IndexBitmap range(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || fromIndex > toIndex)
+            throw new IllegalArgumentException("Illegal range: " + fromIndex + ", " + toIndex);
+        Builder builder = new Builder();
+        for (int i = fromIndex; i < toIndex; i++)
+            builder.add(i);
+        return builder.build();
+    }
+
+    /**
+     * @return the number of indices in this bitmap
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * @return true if this bitmap contains no index
+     */
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Tests whether an index is in this bitmap.
+     *
+     * @param index - the index to test
+     * @return true if the index is in this bitmap
+     */
+    public boolean contains(int index) {
+        if (index < 0)
+            return false;
+        int c = Arrays.binarySearch(keys, index >>> 16);
+        return c >= 0 && containers[c].contains((char) index);
+    }
+
+    /**
+     * Computes the intersection of this bitmap and another one (indices matching both filters).
+     *
+     * @param other - the other bitmap
+     * @return a new bitmap
+     */
+    public IndexBitmap and(IndexBitmap other) {
+        int[] outKeys = new int[Math.min(keys.length, other.keys.length)];
+        Container[] outContainers = new Container[outKeys.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length && j < other.keys.length) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container c = containers[i].and(other.containers[j]);
+                if (c.cardinality() > 0) {
+                    outKeys[n] = keys[i];
+                    outContainers[n++] = c;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new IndexBitmap(outKeys, outContainers, n);
+    }
+
+    /**
+     * Computes the union of this bitmap and another one (indices matching either filter).
+     *
+     * @param other - the other bitmap
+     * @return a new bitmap
+     */
+    public IndexBitmap or(IndexBitmap other) {
+        int[] outKeys = new int[keys.length + other.keys.length];
+        Container[] outContainers = new Container[outKeys.length];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+                outKeys[n] = keys[i];
+                outContainers[n++] = containers[i++];
+            } else if (i == keys.length || keys[i] > other.keys[j]) {
+                outKeys[n] = other.keys[j];
+                outContainers[n++] = other.containers[j++];
+            } else {
+                outKeys[n] = keys[i];
+                outContainers[n++] = containers[i++].or(other.containers[j++]);
+            }
+        }
+        return new IndexBitmap(outKeys, outContainers, n);
+    }
+
+    /**
+     * Computes the difference of this bitmap and another one (indices matching this filter but not
+     * the other one).
+     *
+     * @param other - the other bitmap
+     * @return a new bitmap
+     */
+    public IndexBitmap andNot(IndexBitmap other) {
+        int[] outKeys = new int[keys.length];
+        Container[] outContainers = new Container[outKeys.length];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < keys.length; i++) {
+            while (j < other.keys.length && other.keys[j] < keys[i])
+                j++;
+            Container c = j < other.keys.length && other.keys[j] == keys[i]
+                    ? containers[i].andNot(other.containers[j]) : containers[i];
+            if (c.cardinality() > 0) {
+                outKeys[n] = keys[i];
+                outContainers[n++] = c;
+            }
+        }
+        return new IndexBitmap(outKeys, outContainers, n);
+    }
+
+    /**
+     * Computes the complement of this bitmap among the indices of a list (indices not matching this
+     * filter).
+     *
+     * @param size - the size of the list
+     * @return a new bitmap
+     */
+    public IndexBitmap not(int size) {
+        return range(0, size).andNot(this);
+    }
+
+    /**
+     * Performs an action for each index of this bitmap, in ascending order.
+     *
+     * @param action - the action to perform
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < keys.length; i++)
+            containers[i].forEach(keys[i] << 16, action);
+    }
+
+    /**
+     * @return the indices of this bitmap, in ascending order
+     */
+    public int[] toArray() {
+        int[] out = new int[cardinality];
+        int[] n = new int[1];
+        forEach(index -> out[n[0]++] = index);
+        return out;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IndexBitmap && Arrays.equals(toArray(), ((IndexBitmap) o).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Accumulates ascending indices into a bitmap, one chunk at a time.
+     */
+    static final class Builder {
+
+        private int[] keys = new int[4];
+        private Container[] containers = new Container[4];
+        private int length;
+        private int currentKey = -1;
+        private long[] words;
+        private int count;
+
+        /**
+         * Adds an index, greater than or equal to the previous ones.
+         *
+         * @param index - the index to add
+         */
+        void add(int index) {
+            if (index < 0)
+                throw new IllegalArgumentException("Negative index: " + index);
+            int key = index >>> 16;
+            if (key != currentKey) {
+                flush();
+                currentKey = key;
+                words = new long[WORDS];
+            }
+            int low = index & 0xFFFF;
+            long bit = 1L << low;
+            if ((words[low >>> 6] & bit) == 0) {
+                words[low >>> 6] |= bit;
+                count++;
+            }
+        }
+
+        IndexBitmap build() {
+            flush();
+            return length == 0 ? EMPTY : new IndexBitmap(keys, containers, length);
+        }
+
+        private void flush() {
+            if (count == 0)
+                return;
+            if (length == keys.length) {
+                keys = Arrays.copyOf(keys, length * 2);
+                containers = Arrays.copyOf(containers, length * 2);
+            }
+            keys[length] = currentKey;
+            containers[length++] = Container.of(words, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * The indices of a chunk, by their 16 low bits.
+     */
+    private abstract static class Container {
+
+        static Container of(long[] words, int cardinality) {
+            if (cardinality > ARRAY_MAX)
+                return new BitmapContainer(words, cardinality);
+            char[] values = new char[cardinality];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    values[n++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, cardinality);
+        }
+
+        abstract int cardinality();
+
+        abstract boolean contains(char value);
+
+        abstract long[] toWords();
+
+        abstract void forEach(int base, IntConsumer action);
+
+        Container and(Container other) {
+            if (this instanceof ArrayContainer)
+                return ((ArrayContainer) this).filter(other, true);
+            if (other instanceof ArrayContainer)
+                return ((ArrayContainer) other).filter(this, true);
+            long[] a = toWords();
+            long[] b = other.toWords();
+            long[] out = new long[WORDS];
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) {
+                out[w] = a[w] & b[w];
+                count += Long.bitCount(out[w]);
+            }
+            return of(out, count);
+        }
+
+        Container or(Container other) {
+            long[] out = toWords().clone();
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int k = 0; k < array.cardinality; k++)
+                    out[array.values[k] >>> 6] |= 1L << array.values[k];
+            } else {
+                long[] b = other.toWords();
+                for (int w = 0; w < WORDS; w++)
+                    out[w] |= b[w];
+            }
+            int count = 0;
+            for (long word : out)
+                count += Long.bitCount(word);
+            return of(out, count);
+        }
+
+        Container andNot(Container other) {
+            if (this instanceof ArrayContainer)
+                return ((ArrayContainer) this).filter(other, false);
+            long[] out = toWords().clone();
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int k = 0; k < array.cardinality; k++)
+                    out[array.values[k] >>> 6] &= ~(1L << array.values[k]);
+            } else {
+                long[] b = other.toWords();
+                for (int w = 0; w < WORDS; w++)
+                    out[w] &= ~b[w];
+            }
+            int count = 0;
+            for (long word : out)
+                count += Long.bitCount(word);
+            return of(out, count);
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private final char[] values;
+        private final int cardinality;
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        /**
+         * Keeps the values contained (or not contained) in another container.
+         */
+        Container filter(Container other, boolean contained) {
+            char[] out = new char[cardinality];
+            int n = 0;
+            for (int k = 0; k < cardinality; k++)
+                if (other.contains(values[k]) == contained)
+                    out[n++] = values[k];
+            return new ArrayContainer(out, n);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[WORDS];
+            for (int k = 0; k < cardinality; k++)
+                words[values[k] >>> 6] |= 1L << values[k];
+            return words;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int k = 0; k < cardinality; k++)
+                action.accept(base + values[k]);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+        private final int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        long[] toWords() {
+            return words;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    action.accept(base + (w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+}
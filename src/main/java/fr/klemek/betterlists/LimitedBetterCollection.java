@@ -0,0 +1,49 @@
+package fr.klemek.betterlists;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Function;
+
+/**
+ * A read-only BetterCollection view of a Collection whose iterations check QueryLimits, so that its
+ * operators abort once a limit is exceeded.
+ *
+ * @author Klemek
+ * @see BetterCollection#withLimits(QueryLimits)
+ */
+final class LimitedBetterCollection<T> extends AbstractCollection<T> implements BetterCollection<T> {
+
+    private final Collection<T> collection;
+    private final QueryLimits limits;
+
+    LimitedBetterCollection(Collection<T> collection, QueryLimits limits) {
+        this.collection = collection;
+        this.limits = limits;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return limits.iterator(collection.iterator());
+    }
+
+    @Override
+    public int size() {
+        return collection.size();
+    }
+
+    @Override
+    public BetterListMetrics metrics() {
+        return collection instanceof BetterCollection ? ((BetterCollection<?>) collection).metrics() : BetterCollection.super.metrics();
+    }
+
+    @Override
+    public <E extends Comparable<E>> BetterList<T> orderBy(Function<T, E> selector) {
+        return BetterCollection.super.orderBy(limits.selector(selector));
+    }
+
+    @Override
+    public <E extends Comparable<E>> BetterList<T> orderByDescending(Function<T, E> selector) {
+        return BetterCollection.super.orderByDescending(limits.selector(selector));
+    }
+}
@@ -0,0 +1,57 @@
+package fr.klemek.betterlists;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A read-only BetterList view of a List whose iterations check QueryLimits, so that its operators
+ * abort once a limit is exceeded.
+ * <p>
+ * The view does not implement RandomAccess, so that the operators iterate over it instead of
+ * indexing it.
+ *
+ * @author Klemek
+ * @see BetterList#withLimits(QueryLimits)
+ */
+final class LimitedBetterList<T> extends AbstractList<T> implements BetterList<T> {
+
+    private final List<T> list;
+    private final QueryLimits limits;
+
+    LimitedBetterList(List<T> list, QueryLimits limits) {
+        this.list = list;
+        this.limits = limits;
+    }
+
+    @Override
+    public T get(int index) {
+        return list.get(index);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return limits.iterator(list.iterator());
+    }
+
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    @Override
+    public BetterListMetrics metrics() {
+        return list instanceof BetterCollection ? ((BetterCollection<?>) list).metrics() : BetterList.super.metrics();
+    }
+
+    @Override
+    public <E extends Comparable<E>> BetterList<T> orderBy(Function<T, E> selector) {
+        return BetterList.super.orderBy(limits.selector(selector));
+    }
+
+    @Override
+    public <E extends Comparable<E>> BetterList<T> orderByDescending(Function<T, E> selector) {
+        return BetterList.super.orderByDescending(limits.selector(selector));
+    }
+}
@@ -0,0 +1,141 @@
+package fr.klemek.betterlists;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Merges sorted iterators into one sorted iterator with a binary heap of their heads, in O(log k)
+ * per element for k sources: the head of the source just consumed replaces the top of the heap and
+ * is sifted down, costing a single pass. Equal elements are returned in the order of their sources,
+ * so merging sorted runs of a sequence is stable.
+ *
+ * @author Klemek
+ */
+class MergeIterator<T> implements CloseableIterator<T> {
+
+    private final List<? extends Iterator<? extends T>> sources;
+    private final Comparator<? super T> comparator;
+    private final boolean distinct;
+    private final Head<T>[] heap;
+    private int heapSize;
+
+    MergeIterator(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+        this(sources, comparator, false);
+    }
+
+    /**
+     * @param sources    - the sorted iterators to merge
+     * @param comparator - the order of the iterators
+     * @param distinct   - true to return only the first of the elements comparing equal
+     */
+    MergeIterator(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator,
+                  boolean distinct) {
+        this.sources = sources;
+        this.comparator = comparator;
+        this.distinct = distinct;
+        this.heap = newHeap(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            Iterator<? extends T> source = sources.get(i);
+            if (source.hasNext()) {
+                Head<T> head = new Head<>(i);
+                head.element = source.next();
+                heap[heapSize++] = head;
+            } else if (source instanceof AutoCloseable) {
+                closeSource(source);
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--)
+            siftDown(i);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return heapSize > 0;
+    }
+
+    @Override
+    public T next() {
+        if (heapSize == 0)
+            throw new NoSuchElementException();
+        T element = heap[0].element;
+        advanceTop();
+        if (distinct)
+            while (heapSize > 0 && comparator.compare(heap[0].element, element) == 0)
+                advanceTop();
+        return element;
+    }
+
+    @Override
+    public void close() {
+        heapSize = 0;
+        for (Iterator<? extends T> source : sources)
+            if (source instanceof AutoCloseable)
+                closeSource(source);
+    }
+
+    /**
+     * Replaces the top of the heap by the next element of its source, or removes it if the source
+     * is exhausted.
+     */
+    private void advanceTop() {
+        Head<T> top = heap[0];
+        Iterator<? extends T> source = sources.get(top.source);
+        if (source.hasNext()) {
+            top.element = source.next();
+        } else {
+            if (source instanceof AutoCloseable)
+                closeSource(source);
+            heap[0] = heap[--heapSize];
+            heap[heapSize] = null;
+        }
+        if (heapSize > 1)
+            siftDown(0);
+    }
+
+    private void siftDown(int i) {
+        Head<T> head = heap[i];
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < heapSize && less(heap[right], heap[child]))
+                child = right;
+            if (!less(heap[child], head))
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = head;
+    }
+
+    private boolean less(Head<T> h1, Head<T> h2) {
+        int c = comparator.compare(h1.element, h2.element);
+        return c < 0 || (c == 0 && h1.source < h2.source);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Head<T>[] newHeap(int capacity) {
+        return (Head<T>[]) new Head<?>[capacity];
+    }
+
+    private static void closeSource(Iterator<?> source) {
+        try {
+            ((AutoCloseable) source).close();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Head<T> {
+        final int source;
+        T element;
+
+        Head(int source) {
+            this.source = source;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package fr.klemek.betterlists;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Fork/join reduction of a random-access list, used by the aggregate operator.
+ *
+ * @author Klemek
+ */
+final class ParallelAggregation {
+
+    /**
+     * Lists smaller than this are reduced sequentially.
+     */
+    static final int PARALLEL_THRESHOLD = 2048;
+    private static final int MIN_RANGE = 512;
+
+    private ParallelAggregation() {
+    }
+
+    /**
+     * Reduces a list by splitting its index range among the threads of the common pool. Each range
+     * is accumulated from a new seed, then the partial results are combined in index order, so the
+     * combiner only needs to be associative.
+     *
+     * @param list         - the list to reduce, with a fast get(int)
+     * @param seedSupplier - the supplier of the initial accumulator value of each range
+     * @param accumulator  - the accumulation of an element in a partial result
+     * @param combiner     - the merge of two adjacent partial results
+     * @return the accumulated value of the whole list
+     */
+    static <T, A> A aggregate(List<T> list, Supplier<A> seedSupplier, BiFunction<A, ? super T, A> accumulator,
+                              BinaryOperator<A> combiner) {
+        int size = list.size();
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        if (size < PARALLEL_THRESHOLD || parallelism < 2)
+            return accumulate(list, 0, size, seedSupplier, accumulator);
+        int minRange = Math.max(MIN_RANGE, size / (parallelism * 4));
+        return ForkJoinPool.commonPool().invoke(new Range<>(list, 0, size, minRange, seedSupplier, accumulator,
+                combiner));
+    }
+
+    private static <T, A> A accumulate(List<T> list, int from, int to, Supplier<A> seedSupplier,
+                                       BiFunction<A, ? super T, A> accumulator) {
+        A value = seedSupplier.get();
+        for (int i = from; i < to; i++)
+            value = accumulator.apply(value, list.get(i));
+        return value;
+    }
+
+    private static final class Range<T, A> extends RecursiveTask<A> {
+
+        private static final long serialVersionUID = 4128830672215365139L;
+
+        private final transient List<T> list;
+        private final int from;
+        private final int to;
+        private final int minRange;
+        private final transient Supplier<A> seedSupplier;
+        private final transient BiFunction<A, ? super T, A> accumulator;
+        private final transient BinaryOperator<A> combiner;
+
+        Range(List<T> list, int from, int to, int minRange, Supplier<A> seedSupplier,
+              BiFunction<A, ? super T, A> accumulator, BinaryOperator<A> combiner) {
+            this.list = list;
+            this.from = from;
+            this.to = to;
+            this.minRange = minRange;
+            this.seedSupplier = seedSupplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= minRange)
+                return accumulate(list, from, to, seedSupplier, accumulator);
+            int mid = (from + to) >>> 1;
+            Range<T, A> left = new Range<>(list, from, mid, minRange, seedSupplier, accumulator, combiner);
+            Range<T, A> right = new Range<>(list, mid, to, minRange, seedSupplier, accumulator, combiner);
+            right.fork();
+            A leftValue = left.compute();
+            return combiner.apply(leftValue, right.join());
+        }
+    }
+}
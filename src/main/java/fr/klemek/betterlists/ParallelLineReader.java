@@ -0,0 +1,213 @@
+package fr.klemek.betterlists;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Reads the lines of a file in line-aligned chunks processed in parallel, used by the loaders of
+ * BetterLists.
+ * <p>
+ * Each chunk is read with positional reads into a large heap buffer, without going through a
+ * Reader: lines are split on the '\n' byte (a trailing '\r' is dropped), which is safe for UTF-8
+ * and the single-byte charsets.
+ *
+ * @author Klemek
+ */
+final class ParallelLineReader {
+
+    /**
+     * Files smaller than this are read in a single chunk.
+     */
+    static final long PARALLEL_THRESHOLD = 1 << 20;
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int BOUNDARY_BUFFER_SIZE = 1 << 12;
+    private static final long MAX_CHUNK_SIZE = 1L << 28;
+
+    private ParallelLineReader() {
+    }
+
+    /**
+     * The consumer of the lines of a chunk.
+     *
+     * @param <R> the type of the result of the chunk
+     */
+    interface LineHandler<R> {
+
+        /**
+         * Called once, before the first line, with an estimation of the number of lines of the
+         * chunk.
+         *
+         * @param lines - the estimated number of lines
+         */
+        void expect(int lines);
+
+        /**
+         * Consumes a line, without its line terminator.
+         *
+         * @param bytes  - the buffer holding the line
+         * @param offset - the offset of the line in the buffer
+         * @param length - the length of the line in bytes
+         */
+        void line(byte[] bytes, int offset, int length);
+
+        /**
+         * @return the result of the chunk
+         */
+        R result();
+    }
+
+    /**
+     * Splits a file in line-aligned chunks and processes them in parallel on the common
+     * ForkJoinPool, each with a new handler.
+     *
+     * @param path     - the file to read
+     * @param handlers - the supplier of the handler of each chunk
+     * @return the results of the chunks, in file order
+     * @throws IOException if the file cannot be read
+     */
+    static <R> List<R> read(Path path, Supplier<LineHandler<R>> handlers) throws IOException {
+        long[] boundaries;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            boundaries = boundaries(channel);
+        }
+        int chunks = boundaries.length - 1;
+        List<R> results = new ArrayList<>(chunks);
+        if (chunks == 1) {
+            results.add(readChunk(path, boundaries[0], boundaries[1], handlers.get()));
+            return results;
+        }
+        List<ForkJoinTask<R>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            long from = boundaries[c];
+            long to = boundaries[c + 1];
+            tasks.add(ForkJoinPool.commonPool().submit(() -> readChunk(path, from, to, handlers.get())));
+        }
+        try {
+            for (ForkJoinTask<R> task : tasks)
+                results.add(task.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading " + path, e);
+        } catch (ExecutionException e) {
+            for (ForkJoinTask<R> task : tasks)
+                task.cancel(false);
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            if (cause instanceof UncheckedIOException)
+                throw ((UncheckedIOException) cause).getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IOException(cause);
+        }
+        return results;
+    }
+
+    /**
+     * Computes the start offsets of the chunks of a file, each chunk but the last one ending just
+     * after a '\n'.
+     */
+    private static long[] boundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int chunks = 1;
+        if (size >= PARALLEL_THRESHOLD)
+            chunks = (int) Math.max(ForkJoinPool.getCommonPoolParallelism() * 4L, size / MAX_CHUNK_SIZE + 1);
+        long[] boundaries = new long[chunks + 1];
+        boundaries[chunks] = size;
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_BUFFER_SIZE);
+        for (int c = 1; c < chunks; c++) {
+            long position = Math.max(size / chunks * c - 1, boundaries[c - 1]);
+            boundaries[c] = size;
+            search:
+            while (position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read < 0)
+                    break;
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        boundaries[c] = position + i + 1;
+                        break search;
+                    }
+                }
+                position += read;
+            }
+        }
+        return boundaries;
+    }
+
+    private static <R> R readChunk(Path path, long from, long to, LineHandler<R> handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            byte[] bytes = new byte[(int) Math.min(BUFFER_SIZE, Math.max(to - from, 1))];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            long position = from;
+            boolean first = true;
+            while (position < to || buffer.position() > 0) {
+                int limit = (int) Math.min(buffer.remaining(), to - position);
+                buffer.limit(buffer.position() + limit);
+                while (buffer.hasRemaining()) {
+                    int read = channel.read(buffer, position);
+                    if (read < 0)
+                        throw new IOException("Unexpected end of file: " + path);
+                    position += read;
+                }
+                int end = buffer.position();
+                if (first) {
+                    handler.expect(estimateLines(bytes, end, to - from));
+                    first = false;
+                }
+                int start = 0;
+                for (int i = 0; i < end; i++) {
+                    if (bytes[i] == '\n') {
+                        emit(handler, bytes, start, i);
+                        start = i + 1;
+                    }
+                }
+                if (position >= to) {
+                    if (start < end)
+                        emit(handler, bytes, start, end);
+                    break;
+                }
+                if (start == 0 && end == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                    buffer = ByteBuffer.wrap(bytes);
+                    buffer.position(end);
+                } else {
+                    System.arraycopy(bytes, start, bytes, 0, end - start);
+                    buffer.clear();
+                    buffer.position(end - start);
+                }
+            }
+        }
+        return handler.result();
+    }
+
+    private static <R> void emit(LineHandler<R> handler, byte[] bytes, int start, int end) {
+        if (end > start && bytes[end - 1] == '\r')
+            end--;
+        handler.line(bytes, start, end - start);
+    }
+
+    private static int estimateLines(byte[] bytes, int length, long chunkLength) {
+        int lines = 0;
+        for (int i = 0; i < length; i++)
+            if (bytes[i] == '\n')
+                lines++;
+        if (length == 0)
+            return 0;
+        return (int) Math.min(Integer.MAX_VALUE - 8, (lines + 1) * chunkLength / length);
+    }
+}
@@ -0,0 +1,58 @@
+package fr.klemek.betterlists;
+
+/**
+ * Thrown by the operators of a view created with withLimits when one of its QueryLimits is
+ * exceeded.
+ *
+ * @author Klemek
+ * @see QueryLimits
+ */
+public class QueryAbortedException extends RuntimeException {
+
+    private static final long serialVersionUID = 2381167059826712475L;
+
+    /**
+     * The limits which can abort a query.
+     */
+    public enum Reason {
+        /**
+         * The deadline of the query passed.
+         */
+        DEADLINE,
+        /**
+         * The cancellation token of the query was cancelled.
+         */
+        CANCELLED,
+        /**
+         * The operator scanned more elements than allowed.
+         */
+        MAX_SCAN
+    }
+
+    private final Reason reason;
+    private final long scanned;
+
+    /**
+     * @param reason  - the exceeded limit
+     * @param scanned - the number of elements scanned by the operator when it aborted
+     */
+    public QueryAbortedException(Reason reason, long scanned) {
+        super("Query aborted (" + reason + ") after " + scanned + " elements");
+        this.reason = reason;
+        this.scanned = scanned;
+    }
+
+    /**
+     * @return the exceeded limit
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * @return the number of elements scanned by the operator when it aborted
+     */
+    public long getScanned() {
+        return scanned;
+    }
+}
@@ -0,0 +1,198 @@
+package fr.klemek.betterlists;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Limits aborting the operators of a BetterCollection view created with withLimits: a deadline, a
+ * cancellation token and a maximum number of elements scanned by each operator.
+ * <p>
+ * The number of elements is checked at each element, the deadline and the token every
+ * checkInterval elements (1024 by default) and when the operator starts, so the overhead is a
+ * counter decrement per element. Sorts also check them every checkInterval key extractions. An
+ * exceeded limit throws a QueryAbortedException, dropping the partial results of the operator.
+ * <p>
+ * Limits are immutable: the with methods return new limits.
+ * <pre>
+ * BetterList&lt;Contact&gt; limited = contacts.withLimits(QueryLimits.timeout(50, TimeUnit.MILLISECONDS)
+ *         .withMaxScan(1_000_000));
+ * </pre>
+ *
+ * @author Klemek
+ * @see BetterCollection#withLimits(QueryLimits)
+ */
+public final class QueryLimits {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final int DEFAULT_CHECK_INTERVAL = 1024;
+    private static final QueryLimits NONE = new QueryLimits(false, NO_DEADLINE, null, Long.MAX_VALUE,
+            DEFAULT_CHECK_INTERVAL);
+
+    private final boolean hasDeadline;
+    private final long deadlineNanos;
+    private final CancellationToken token;
+    private final long maxScan;
+    private final int checkInterval;
+
+    private QueryLimits(boolean hasDeadline, long deadlineNanos, CancellationToken token, long maxScan,
+                        int checkInterval) {
+        this.hasDeadline = hasDeadline;
+        this.deadlineNanos = deadlineNanos;
+        this.token = token;
+        this.maxScan = maxScan;
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * @return limits without any limit
+     */
+    public static QueryLimits none() {
+        return NONE;
+    }
+
+    /**
+     * Creates limits with a deadline at a given time from now, shared by all the operators run
+     * with these limits.
+     *
+     * @param timeout - the time before the deadline
+     * @param unit    - the unit of the timeout
+     * @return new limits
+     */
+    public static QueryLimits timeout(long timeout, TimeUnit unit) {
+        return NONE.withTimeout(timeout, unit);
+    }
+
+    /**
+     * Creates limits aborting the operators once a token is cancelled.
+     *
+     * @param token - the cancellation token
+     * @return new limits
+     */
+    public static QueryLimits cancellable(CancellationToken token) {
+        return NONE.withToken(token);
+    }
+
+    /**
+     * Creates limits aborting each operator scanning more than a number of elements.
+     *
+     * @param maxScan - the maximum number of elements scanned by an operator
+     * @return new limits
+     */
+    public static QueryLimits maxScan(long maxScan) {
+        return NONE.withMaxScan(maxScan);
+    }
+
+    /**
+     * Returns these limits with a deadline at a given time from now.
+     *
+     * @param timeout - the time before the deadline
+     * @param unit    - the unit of the timeout
+     * @return new limits
+     */
+    public QueryLimits withTimeout(long timeout, TimeUnit unit) {
+        return new QueryLimits(true, System.nanoTime() + unit.toNanos(timeout), token, maxScan, checkInterval);
+    }
+
+    /**
+     * Returns these limits with a cancellation token.
+     *
+     * @param token - the cancellation token
+     * @return new limits
+     */
+    public QueryLimits withToken(CancellationToken token) {
+        return new QueryLimits(hasDeadline, deadlineNanos, token, maxScan, checkInterval);
+    }
+
+    /**
+     * Returns these limits with a maximum number of elements scanned by each operator.
+     *
+     * @param maxScan - the maximum number of elements scanned by an operator
+     * @return new limits
+     */
+    public QueryLimits withMaxScan(long maxScan) {
+        if (maxScan < 0)
+            throw new IllegalArgumentException("maxScan must not be negative: " + maxScan);
+        return new QueryLimits(hasDeadline, deadlineNanos, token, maxScan, checkInterval);
+    }
+
+    /**
+     * Returns these limits checking the deadline and the token every checkInterval elements.
+     *
+     * @param checkInterval - the number of elements between two checks
+     * @return new limits
+     */
+    public QueryLimits withCheckInterval(int checkInterval) {
+        if (checkInterval < 1)
+            throw new IllegalArgumentException("checkInterval must be positive: " + checkInterval);
+        return new QueryLimits(hasDeadline, deadlineNanos, token, maxScan, checkInterval);
+    }
+
+    /**
+     * @return the maximum number of elements scanned by an operator
+     */
+    public long getMaxScan() {
+        return maxScan;
+    }
+
+    /**
+     * @return the number of elements between two checks of the deadline and the token
+     */
+    public int getCheckInterval() {
+        return checkInterval;
+    }
+
+    /**
+     * Checks the deadline and the token.
+     *
+     * @param scanned - the number of elements scanned so far, reported in the exception
+     * @throws QueryAbortedException if the deadline passed or the token was cancelled
+     */
+    void check(long scanned) {
+        if (token != null && token.isCancelled())
+            throw new QueryAbortedException(QueryAbortedException.Reason.CANCELLED, scanned);
+        if (hasDeadline && System.nanoTime() - deadlineNanos >= 0)
+            throw new QueryAbortedException(QueryAbortedException.Reason.DEADLINE, scanned);
+    }
+
+    /**
+     * Wraps an iterator so that it checks these limits while it is consumed.
+     */
+    <T> Iterator<T> iterator(Iterator<T> iterator) {
+        check(0);
+        return new Iterator<T>() {
+            private long scanned;
+            private int untilCheck = checkInterval;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (++scanned > maxScan)
+                    throw new QueryAbortedException(QueryAbortedException.Reason.MAX_SCAN, scanned - 1);
+                if (--untilCheck == 0) {
+                    untilCheck = checkInterval;
+                    check(scanned);
+                }
+                return iterator.next();
+            }
+        };
+    }
+
+    /**
+     * Wraps a key selector so that it checks the deadline and the token while a sort runs.
+     */
+    <T, E> Function<T, E> selector(Function<T, E> selector) {
+        int[] untilCheck = {checkInterval};
+        return element -> {
+            if (--untilCheck[0] == 0) {
+                untilCheck[0] = checkInterval;
+                check(0);
+            }
+            return selector.apply(element);
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package fr.klemek.betterlists;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Helpers shared by the default operators of BetterCollection.
+ *
+ * @author Klemek
+ */
+final class QuerySupport {
+
+    /**
+     * Collections smaller than this are searched linearly.
+     */
+    private static final int HASH_LOOKUP_THRESHOLD = 8;
+
+    private QuerySupport() {
+    }
+
+    /**
+     * Returns a collection with a fast contains method holding the elements of the given one: the
+     * collection itself if it is a Set or a small collection, a HashSet of its elements otherwise.
+     *
+     * @param c - the elements to look up
+     * @return a collection with the same elements
+     */
+    static <T> Collection<T> lookup(Collection<T> c) {
+        if (c instanceof Set || c.size() < HASH_LOOKUP_THRESHOLD)
+            return c;
+        return new HashSet<>(c);
+    }
+}
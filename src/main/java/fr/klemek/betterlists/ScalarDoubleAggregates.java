@@ -0,0 +1,58 @@
+package fr.klemek.betterlists;
+
+/**
+ * Plain loop implementations of the aggregates of BetterDoubleList.
+ *
+ * @author Klemek
+ * @see DoubleAggregates
+ */
+final class ScalarDoubleAggregates {
+
+    private ScalarDoubleAggregates() {
+    }
+
+    static double sum(double[] values, int length) {
+        double sum = 0;
+        for (int i = 0; i < length; i++)
+            sum += values[i];
+        return sum;
+    }
+
+    static double min(double[] values, int length) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < length; i++)
+            min = Math.min(min, values[i]);
+        return min;
+    }
+
+    static double max(double[] values, int length) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < length; i++)
+            max = Math.max(max, values[i]);
+        return max;
+    }
+
+    static int countGreaterThan(double[] values, int length, double threshold) {
+        int count = 0;
+        for (int i = 0; i < length; i++)
+            if (values[i] > threshold)
+                count++;
+        return count;
+    }
+
+    static int countLessThan(double[] values, int length, double threshold) {
+        int count = 0;
+        for (int i = 0; i < length; i++)
+            if (values[i] < threshold)
+                count++;
+        return count;
+    }
+
+    static int countBetween(double[] values, int length, double lo, double hi) {
+        int count = 0;
+        for (int i = 0; i < length; i++)
+            if (values[i] >= lo && values[i] < hi)
+                count++;
+        return count;
+    }
+}
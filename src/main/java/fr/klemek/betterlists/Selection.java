@@ -0,0 +1,74 @@
+package fr.klemek.betterlists;
+
+/**
+ * Exact order statistics by selection (quickselect), without sorting.
+ *
+ * @author Klemek
+ */
+final class Selection {
+
+    private Selection() {
+    }
+
+    /**
+     * Computes the exact quantile of values, interpolating linearly between the two closest
+     * ranks. The array is reordered.
+     *
+     * @param values - the values, at least one
+     * @param q      - the quantile, between 0 and 1
+     * @return the quantile
+     */
+    static double quantile(double[] values, double q) {
+        double position = q * (values.length - 1);
+        int k = (int) Math.floor(position);
+        double lower = select(values, k);
+        if (k + 1 >= values.length || position == k)
+            return lower;
+        double upper = values[k + 1];
+        for (int i = k + 2; i < values.length; i++)
+            if (values[i] < upper)
+                upper = values[i];
+        return lower + (upper - lower) * (position - k);
+    }
+
+    /**
+     * Moves the k-th smallest value at index k, smaller values before and greater values after.
+     *
+     * @param values - the values
+     * @param k      - the rank to select
+     * @return the k-th smallest value
+     */
+    static double select(double[] values, int k) {
+        int lo = 0;
+        int hi = values.length - 1;
+        while (hi > lo) {
+            double pivot = median(values[lo], values[(lo + hi) >>> 1], values[hi]);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (values[i] < pivot)
+                    i++;
+                while (values[j] > pivot)
+                    j--;
+                if (i <= j) {
+                    double tmp = values[i];
+                    values[i] = values[j];
+                    values[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j)
+                hi = j;
+            else if (k >= i)
+                lo = i;
+            else
+                break;
+        }
+        return values[k];
+    }
+
+    private static double median(double a, double b, double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+}
@@ -0,0 +1,328 @@
+package fr.klemek.betterlists;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+/**
+ * A BetterList kept sorted by a key, allowing binary-search lookups and range queries.
+ * <p>
+ * Elements are inserted at their sorted position (after the elements with an equal key), so
+ * positional insertions and replacements are not supported.
+ *
+ * @param <T> the type of the elements
+ * @param <K> the type of the keys
+ * @author Klemek
+ */
+public class SortedBetterList<T, K> extends AbstractList<T> implements BetterList<T>, RandomAccess {
+
+    private final ArrayList<T> elements;
+    private final Function<T, K> keySelector;
+    private final Comparator<? super K> keyComparator;
+
+    /**
+     * Constructs an empty list sorted by a comparable key.
+     *
+     * @param <T>         - the type of the elements
+     * @param <K>         - the type of the keys
+     * @param keySelector - the function extracting the key of an element
+     * @return the constructed list
+     */
+    public static <T, K extends Comparable<? super K>> SortedBetterList<T, K> orderedBy(Function<T, K> keySelector) {
+        return new SortedBetterList<>(keySelector, Comparator.naturalOrder());
+    }
+
+    /**
+     * Constructs an empty list.
+     *
+     * @param keySelector   - the function extracting the key of an element
+     * @param keyComparator - the order of the keys
+     */
+    public SortedBetterList(Function<T, K> keySelector, Comparator<? super K> keyComparator) {
+        this.elements = new ArrayList<>();
+        this.keySelector = keySelector;
+        this.keyComparator = keyComparator;
+    }
+
+    /**
+     * Constructs a list containing the elements of the specified collection, sorted by key.
+     *
+     * @param keySelector   - the function extracting the key of an element
+     * @param keyComparator - the order of the keys
+     * @param c             - the collection whose elements are to be placed into this list
+     */
+    public SortedBetterList(Function<T, K> keySelector, Comparator<? super K> keyComparator,
+                            Collection<? extends T> c) {
+        this.elements = new ArrayList<>(c);
+        this.keySelector = keySelector;
+        this.keyComparator = keyComparator;
+        this.elements.sort(this::compareElements);
+    }
+
+    private int compareElements(T o1, T o2) {
+        return keyComparator.compare(keySelector.apply(o1), keySelector.apply(o2));
+    }
+
+    /**
+     * @return the function extracting the key of an element
+     */
+    public Function<T, K> getKeySelector() {
+        return keySelector;
+    }
+
+    /**
+     * @return the order of the keys
+     */
+    public Comparator<? super K> getKeyComparator() {
+        return keyComparator;
+    }
+
+    @Override
+    public T get(int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    /**
+     * Inserts the element at its sorted position, after the elements with an equal key.
+     *
+     * @param element - the element to insert
+     * @return true
+     */
+    @Override
+    public boolean add(T element) {
+        modCount++;
+        elements.add(upperBound(keySelector.apply(element)), element);
+        return true;
+    }
+
+    /**
+     * Not supported, elements are inserted at their sorted position.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void add(int index, T element) {
+        throw new UnsupportedOperationException("elements are inserted at their sorted position");
+    }
+
+    /**
+     * Inserts the elements at their sorted positions. Large collections are appended then merged
+     * in a single sort.
+     *
+     * @param c - the elements to insert
+     * @return true if the list changed
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        if (c.isEmpty())
+            return false;
+        modCount++;
+        if (c.size() < 8) {
+            for (T element : c)
+                elements.add(upperBound(keySelector.apply(element)), element);
+        } else {
+            elements.addAll(c);
+            elements.sort(this::compareElements);
+        }
+        return true;
+    }
+
+    @Override
+    public T remove(int index) {
+        modCount++;
+        return elements.remove(index);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object o) {
+        if (o == null)
+            return super.remove(null);
+        K key;
+        try {
+            key = keySelector.apply((T) o);
+        } catch (ClassCastException e) {
+            return false;
+        }
+        for (int i = lowerBound(key), end = upperBound(key); i < end; i++) {
+            if (o.equals(elements.get(i))) {
+                remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        modCount++;
+        elements.subList(fromIndex, toIndex).clear();
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        elements.clear();
+    }
+
+    /**
+     * Returns the index of the first element with the given key.
+     *
+     * @param key - the key to search
+     * @return the index of the first element with the key, or (-(insertion point) - 1) if there
+     * is none, like java.util.Collections.binarySearch
+     */
+    public int indexOfKey(K key) {
+        int index = lowerBound(key);
+        if (index < elements.size() && keyComparator.compare(keySelector.apply(elements.get(index)), key) == 0)
+            return index;
+        return -index - 1;
+    }
+
+    /**
+     * Returns the last element whose key is lower than or equal to the given key.
+     *
+     * @param key - the key to search
+     * @return the element or null if there is none
+     */
+    public T floor(K key) {
+        int index = upperBound(key) - 1;
+        return index >= 0 ? elements.get(index) : null;
+    }
+
+    /**
+     * Returns the first element whose key is greater than or equal to the given key.
+     *
+     * @param key - the key to search
+     * @return the element or null if there is none
+     */
+    public T ceiling(K key) {
+        int index = lowerBound(key);
+        return index < elements.size() ? elements.get(index) : null;
+    }
+
+    /**
+     * Returns the elements whose key is between lo (inclusive) and hi (exclusive), in O(log n)
+     * plus the size of the result.
+     *
+     * @param lo - low endpoint (inclusive) of the keys
+     * @param hi - high endpoint (exclusive) of the keys
+     * @return a List of the elements in the range, in order.
+     */
+    public BetterList<T> range(K lo, K hi) {
+        int from = lowerBound(lo);
+        int to = Math.max(from, lowerBound(hi));
+        return new BetterArrayList<>(elements.subList(from, to));
+    }
+
+    /**
+     * Returns elements from the sequence as long as a specified condition is true, finding the
+     * first failing element by binary search. The condition must be monotone: true for a prefix of
+     * the sequence and false for the remaining elements (a comparison of the key to a constant for
+     * example).
+     * <p>
+     * This is not an override of takeWhile: takeWhile accepts any predicate and stops at its first
+     * failing element, which a binary search only finds when the predicate is monotone, so it keeps
+     * its linear scan.
+     *
+     * @param predicate - A monotone function to test each element for a condition.
+     * @return a List that contains the elements from the sequence that occur before the element at
+     * which the test no longer passes.
+     * @see BetterList#takeWhile(Function)
+     */
+    public BetterList<T> takeWhileMonotone(Function<T, Boolean> predicate) {
+        return new BetterArrayList<>(elements.subList(0, partitionPoint(predicate)));
+    }
+
+    /**
+     * Bypasses elements in the sequence as long as a specified condition is true and then returns
+     * the remaining elements, finding the first failing element by binary search. The condition
+     * must be monotone: true for a prefix of the sequence and false for the remaining elements.
+     * Like takeWhileMonotone, it does not override skipWhile, which accepts any predicate.
+     *
+     * @param predicate - A monotone function to test each element for a condition.
+     * @return a List that contains the elements from the sequence starting at the first element
+     * that does not pass the test specified by predicate.
+     * @see BetterList#skipWhile(Function)
+     */
+    public BetterList<T> skipWhileMonotone(Function<T, Boolean> predicate) {
+        return new BetterArrayList<>(elements.subList(partitionPoint(predicate), elements.size()));
+    }
+
+    /**
+     * Returns the elements of the list in key order, without sorting them.
+     *
+     * @return a List that contains the elements of the list, in order.
+     */
+    public BetterList<T> orderByKey() {
+        return new BetterArrayList<>(elements);
+    }
+
+    /**
+     * Sorts the elements of a sequence in ascending order by using a specified comparer. The sort
+     * is skipped only when the selector is the key selector object of this list (as returned by
+     * getKeySelector) and the keys are in natural order: an equivalent lambda cannot be detected,
+     * use orderByKey instead.
+     *
+     * @param <E>      The type of the projected values lists
+     * @param selector - A transform function to apply to each element.
+     * @return a List whose elements are sorted according to a key.
+     */
+    @Override
+    public <E extends Comparable<E>> BetterList<T> orderBy(Function<T, E> selector) {
+        if (isNaturalKey(selector))
+            return orderByKey();
+        return BetterList.super.orderBy(selector);
+    }
+
+    private boolean isNaturalKey(Function<T, ?> selector) {
+        return selector == keySelector && keyComparator == Comparator.naturalOrder();
+    }
+
+    private int partitionPoint(Function<T, Boolean> predicate) {
+        int lo = 0;
+        int hi = elements.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (predicate.apply(elements.get(mid)))
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private int lowerBound(K key) {
+        int lo = 0;
+        int hi = elements.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keyComparator.compare(keySelector.apply(elements.get(mid)), key) < 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private int upperBound(K key) {
+        int lo = 0;
+        int hi = elements.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keyComparator.compare(keySelector.apply(elements.get(mid)), key) <= 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,82 @@
+package fr.klemek.betterlists;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded lock-free queue for a single producer thread and a single consumer thread, used between
+ * the asynchronous stages of BetterFlow.
+ * <p>
+ * The elements are stored in a ring buffer. Each side only writes its own index, published with
+ * an ordered store after the slot was written (producer) or cleared (consumer).
+ *
+ * @author Klemek
+ */
+final class SpscQueue<E> {
+
+    static final int SPINS = 64;
+    private static final long MAX_PARK_NANOS = 1_000_000L;
+
+    private final Object[] buffer;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity - the maximum number of elements, rounded up to a power of two
+     */
+    SpscQueue(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element, called by the producer thread.
+     *
+     * @param element - the non-null element
+     * @return false if the queue is full
+     */
+    boolean offer(E element) {
+        long t = tail.get();
+        if (t - head.get() == buffer.length)
+            return false;
+        buffer[(int) t & mask] = element;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Removes the first element, called by the consumer thread.
+     *
+     * @return the first element or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long h = head.get();
+        if (h == tail.get())
+            return null;
+        int i = (int) h & mask;
+        E element = (E) buffer[i];
+        buffer[i] = null;
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    /**
+     * Waits before retrying a full offer or an empty poll: spins first, then parks for growing
+     * durations up to a millisecond.
+     *
+     * @param attempt - the number of failed attempts so far
+     */
+    static void backoff(int attempt) {
+        if (attempt < SPINS)
+            Thread.yield();
+        else
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L << Math.min(attempt - SPINS, 10)));
+    }
+}
@@ -0,0 +1,218 @@
+package fr.klemek.betterlists;
+
+import java.util.Arrays;
+
+/**
+ * A merging t-digest, estimating the quantiles of a stream of values in bounded memory with a
+ * better accuracy near the extreme quantiles (p99, p999) than around the median.
+ * <p>
+ * The number of centroids kept is in the order of the compression factor (100 gives errors below
+ * 0.1% of the rank at the tails). Digests can be merged, so partial digests computed on parts of
+ * a sequence (in parallel for example) can be combined.
+ *
+ * @author Klemek
+ * @see BetterList#percentile(java.util.function.Function, double)
+ */
+public class TDigest {
+
+    /**
+     * The default compression factor.
+     */
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+    private final double[] bufferValues;
+    private final double[] bufferWeights;
+    private int buffered;
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Constructs an empty digest with the default compression factor.
+     */
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Constructs an empty digest.
+     *
+     * @param compression - the compression factor, higher values keep more centroids and give
+     *                    more accurate quantiles
+     * @throws IllegalArgumentException if the compression is lower than 10
+     */
+    public TDigest(double compression) {
+        if (compression < 10)
+            throw new IllegalArgumentException("compression must be at least 10: " + compression);
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) + 10;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.bufferValues = new double[5 * capacity];
+        this.bufferWeights = new double[5 * capacity];
+    }
+
+    /**
+     * Adds a value to the digest.
+     *
+     * @param value - the value, NaN values are ignored
+     */
+    public void add(double value) {
+        add(value, 1d);
+    }
+
+    private void add(double value, double weight) {
+        if (Double.isNaN(value))
+            return;
+        if (buffered == bufferValues.length)
+            compress();
+        bufferValues[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all values of another digest to this one.
+     *
+     * @param other - the other digest, left unchanged
+     */
+    public void merge(TDigest other) {
+        other.compress();
+        double[] otherMeans = Arrays.copyOf(other.means, other.centroids);
+        double[] otherWeights = Arrays.copyOf(other.weights, other.centroids);
+        double otherMin = other.min;
+        double otherMax = other.max;
+        for (int i = 0; i < otherMeans.length; i++)
+            add(otherMeans[i], otherWeights[i]);
+        min = Math.min(min, otherMin);
+        max = Math.max(max, otherMax);
+    }
+
+    /**
+     * @return the number of values added to the digest
+     */
+    public long size() {
+        return Math.round(totalWeight);
+    }
+
+    /**
+     * Estimates a quantile of the added values.
+     *
+     * @param q - the quantile, between 0 and 1
+     * @return the estimated value or NaN if the digest is empty
+     * @throws IllegalArgumentException if q is out of range
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1)
+            throw new IllegalArgumentException("q must be between 0 and 1: " + q);
+        compress();
+        if (centroids == 0)
+            return Double.NaN;
+        if (centroids == 1)
+            return means[0];
+        double index = q * totalWeight;
+        if (index < weights[0] / 2)
+            return min + (means[0] - min) * index / (weights[0] / 2);
+        double cumulative = weights[0] / 2;
+        for (int i = 0; i < centroids - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (index < cumulative + step)
+                return means[i] + (means[i + 1] - means[i]) * (index - cumulative) / step;
+            cumulative += step;
+        }
+        double last = weights[centroids - 1] / 2;
+        return means[centroids - 1] + (max - means[centroids - 1]) * Math.min(1d, (index - cumulative) / last);
+    }
+
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+    }
+
+    private void compress() {
+        if (buffered == 0)
+            return;
+        int n = centroids + buffered;
+        double[] m = Arrays.copyOf(means, n);
+        double[] w = Arrays.copyOf(weights, n);
+        System.arraycopy(bufferValues, 0, m, centroids, buffered);
+        System.arraycopy(bufferWeights, 0, w, centroids, buffered);
+        buffered = 0;
+        sort(m, w, 0, n - 1);
+
+        int out = 0;
+        double soFar = 0;
+        double kLeft = scale(0);
+        double mean = m[0];
+        double weight = w[0];
+        for (int i = 1; i < n; i++) {
+            double proposed = weight + w[i];
+            if (scale((soFar + proposed) / totalWeight) - kLeft <= 1) {
+                mean += (m[i] - mean) * w[i] / proposed;
+                weight = proposed;
+            } else {
+                m[out] = mean;
+                w[out] = weight;
+                out++;
+                soFar += weight;
+                kLeft = scale(soFar / totalWeight);
+                mean = m[i];
+                weight = w[i];
+            }
+        }
+        m[out] = mean;
+        w[out] = weight;
+        out++;
+        if (out > means.length) {
+            means = new double[out];
+            weights = new double[out];
+        }
+        System.arraycopy(m, 0, means, 0, out);
+        System.arraycopy(w, 0, weights, 0, out);
+        centroids = out;
+    }
+
+    private static void sort(double[] keys, double[] values, int lo, int hi) {
+        while (hi - lo > 16) {
+            double pivot = keys[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (keys[i] < pivot)
+                    i++;
+                while (keys[j] > pivot)
+                    j--;
+                if (i <= j) {
+                    swap(keys, values, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (j - lo < hi - i) {
+                sort(keys, values, lo, j);
+                lo = i;
+            } else {
+                sort(keys, values, i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++)
+            for (int j = i; j > lo && keys[j - 1] > keys[j]; j--)
+                swap(keys, values, j, j - 1);
+    }
+
+    private static void swap(double[] keys, double[] values, int i, int j) {
+        double k = keys[i];
+        keys[i] = keys[j];
+        keys[j] = k;
+        double v = values[i];
+        values[i] = values[j];
+        values[j] = v;
+    }
+}
@@ -0,0 +1,69 @@
+package fr.klemek.betterlists;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A metrics hook committing a JDK Flight Recorder event for each operator invocation, available
+ * on JDK 11+.
+ * <p>
+ * The events are named fr.klemek.betterlists.Operator and are only created while a recording is
+ * running, so that the hook only checks a flag otherwise:
+ * <pre>
+ * BetterListInstrumentation.setGlobalMetrics(new BetterListFlightRecorder());
+ * </pre>
+ * <pre>
+ * java -XX:StartFlightRecording=filename=app.jfr ...
+ * jfr print --events fr.klemek.betterlists.Operator app.jfr
+ * </pre>
+ *
+ * @author Klemek
+ * @see BetterListInstrumentation
+ */
+public class BetterListFlightRecorder implements BetterListMetrics {
+
+    @Override
+    public void record(String operator, long scanned, long emitted, boolean allocated, long nanos) {
+        OperatorEvent event = new OperatorEvent();
+        if (!event.isEnabled())
+            return;
+        event.operator = operator;
+        event.scanned = scanned;
+        event.emitted = emitted;
+        event.allocated = allocated;
+        event.elapsed = nanos;
+        event.commit();
+    }
+
+    @Name("fr.klemek.betterlists.Operator")
+    @Label("BetterList Operator")
+    @Category("BetterLists")
+    @Description("An invocation of a BetterList operator")
+    @StackTrace(false)
+    static final class OperatorEvent extends Event {
+
+        @Label("Operator")
+        String operator;
+
+        @Label("Scanned")
+        @Description("The number of elements of the source sequence visited by the operator")
+        long scanned;
+
+        @Label("Emitted")
+        @Description("The number of elements produced (or matched) by the operator")
+        long emitted;
+
+        @Label("Allocated")
+        @Description("Whether the operator allocated a new result list")
+        boolean allocated;
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+}
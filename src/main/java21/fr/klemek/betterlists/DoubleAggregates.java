@@ -0,0 +1,62 @@
+package fr.klemek.betterlists;
+
+/**
+ * Aggregates over the first length values of a double array, used by BetterDoubleList.
+ * <p>
+ * This is the JDK 21+ version of the class: arrays of at least VECTOR_THRESHOLD values are
+ * reduced with the Vector API when the jdk.incubator.vector module is resolved (run the JVM with
+ * --add-modules jdk.incubator.vector), plain loops are used otherwise.
+ *
+ * @author Klemek
+ */
+final class DoubleAggregates {
+
+    private static final int VECTOR_THRESHOLD = 32;
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private DoubleAggregates() {
+    }
+
+    /**
+     * @return true if the aggregates use the Vector API
+     */
+    static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    static double sum(double[] values, int length) {
+        if (VECTORIZED && length >= VECTOR_THRESHOLD)
+            return VectorDoubleAggregates.sum(values, length);
+        return ScalarDoubleAggregates.sum(values, length);
+    }
+
+    static double min(double[] values, int length) {
+        if (VECTORIZED && length >= VECTOR_THRESHOLD)
+            return VectorDoubleAggregates.min(values, length);
+        return ScalarDoubleAggregates.min(values, length);
+    }
+
+    static double max(double[] values, int length) {
+        if (VECTORIZED && length >= VECTOR_THRESHOLD)
+            return VectorDoubleAggregates.max(values, length);
+        return ScalarDoubleAggregates.max(values, length);
+    }
+
+    static int countGreaterThan(double[] values, int length, double threshold) {
+        if (VECTORIZED && length >= VECTOR_THRESHOLD)
+            return VectorDoubleAggregates.countGreaterThan(values, length, threshold);
+        return ScalarDoubleAggregates.countGreaterThan(values, length, threshold);
+    }
+
+    static int countLessThan(double[] values, int length, double threshold) {
+        if (VECTORIZED && length >= VECTOR_THRESHOLD)
+            return VectorDoubleAggregates.countLessThan(values, length, threshold);
+        return ScalarDoubleAggregates.countLessThan(values, length, threshold);
+    }
+
+    static int countBetween(double[] values, int length, double lo, double hi) {
+        if (VECTORIZED && length >= VECTOR_THRESHOLD)
+            return VectorDoubleAggregates.countBetween(values, length, lo, hi);
+        return ScalarDoubleAggregates.countBetween(values, length, lo, hi);
+    }
+}
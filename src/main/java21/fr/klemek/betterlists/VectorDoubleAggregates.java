@@ -0,0 +1,99 @@
+package fr.klemek.betterlists;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementations of the aggregates of BetterDoubleList, using the preferred vector shape of
+ * the platform. The values are processed one vector at a time, the tail with plain loops.
+ * <p>
+ * Sums are accumulated lane by lane, so their rounding can differ slightly from the sequential
+ * sum of ScalarDoubleAggregates.
+ *
+ * @author Klemek
+ * @see ScalarDoubleAggregates
+ */
+final class VectorDoubleAggregates {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorDoubleAggregates() {
+    }
+
+    static double sum(double[] values, int length) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length())
+            acc = acc.add(DoubleVector.fromArray(SPECIES, values, i));
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++)
+            sum += values[i];
+        return sum;
+    }
+
+    static double min(double[] values, int length) {
+        DoubleVector acc = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length())
+            acc = acc.min(DoubleVector.fromArray(SPECIES, values, i));
+        double min = acc.reduceLanes(VectorOperators.MIN);
+        for (; i < length; i++)
+            min = Math.min(min, values[i]);
+        return min;
+    }
+
+    static double max(double[] values, int length) {
+        DoubleVector acc = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        int bound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length())
+            acc = acc.max(DoubleVector.fromArray(SPECIES, values, i));
+        double max = acc.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++)
+            max = Math.max(max, values[i]);
+        return max;
+    }
+
+    static int countGreaterThan(double[] values, int length, double threshold) {
+        int bound = SPECIES.loopBound(length);
+        int count = 0;
+        int i = 0;
+        for (; i < bound; i += SPECIES.length())
+            count += DoubleVector.fromArray(SPECIES, values, i).compare(VectorOperators.GT, threshold).trueCount();
+        for (; i < length; i++)
+            if (values[i] > threshold)
+                count++;
+        return count;
+    }
+
+    static int countLessThan(double[] values, int length, double threshold) {
+        int bound = SPECIES.loopBound(length);
+        int count = 0;
+        int i = 0;
+        for (; i < bound; i += SPECIES.length())
+            count += DoubleVector.fromArray(SPECIES, values, i).compare(VectorOperators.LT, threshold).trueCount();
+        for (; i < length; i++)
+            if (values[i] < threshold)
+                count++;
+        return count;
+    }
+
+    static int countBetween(double[] values, int length, double lo, double hi) {
+        int bound = SPECIES.loopBound(length);
+        int count = 0;
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, values, i);
+            VectorMask<Double> inRange = v.compare(VectorOperators.GE, lo).and(v.compare(VectorOperators.LT, hi));
+            count += inRange.trueCount();
+        }
+        for (; i < length; i++)
+            if (values[i] >= lo && values[i] < hi)
+                count++;
+        return count;
+    }
+}
@@ -0,0 +1,85 @@
+package fr.klemek.betterlists;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * A java.util.concurrent.Flow.Processor running a BetterFlow between a publisher and its own
+ * subscribers, available on JDK 9+.
+ * <p>
+ * The received elements are requested in batches (see BetterFlowSubscriber) and the produced
+ * elements are republished with submit, which blocks while the buffer of a subscriber is full: a
+ * slow subscriber holds back the requests to the publisher. The processor is closed once the flow
+ * completes, and closed exceptionally if the publisher or an operator fails.
+ * <pre>
+ * BetterFlowProcessor&lt;Message, String&gt; bodies = new BetterFlowProcessor&lt;&gt;(
+ *         BetterFlow.&lt;Message&gt;create().where(m -&gt; m.isValid()).select(m -&gt; m.getBody()));
+ * publisher.subscribe(bodies);
+ * bodies.subscribe(someSubscriber);
+ * </pre>
+ *
+ * @param <S> the type of the received elements
+ * @param <T> the type of the republished elements
+ * @author Klemek
+ * @see BetterFlowSubscriber
+ */
+public class BetterFlowProcessor<S, T> extends SubmissionPublisher<T> implements Flow.Processor<S, T> {
+
+    private final BetterFlow<S, T> flow;
+    private final int batchSize;
+    private BetterFlowSubscriber<S, Void> subscriber;
+
+    /**
+     * Constructs a processor requesting the elements by batches of 256.
+     *
+     * @param flow - the operators applied to the received elements
+     */
+    public BetterFlowProcessor(BetterFlow<S, T> flow) {
+        this(flow, BetterFlowSubscriber.DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a processor requesting the elements by batches.
+     *
+     * @param flow      - the operators applied to the received elements
+     * @param batchSize - the maximum number of elements requested ahead of the flow
+     */
+    public BetterFlowProcessor(BetterFlow<S, T> flow, int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        this.flow = flow;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Opens the flow with the first subscription, the Inlet republishing through this processor.
+     */
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (subscriber == null) {
+            subscriber = new BetterFlowSubscriber<>(flow.forEach(this::submit), batchSize);
+            subscriber.result().whenComplete((result, failure) -> {
+                if (failure == null)
+                    close();
+                else
+                    closeExceptionally(failure);
+            });
+        }
+        subscriber.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(S item) {
+        subscriber.onNext(item);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        subscriber.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        subscriber.onComplete();
+    }
+}
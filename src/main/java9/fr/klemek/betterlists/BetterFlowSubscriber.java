@@ -0,0 +1,119 @@
+package fr.klemek.betterlists;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * A java.util.concurrent.Flow.Subscriber pushing the received elements in an Inlet of a
+ * BetterFlow, available on JDK 9+.
+ * <p>
+ * The elements are requested in batches: a whole batch when subscribing, then enough to refill it
+ * each time half of it was received, so that the publisher is never more than a batch ahead of
+ * the flow. Once the flow does not need more elements (after a take for example), the
+ * subscription is cancelled and the Inlet completed. An error of the publisher or of an operator
+ * closes the Inlet and fails the result.
+ * <pre>
+ * BetterFlowSubscriber&lt;Message, BetterList&lt;String&gt;&gt; subscriber = new BetterFlowSubscriber&lt;&gt;(
+ *         BetterFlow.&lt;Message&gt;create().select(m -&gt; m.getBody()).take(100).toList());
+ * publisher.subscribe(subscriber);
+ * BetterList&lt;String&gt; bodies = subscriber.result().join();
+ * </pre>
+ *
+ * @param <S> the type of the received elements
+ * @param <R> the type of the result of the flow
+ * @author Klemek
+ * @see BetterFlowProcessor
+ */
+public class BetterFlowSubscriber<S, R> implements Flow.Subscriber<S> {
+
+    static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final BetterFlow.Inlet<S, R> inlet;
+    private final int batchSize;
+    private final CompletableFuture<R> result = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private int pending;
+
+    /**
+     * Constructs a subscriber requesting the elements by batches of 256.
+     *
+     * @param inlet - the opened flow receiving the elements
+     */
+    public BetterFlowSubscriber(BetterFlow.Inlet<S, R> inlet) {
+        this(inlet, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a subscriber requesting the elements by batches.
+     *
+     * @param inlet     - the opened flow receiving the elements
+     * @param batchSize - the maximum number of elements requested ahead of the flow
+     */
+    public BetterFlowSubscriber(BetterFlow.Inlet<S, R> inlet, int batchSize) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        this.inlet = inlet;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the result of the flow, completed when the publisher or the flow completes
+     */
+    public CompletableFuture<R> result() {
+        return result;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null || result.isDone()) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        pending = batchSize;
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(S item) {
+        if (result.isDone())
+            return;
+        boolean more;
+        try {
+            more = inlet.push(item);
+        } catch (RuntimeException | Error e) {
+            subscription.cancel();
+            result.completeExceptionally(e);
+            return;
+        }
+        if (!more) {
+            subscription.cancel();
+            complete();
+        } else if (--pending <= batchSize / 2) {
+            subscription.request(batchSize - pending);
+            pending = batchSize;
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (result.isDone())
+            return;
+        inlet.close();
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (!result.isDone())
+            complete();
+    }
+
+    private void complete() {
+        try {
+            result.complete(inlet.complete());
+        } catch (RuntimeException | Error e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class AdaptiveBetterListTests {
+
+    @Test
+    public void testMigrations() {
+        AdaptiveBetterList<Integer> list = new AdaptiveBetterList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            list.add(0, i);
+            expected.add(0, i);
+        }
+        Assert.assertEquals(AdaptiveBetterList.Representation.CHUNKED, list.getRepresentation());
+        Assert.assertArrayEquals(expected.toArray(), list.toArray());
+
+        Random random = new Random(0);
+        long sum = 0;
+        for (int i = 0; i < 10000; i++)
+            sum += list.get(random.nextInt(list.size()));
+        Assert.assertTrue(sum > 0);
+        Assert.assertEquals(AdaptiveBetterList.Representation.ARRAY, list.getRepresentation());
+        Assert.assertArrayEquals(expected.toArray(), list.toArray());
+
+        AdaptiveBetterList.Stats stats = list.getStats();
+        Assert.assertEquals(2, stats.getMigrations());
+        Assert.assertEquals(9999, stats.getHeadEdits());
+        Assert.assertEquals(1, stats.getTailEdits());
+        Assert.assertEquals(10000, stats.getIndexedReads());
+        Assert.assertEquals(3, stats.getLastCosts().size());
+    }
+
+    @Test
+    public void testForeignReads() throws InterruptedException {
+        AdaptiveBetterList<Integer> list = new AdaptiveBetterList<>();
+        for (int i = 0; i < 100; i++)
+            list.add(i);
+        list.pin(AdaptiveBetterList.Representation.COPY_ON_WRITE);
+        Thread reader = new Thread(() -> Assert.assertEquals(50, list.count(i -> i % 2 == 0)));
+        reader.start();
+        reader.join();
+        for (int i = 0; i < 3 * AdaptiveBetterList.WINDOW; i++)
+            list.set(i % 100, i % 100);
+        Assert.assertEquals(AdaptiveBetterList.Representation.COPY_ON_WRITE, list.getRepresentation());
+        Assert.assertEquals(1, list.getStats().getForeignReads());
+        Assert.assertEquals(Integer.valueOf(99), list.last());
+    }
+
+    @Test
+    public void testPin() {
+        AdaptiveBetterList<Integer> list = new AdaptiveBetterList<>();
+        list.pin(AdaptiveBetterList.Representation.COPY_ON_WRITE);
+        for (int i = 0; i < 5000; i++)
+            list.add(0, i);
+        Assert.assertEquals(AdaptiveBetterList.Representation.COPY_ON_WRITE, list.getRepresentation());
+        list.unpin();
+        for (int i = 0; i < 5000; i++)
+            list.add(list.size() / 2, i);
+        Assert.assertNotEquals(AdaptiveBetterList.Representation.COPY_ON_WRITE, list.getRepresentation());
+        Assert.assertEquals(10000, list.size());
+        Assert.assertEquals(Integer.valueOf(4999), list.where(i -> i > 4998).first());
+    }
+
+    @Test
+    public void testIterationAcrossMigrations() {
+        AdaptiveBetterList<Integer> list = new AdaptiveBetterList<>();
+        for (int i = 0; i < 10000; i++)
+            list.add(0, i);
+        Assert.assertEquals(AdaptiveBetterList.Representation.CHUNKED, list.getRepresentation());
+        Random random = new Random(0);
+        int iterated = 0;
+        for (Integer ignored : list) {
+            list.get(random.nextInt(list.size()));
+            iterated++;
+        }
+        Assert.assertEquals(10000, iterated);
+        Assert.assertEquals(AdaptiveBetterList.Representation.ARRAY, list.getRepresentation());
+
+        Iterator<Integer> iterator = list.iterator();
+        Assert.assertEquals(Integer.valueOf(9999), iterator.next());
+        Assert.assertEquals(Integer.valueOf(9998), iterator.next());
+        list.pin(AdaptiveBetterList.Representation.CHUNKED);
+        iterator.remove();
+        Assert.assertEquals(Integer.valueOf(9997), iterator.next());
+        list.pin(AdaptiveBetterList.Representation.ARRAY);
+        iterator.remove();
+        Assert.assertEquals(Integer.valueOf(9996), iterator.next());
+        Assert.assertEquals(Arrays.asList(9999, 9996, 9995), list.take(3));
+        Assert.assertEquals(9998, list.size());
+    }
+
+    @Test
+    public void testCopyOnWriteIteration() {
+        AdaptiveBetterList<Integer> list = AdaptiveBetterList.fromList(Arrays.asList(1, 2, 3, 4, 5, 6));
+        list.pin(AdaptiveBetterList.Representation.COPY_ON_WRITE);
+        Iterator<Integer> iterator = list.iterator();
+        list.add(7);
+        int sum = 0;
+        while (iterator.hasNext())
+            sum += iterator.next();
+        Assert.assertEquals(21, sum);
+
+        Assert.assertEquals(3, list.removeWhere(i -> i % 2 == 0));
+        Assert.assertEquals(1, list.retainWhere(i -> i > 1));
+        Assert.assertTrue(list.removeAll(Arrays.asList(3)));
+        Assert.assertTrue(list.retainAll(Arrays.asList(5)));
+        Assert.assertEquals(Arrays.asList(5), list);
+        Assert.assertEquals(AdaptiveBetterList.Representation.COPY_ON_WRITE, list.getRepresentation());
+    }
+}
@@ -0,0 +1,83 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+public class BetterArrayDequeTests {
+
+    @Test
+    public void testRandomOperations() {
+        DequeTestSupport.randomOperations(new BetterArrayDeque<>(), 20000);
+    }
+
+    @Test
+    public void testStack() {
+        BetterArrayDeque<String> stack = new BetterArrayDeque<>();
+        stack.push("a");
+        stack.push("b");
+        stack.push("c");
+        Assert.assertEquals("c", stack.peek());
+        Assert.assertEquals(Arrays.asList("c", "b", "a"), stack);
+        Assert.assertEquals("c", stack.first());
+        Assert.assertEquals(Arrays.asList("c", "b"), stack.takeWhile(s -> !s.equals("a")));
+        Assert.assertEquals("c", stack.pop());
+        Assert.assertEquals("b", stack.pop());
+        Assert.assertEquals("a", stack.pop());
+        Assert.assertNull(stack.peek());
+        try {
+            stack.pop();
+            Assert.fail("no error");
+        } catch (NoSuchElementException e) {
+        }
+    }
+
+    @Test
+    public void testQueue() {
+        BetterArrayDeque<Integer> queue = new BetterArrayDeque<>(4);
+        for (int i = 0; i < 100; i++) {
+            queue.offer(i);
+            if (i % 2 == 1)
+                Assert.assertEquals(Integer.valueOf(i / 2), queue.poll());
+        }
+        Assert.assertEquals(50, queue.size());
+        Assert.assertEquals(Integer.valueOf(50), queue.element());
+        Assert.assertEquals(Integer.valueOf(99), queue.peekLast());
+        Assert.assertEquals(99 * 100 / 2 - 49 * 50 / 2, queue.sum(Integer::doubleValue), 0);
+
+        BetterDeque<Integer> reversed = queue.reversed();
+        Assert.assertEquals(Integer.valueOf(99), reversed.getFirst());
+        Assert.assertEquals(Integer.valueOf(50), reversed.getLast());
+        Assert.assertEquals(queue.reverse(), reversed);
+        Assert.assertSame(queue, reversed.reversed());
+
+        reversed.addFirst(100);
+        Assert.assertEquals(Integer.valueOf(100), queue.peekLast());
+        Assert.assertEquals(Integer.valueOf(50), reversed.pollLast());
+        Assert.assertEquals(Integer.valueOf(51), queue.peekFirst());
+        reversed.set(1, -1);
+        Assert.assertEquals(Integer.valueOf(-1), queue.get(queue.size() - 2));
+        reversed.add(1, -2);
+        Assert.assertEquals(Arrays.asList(100, -2, -1, 98), reversed.take(4));
+        Assert.assertEquals(queue.reverse(), reversed);
+        Assert.assertEquals(queue.reverse(), new ArrayList<>(reversed));
+        reversed.removeIf(i -> i < 0);
+        Assert.assertEquals(49, queue.size());
+        Assert.assertEquals(queue.reverse(), reversed);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        BetterArrayDeque<Integer> bad = BetterArrayDeque.asList(1, 2, 3, 4, 5, 6);
+        bad.removeIf(i -> i % 2 == 0);
+        Assert.assertEquals(Arrays.asList(1, 3, 5), bad);
+        Assert.assertTrue(bad.removeLastOccurrence(5));
+        Assert.assertEquals(Arrays.asList(1, 3), bad);
+        bad.clear();
+        Assert.assertTrue(bad.isEmpty());
+        Assert.assertNull(bad.peekFirst());
+    }
+}
@@ -0,0 +1,64 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class BetterChunkedListTests {
+
+    @Test
+    public void testRandomOperations() {
+        DequeTestSupport.randomOperations(new BetterChunkedList<>(8), 20000);
+    }
+
+    @Test
+    public void testDeque() {
+        BetterChunkedList<String> bcl = new BetterChunkedList<>();
+        bcl.push("b");
+        bcl.push("a");
+        bcl.offer("c");
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), bcl);
+        Assert.assertEquals("a", bcl.peek());
+        Assert.assertEquals("c", bcl.peekLast());
+        Assert.assertEquals("a", bcl.pop());
+        Assert.assertEquals("c", bcl.removeLast());
+        Assert.assertEquals("b", bcl.element());
+        Assert.assertEquals("b", bcl.poll());
+        Assert.assertNull(bcl.poll());
+        Assert.assertNull(bcl.peekFirst());
+        try {
+            bcl.removeFirst();
+            Assert.fail("no error");
+        } catch (NoSuchElementException e) {
+        }
+
+        BetterChunkedList<Integer> bcl2 = BetterChunkedList.asList(1, 2, 3, 2, 1);
+        Assert.assertTrue(bcl2.removeLastOccurrence(2));
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 1), bcl2);
+        Iterator<Integer> descending = bcl2.descendingIterator();
+        Assert.assertEquals(Integer.valueOf(1), descending.next());
+        Assert.assertEquals(Integer.valueOf(3), descending.next());
+        Assert.assertEquals(Arrays.asList(1, 3, 2, 1), bcl2.reversed());
+        bcl2.reversed().push(0);
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 1, 0), bcl2);
+        Assert.assertEquals(Arrays.asList(0, 1, 3, 2, 1), bcl2.reversed().where(i -> true));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        BetterChunkedList<Integer> bcl = new BetterChunkedList<>(4);
+        for (int i = 0; i < 100; i++)
+            bcl.add(i);
+        bcl.removeIf(i -> i % 3 != 0);
+        Assert.assertEquals(34, bcl.size());
+        for (int i = 0; i < 34; i++)
+            Assert.assertEquals(i * 3, (int) bcl.get(i));
+
+        BetterList<Integer> bal = bcl.where(i -> i % 2 == 0).select(i -> i / 6);
+        Assert.assertEquals(17, bal.size());
+        Assert.assertEquals(16, (int) bal.last());
+    }
+}
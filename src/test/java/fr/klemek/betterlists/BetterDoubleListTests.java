@@ -0,0 +1,57 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class BetterDoubleListTests {
+
+    @Test
+    public void testList() {
+        BetterDoubleList bdl = BetterDoubleList.asList(1d, 2d, 3d);
+        bdl.add(4d);
+        bdl.add(0, 0d);
+        bdl.addDouble(5);
+        Assert.assertEquals(Arrays.asList(0d, 1d, 2d, 3d, 4d, 5d), bdl);
+        Assert.assertEquals(Double.valueOf(2d), bdl.remove(2));
+        bdl.set(0, -1d);
+        Assert.assertArrayEquals(new double[]{-1, 1, 3, 4, 5}, bdl.toDoubleArray(), 0);
+        Assert.assertEquals(Arrays.asList(4d, 5d), bdl.where(d -> d > 3));
+        bdl.trimToSize();
+        bdl.addDouble(6);
+        Assert.assertArrayEquals(new double[]{-1, 1, 3, 4, 5, 6}, bdl.toDoubleArray(), 0);
+        try {
+            bdl.add(null);
+            Assert.fail("no error");
+        } catch (NullPointerException e) {
+        }
+        bdl.clear();
+        Assert.assertTrue(bdl.isEmpty());
+    }
+
+    @Test
+    public void testAggregates() {
+        Random random = new Random(0);
+        for (int size : new int[]{0, 1, 7, 31, 32, 33, 1000, 1027}) {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++)
+                values[i] = random.nextDouble() * 200 - 100;
+            BetterDoubleList bdl = BetterDoubleList.asList(values);
+            BetterArrayList<Double> bal = BetterArrayList.fromList(bdl);
+
+            Assert.assertEquals(size == 0 ? 0d : bal.sum(d -> d), bdl.sum(), 1e-9);
+            Assert.assertEquals(bal.min(d -> d), bdl.min());
+            Assert.assertEquals(bal.max(d -> d), bdl.max());
+            if (size > 0)
+                Assert.assertEquals(bal.mean(d -> d), bdl.mean(), 1e-9);
+            else
+                Assert.assertNull(bdl.mean());
+            Assert.assertEquals(bal.count(d -> d > 10), bdl.countGreaterThan(10));
+            Assert.assertEquals(bal.count(d -> d < 10), bdl.countLessThan(10));
+            Assert.assertEquals(bal.count(d -> d >= -50 && d < 50), bdl.countBetween(-50, 50));
+        }
+        Assert.assertTrue(BetterDoubleList.asList(1, Double.NaN, 3).max().isNaN());
+    }
+}
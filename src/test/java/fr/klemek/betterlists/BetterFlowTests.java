@@ -0,0 +1,201 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BetterFlowTests {
+
+    @Test
+    public void testWhereSelectTake() {
+        BetterFlow.Inlet<Integer, BetterList<String>> inlet = BetterFlow.<Integer>create()
+                .where(i -> i % 2 == 0)
+                .select(i -> "n" + i)
+                .take(3)
+                .toList();
+
+        Assert.assertTrue(inlet.push(1));
+        Assert.assertTrue(inlet.push(2));
+        Assert.assertEquals(1, inlet.result().size());
+
+        Iterator<Integer> source = Arrays.asList(3, 4, 5, 6, 7, 8).iterator();
+        Assert.assertFalse(inlet.drain(source));
+        Assert.assertTrue(inlet.isDone());
+        Assert.assertEquals(Integer.valueOf(7), source.next());
+        Assert.assertFalse(inlet.push(8));
+
+        Assert.assertEquals(Arrays.asList("n2", "n4", "n6"), inlet.complete());
+    }
+
+    @Test
+    public void testSkipTakeWhileSelectMany() {
+        BetterList<Integer> out = BetterFlow.<Integer>create()
+                .skip(1)
+                .takeWhile(i -> i < 4)
+                .selectMany(i -> Arrays.asList(i, i))
+                .into(new BetterLinkedList<>())
+                .result();
+        Assert.assertEquals(0, out.size());
+
+        BetterFlow.Inlet<Integer, BetterLinkedList<Integer>> inlet = BetterFlow.<Integer>create()
+                .skip(1)
+                .takeWhile(i -> i < 4)
+                .selectMany(i -> Arrays.asList(i, i))
+                .into(new BetterLinkedList<>());
+        Assert.assertFalse(inlet.pushAll(Arrays.asList(1, 2, 3, 4, 5)));
+        Assert.assertEquals(Arrays.asList(2, 2, 3, 3), inlet.complete());
+    }
+
+    @Test
+    public void testGroupBy() {
+        BetterFlow.Inlet<String, Map<Integer, BetterList<String>>> inlet = BetterFlow.<String>create()
+                .groupBy(String::length);
+        inlet.pushAll(Arrays.asList("a", "bb", "c", "dd", "eee"));
+        Map<Integer, BetterList<String>> groups = inlet.complete();
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3), new BetterArrayList<>(groups.keySet()));
+        Assert.assertEquals(Arrays.asList("a", "c"), groups.get(1));
+        Assert.assertEquals(Arrays.asList("bb", "dd"), groups.get(2));
+    }
+
+    @Test
+    public void testForEach() {
+        BetterFlow.Inlet<Integer, BetterList<Integer>> sink = BetterFlow.<Integer>create().take(2).toList();
+        BetterFlow.Inlet<Integer, Void> inlet = BetterFlow.<Integer>create()
+                .select(i -> i * 10)
+                .forEach(sink::push);
+        inlet.pushAll(Arrays.asList(1, 2, 3));
+        inlet.complete();
+
+        Assert.assertEquals(Arrays.asList(10, 20), sink.complete());
+    }
+
+    @Test
+    public void testAsync() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        BetterFlow.Inlet<Integer, BetterList<String>> inlet = BetterFlow.<Integer>create()
+                .select(i -> i * 2)
+                .async(16, 4)
+                .where(i -> {
+                    threads.add(Thread.currentThread().getName());
+                    return i % 3 != 0;
+                })
+                .async()
+                .select(i -> "n" + i)
+                .toList();
+        for (int i = 0; i < 100000; i++)
+            Assert.assertTrue(inlet.push(i));
+        BetterList<String> out = inlet.complete();
+
+        Assert.assertEquals(66666, out.size());
+        Assert.assertEquals("n2", out.get(0));
+        Assert.assertEquals("n4", out.get(1));
+        Assert.assertEquals("n199996", out.last());
+        Assert.assertEquals(1, threads.size());
+        Assert.assertFalse(threads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void testAsyncTake() {
+        BetterFlow.Inlet<Integer, BetterList<Integer>> inlet = BetterFlow.<Integer>create()
+                .async(4, 2)
+                .take(10)
+                .toList();
+        int pushed = 0;
+        while (inlet.push(pushed))
+            pushed++;
+        Assert.assertTrue(pushed >= 10);
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), inlet.complete());
+    }
+
+    @Test
+    public void testAsyncFailure() {
+        BetterFlow.Inlet<Integer, BetterList<Integer>> inlet = BetterFlow.<Integer>create()
+                .async()
+                .select(i -> 10 / i)
+                .async()
+                .toList();
+        inlet.pushAll(Arrays.asList(1, 2, 0, 4));
+        try {
+            inlet.complete();
+            Assert.fail("no error");
+        } catch (ArithmeticException e) {
+        }
+    }
+
+    @Test
+    public void testAsyncClose() {
+        long before = flowThreads();
+        BetterFlow.Inlet<Integer, BetterList<Integer>> inlet = BetterFlow.<Integer>create()
+                .async(4, 2)
+                .where(i -> i % 2 == 0)
+                .async(4, 2)
+                .toList();
+        Assert.assertEquals(before, flowThreads());
+        for (int i = 0; i < 100; i++)
+            inlet.push(i);
+        Assert.assertEquals(before + 2, flowThreads());
+        inlet.close();
+        Assert.assertEquals(before, flowThreads());
+        Assert.assertTrue(inlet.isDone());
+        Assert.assertFalse(inlet.push(100));
+
+        try (BetterFlow.Inlet<Integer, BetterList<Integer>> unused = BetterFlow.<Integer>create().async().toList()) {
+            Assert.assertEquals(before, flowThreads());
+            Assert.assertTrue(unused.complete().isEmpty());
+        }
+    }
+
+    @Test
+    public void testAsyncSourceFailure() {
+        long before = flowThreads();
+        BetterFlow.Inlet<Integer, BetterList<Integer>> inlet = BetterFlow.<Integer>create()
+                .async(4, 2)
+                .toList();
+        Iterator<Integer> source = new Iterator<Integer>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                if (next == 50)
+                    throw new IllegalStateException();
+                return next++;
+            }
+        };
+        try {
+            inlet.drain(source);
+            Assert.fail("no error");
+        } catch (IllegalStateException e) {
+        }
+        Assert.assertTrue(inlet.isDone());
+        Assert.assertEquals(before, flowThreads());
+
+        inlet = BetterFlow.<Integer>create()
+                .select(i -> 10 / i)
+                .async(4, 2)
+                .toList();
+        try {
+            inlet.pushAll(Arrays.asList(1, 2, 3, 4, 5, 0, 6));
+            Assert.fail("no error");
+        } catch (ArithmeticException e) {
+        }
+        Assert.assertTrue(inlet.isDone());
+        Assert.assertEquals(before, flowThreads());
+    }
+
+    private static long flowThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.isAlive() && t.getName().startsWith("betterlists-flow-"))
+                .count();
+    }
+}
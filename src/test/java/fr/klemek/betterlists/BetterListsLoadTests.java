@@ -0,0 +1,89 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class BetterListsLoadTests {
+
+    private static Path write(String content) throws IOException {
+        Path file = Files.createTempFile("betterlists-load", ".txt");
+        file.toFile().deleteOnExit();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static Path writeCsv(int lines) throws IOException {
+        Path file = Files.createTempFile("betterlists-load", ".csv");
+        file.toFile().deleteOnExit();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines; i++)
+                writer.write(i + ";name" + i + ";" + (i * 0.5) + "\n");
+        }
+        return file;
+    }
+
+    @Test
+    public void testLoadSmall() throws IOException {
+        Path file = write("a\r\nhé\n\nlast");
+        Assert.assertEquals(Arrays.asList("a", "hé", "", "last"), BetterLists.load(file, s -> s));
+        Assert.assertEquals(Arrays.asList(1, 2, 4), BetterLists.load(file, String::length, l -> l > 0));
+        Assert.assertTrue(BetterLists.load(write(""), s -> s).isEmpty());
+        Assert.assertEquals(Arrays.asList("x"), BetterLists.load(write("x\n"), s -> s));
+    }
+
+    @Test
+    public void testLoadParallel() throws IOException {
+        Path file = writeCsv(200000);
+        Assert.assertTrue(Files.size(file) > ParallelLineReader.PARALLEL_THRESHOLD);
+
+        BetterArrayList<String[]> rows = BetterLists.load(file, line -> line.split(";"));
+        Assert.assertEquals(200000, rows.size());
+        for (int i = 0; i < rows.size(); i++)
+            Assert.assertEquals(Integer.toString(i), rows.get(i)[0]);
+
+        BetterArrayList<String> names = BetterLists.load(file, line -> line.split(";"),
+                row -> Integer.parseInt(row[0]) % 1000 == 0, row -> row[1]);
+        Assert.assertEquals(200, names.size());
+        Assert.assertEquals("name199000", names.last());
+
+        BetterDoubleList values = BetterLists.loadDoubles(file, ';', 2);
+        Assert.assertEquals(200000, values.size());
+        Assert.assertEquals(99999.5, values.getDouble(199999), 0d);
+        Assert.assertEquals(199999d * 200000d / 4d, values.sum(), 0d);
+
+        BetterDoubleList ids = BetterLists.loadDoubles(file, line -> Double.parseDouble(line.substring(0,
+                line.indexOf(';'))));
+        Assert.assertEquals(12345d, ids.getDouble(12345), 0d);
+    }
+
+    @Test
+    public void testLoadLongLines() throws IOException {
+        char[] chars = new char[3 << 20];
+        Arrays.fill(chars, 'x');
+        String longLine = new String(chars);
+        Path file = write("start\n" + longLine + "\n" + longLine + "\nend\n");
+        BetterArrayList<Integer> lengths = BetterLists.load(file, String::length);
+        Assert.assertEquals(Arrays.asList(5, 3 << 20, 3 << 20, 3), lengths);
+    }
+
+    @Test
+    public void testLoadErrors() throws IOException {
+        try {
+            BetterLists.loadDoubles(write("1;2\n3\n"), ';', 1);
+            Assert.fail("no error");
+        } catch (NumberFormatException e) {
+        }
+        try {
+            BetterLists.load(write("a").resolveSibling("missing-betterlists-file"), s -> s);
+            Assert.fail("no error");
+        } catch (IOException e) {
+        }
+    }
+}
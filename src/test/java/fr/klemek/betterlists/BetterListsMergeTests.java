@@ -0,0 +1,61 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+public class BetterListsMergeTests {
+
+    @Test
+    public void testMergeSorted() {
+        Random random = new Random(0);
+        List<Integer>[] shards = newListArray(13);
+        List<Integer> all = new ArrayList<>();
+        for (int s = 0; s < shards.length; s++) {
+            shards[s] = new BetterArrayList<>();
+            int count = s == 3 ? 0 : random.nextInt(500);
+            for (int i = 0; i < count; i++)
+                shards[s].add(random.nextInt(1000));
+            Collections.sort(shards[s]);
+            all.addAll(shards[s]);
+        }
+        Collections.sort(all);
+
+        BetterArrayList<Integer> merged = BetterLists.mergeSorted(Comparator.naturalOrder(), shards);
+        Assert.assertEquals(all, merged);
+        Assert.assertEquals(new ArrayList<>(new TreeSet<>(all)),
+                BetterLists.mergeSorted(Comparator.naturalOrder(), true, shards));
+        Assert.assertTrue(BetterLists.mergeSorted(Comparator.<Integer>naturalOrder()).isEmpty());
+
+        Iterator<Integer> lazy = BetterLists.mergeSortedIterator(Comparator.reverseOrder(), false,
+                Arrays.asList(9, 5, 1), Arrays.asList(8, 5, 2));
+        List<Integer> out = new ArrayList<>();
+        lazy.forEachRemaining(out::add);
+        Assert.assertEquals(Arrays.asList(9, 8, 5, 5, 2, 1), out);
+    }
+
+    @Test
+    public void testMergeSortedBy() {
+        List<String> shard1 = Arrays.asList("a1", "b1", "d1");
+        List<String> shard2 = Arrays.asList("b2", "c2", "d2");
+        List<String> shard3 = Arrays.asList("b3");
+
+        Assert.assertEquals(Arrays.asList("a1", "b1", "b2", "b3", "c2", "d1", "d2"),
+                BetterLists.mergeSortedBy(s -> s.charAt(0), shard1, shard2, shard3));
+        Assert.assertEquals(Arrays.asList("a1", "b1", "c2", "d1"),
+                BetterLists.mergeSortedBy(s -> s.charAt(0), true, shard1, shard2, shard3));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T>[] newListArray(int length) {
+        return (List<T>[]) new List<?>[length];
+    }
+}
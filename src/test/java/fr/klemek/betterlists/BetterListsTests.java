@@ -1,15 +1,34 @@
 package fr.klemek.betterlists;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 public class BetterListsTests {
 
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     protected class Dummy {
         final double d;
         final String s;
@@ -54,6 +73,49 @@ public class BetterListsTests {
         }
     }
 
+    @Test
+    public void testAggregate() {
+        BetterArrayList<Dummy> bal = BetterArrayList.asList(new Dummy(1d, "hello"), new Dummy(2d, "test"),
+                new Dummy(3d, "world"));
+
+        Assert.assertEquals("hello test world", bal.aggregate("", (acc, du) -> acc.isEmpty() ? du.s : acc + " " + du.s));
+        Assert.assertEquals(6d, bal.aggregate(0d, (acc, du) -> acc + du.d), 0);
+
+        BetterArrayList<Integer> numbers = new BetterArrayList<>();
+        for (int i = 0; i < 100000; i++)
+            numbers.add(i);
+        long sum = numbers.aggregate(() -> 0L, (acc, i) -> acc + i, Long::sum, acc -> acc);
+        Assert.assertEquals(99999L * 100000L / 2, sum);
+
+        String digits = numbers.aggregate(StringBuilder::new, (sb, i) -> sb.append(i % 10), StringBuilder::append,
+                StringBuilder::toString);
+        Assert.assertEquals(100000, digits.length());
+        for (int i = 0; i < digits.length(); i += 997)
+            Assert.assertEquals((char) ('0' + i % 10), digits.charAt(i));
+
+        BetterLinkedList<Integer> bll = BetterLinkedList.asList(1, 2, 3);
+        Assert.assertEquals(Integer.valueOf(3), bll.aggregate(() -> new ArrayList<Integer>(), (l, i) -> {
+            l.add(i);
+            return l;
+        }, (l1, l2) -> {
+            l1.addAll(l2);
+            return l1;
+        }, List::size));
+    }
+
+    @Test
+    public void testAddRange() {
+        BetterArrayList<Integer> bal = BetterArrayList.asList(1, 2);
+        Assert.assertEquals(3, bal.addRange(Arrays.asList(3, 4, 5)));
+        Assert.assertEquals(2, bal.insertRange(1, Arrays.asList(7, 8)));
+        Assert.assertEquals(Arrays.asList(1, 7, 8, 2, 3, 4, 5), bal);
+
+        BetterDoubleList bdl = BetterDoubleList.asList(1, 2);
+        Assert.assertEquals(2, bdl.insertRange(1, Arrays.asList(7d, 8d)));
+        Assert.assertEquals(1, bdl.addRange(Arrays.asList(9d)));
+        Assert.assertEquals(Arrays.asList(1d, 7d, 8d, 2d, 9d), bdl);
+    }
+
     @Test
     public void testAll() {
         ArrayList<Dummy> al = new ArrayList<>();
@@ -78,6 +140,154 @@ public class BetterListsTests {
         Assert.assertFalse(bal.any(du -> du.s.startsWith("b")));
     }
 
+    @Test
+    public void testApproxCountDistinct() {
+        BetterArrayList<Integer> bal = new BetterArrayList<>();
+        for (int i = 0; i < 100000; i++)
+            bal.add(i % 20000);
+
+        long estimate = bal.approxCountDistinct(i -> i, 14);
+        Assert.assertEquals(20000d, estimate, 20000 * 0.05);
+        Assert.assertEquals(10d, bal.approxCountDistinct(i -> i % 10, 12), 1d);
+
+        HyperLogLog sketch1 = new HyperLogLog(12);
+        HyperLogLog sketch2 = new HyperLogLog(12);
+        for (int i = 0; i < 5000; i++) {
+            sketch1.add(i);
+            sketch2.add(i + 2500);
+        }
+        sketch1.merge(sketch2);
+        Assert.assertEquals(7500d, sketch1.estimate(), 7500 * 0.1);
+        Assert.assertEquals(14, HyperLogLog.precisionFor(0.01));
+
+        try {
+            bal.approxCountDistinct(i -> i, 2);
+            Assert.fail("no error");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testBatch() {
+        BetterCopyOnWriteArrayList<Integer> list = BetterCopyOnWriteArrayList.asList(1, 2, 3, 4);
+        list.batch(l -> {
+            for (int i = 5; i <= 1000; i++)
+                l.add(i);
+        });
+        Assert.assertEquals(1000, list.size());
+        list.batch(l -> l.removeWhere(i -> i % 2 == 0));
+        Assert.assertEquals(500, list.size());
+        Assert.assertTrue(list.all(i -> i % 2 == 1));
+        list.batch(l -> {
+            l.set(0, 0);
+            l.remove(l.size() - 1);
+            l.remove(l.size() - 1);
+        });
+        Assert.assertEquals(498, list.size());
+        Assert.assertEquals(Arrays.asList(0, 3, 5), list.take(3));
+        Assert.assertEquals(Integer.valueOf(995), list.last());
+
+        try {
+            list.batch(l -> {
+                l.add(-1);
+                list.add(-2);
+            });
+            Assert.fail();
+        } catch (ConcurrentModificationException e) {
+            Assert.assertEquals(Integer.valueOf(-2), list.last());
+            Assert.assertFalse(list.contains(-1));
+        }
+
+        list.batch(l -> l.removeWhere(i -> i % 3 == 0));
+        Assert.assertEquals(Arrays.asList(5, 7, 11), list.take(3));
+        Assert.assertEquals(Integer.valueOf(-2), list.last());
+        int size = list.size();
+        try {
+            list.batch(l -> {
+                l.set(0, 1);
+                l.add(-1);
+                list.add(-3);
+            });
+            Assert.fail("no error");
+        } catch (ConcurrentModificationException e) {
+            Assert.assertEquals(size + 1, list.size());
+            Assert.assertEquals(Integer.valueOf(5), list.first());
+        }
+        try {
+            list.batch(l -> {
+                l.remove(0);
+                list.remove(list.size() - 1);
+            });
+            Assert.fail("no error");
+        } catch (ConcurrentModificationException e) {
+            Assert.assertEquals(size, list.size());
+            Assert.assertEquals(Integer.valueOf(5), list.first());
+        }
+    }
+
+    @Test
+    public void testBatchConcurrentWriter() throws InterruptedException {
+        BetterCopyOnWriteArrayList<Integer> list = new BetterCopyOnWriteArrayList<>();
+        for (int i = 1; i <= 100; i++)
+            list.add(i);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger tornReads = new AtomicInteger();
+        Thread writer = new Thread(() -> {
+            for (int i = 1000; running.get(); i++) {
+                list.add(i);
+                list.remove(Integer.valueOf(i));
+            }
+        });
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                Object[] snapshot = list.toArray();
+                long negative = Arrays.stream(snapshot).filter(e -> (Integer) e < 0).count();
+                if (negative != 0 && negative != 100)
+                    tornReads.incrementAndGet();
+            }
+        });
+        writer.start();
+        reader.start();
+        int applied = 0;
+        try {
+            for (int n = 0; n < 2000; n++) {
+                try {
+                    list.batch(l -> l.replaceAll(i -> Math.abs(i) <= 100 ? -i : i));
+                    applied++;
+                } catch (ConcurrentModificationException e) {
+                    // the writer modified the list, nothing was published
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+            reader.join();
+        }
+
+        Assert.assertEquals(0, tornReads.get());
+        Assert.assertEquals(100, list.size());
+        Assert.assertEquals(applied % 2 == 0 ? 100 : -100, list.get(99).intValue());
+        Assert.assertTrue(list.all(i -> Integer.signum(i) == Integer.signum(list.get(0))));
+    }
+
+    @Test
+    public void testBloomExclusion() {
+        BetterArrayList<Integer> bal1 = new BetterArrayList<>();
+        for (int i = 0; i < 10000; i++)
+            bal1.add(i);
+        BetterArrayList<Integer> bal2 = new BetterArrayList<>();
+        for (int i = 0; i < 10000; i += 2)
+            bal2.add(i);
+
+        BetterList<Integer> bal3 = bal1.bloomExclusion(bal2, 0.01);
+        Assert.assertTrue(bal3.all(i -> i % 2 == 1));
+        Assert.assertEquals(5000d, bal3.size(), 5000 * 0.03);
+
+        BloomFilter<Integer> filter = bal2.toBloomFilter(0.01);
+        Assert.assertTrue(bal2.all(filter::mightContain));
+        Assert.assertEquals(0d, bal1.count(i -> i % 2 == 1 && filter.mightContain(i)), 5000 * 0.03);
+    }
+
     @Test
     public void testCount() {
         BetterArrayList<Dummy> bal = new BetterArrayList<>();
@@ -89,6 +299,13 @@ public class BetterListsTests {
         Assert.assertEquals(2, bal.count(du -> du.s.length() > 4));
     }
 
+    @Test
+    public void testDistinct() {
+        BetterArrayList<Integer> bal = BetterArrayList.asList(3, 1, 3, 2, 1);
+        Assert.assertEquals(Arrays.asList(3, 1, 2), bal.distinct());
+        Assert.assertTrue(new BetterArrayList<Integer>().distinct().isEmpty());
+    }
+
     @Test
     public void testExclude() {
         BetterArrayList<Dummy> bal1 = new BetterArrayList<>();
@@ -108,6 +325,32 @@ public class BetterListsTests {
         Assert.assertEquals(bal1.get(3), bal3.get(1));
     }
 
+    @Test
+    public void testExcludeLarge() {
+        BetterArrayList<Integer> bal1 = new BetterArrayList<>();
+        BetterArrayList<Integer> bal2 = new BetterArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            bal1.add(i);
+            if (i % 3 != 0)
+                bal2.add(i);
+        }
+        BetterList<Integer> excluded = bal1.exclusion(bal2);
+        Assert.assertEquals(3334, excluded.size());
+        Assert.assertTrue(excluded.all(i -> i % 3 == 0));
+        Assert.assertEquals(6666, bal1.union(bal2).size());
+        Assert.assertEquals(Arrays.asList(0, 3), bal1.take(4).exclusion(new HashSet<>(bal2)));
+    }
+
+    @Test
+    public void testExcludeListSignature() throws NoSuchMethodException {
+        Assert.assertEquals(BetterList.class, BetterList.class.getMethod("exclusion", List.class).getReturnType());
+        Assert.assertEquals(BetterList.class, BetterList.class.getMethod("union", List.class).getReturnType());
+        Assert.assertEquals(Arrays.asList(0, 3), BetterArrayList.fromList(Arrays.asList(0, 1, 2, 3))
+                .exclusion(Arrays.asList(1, 2)));
+        Assert.assertEquals(Arrays.asList(1), BetterArrayList.fromList(Arrays.asList(0, 1))
+                .union(Arrays.asList(1, 2)));
+    }
+
     @Test
     public void testFirst() {
         BetterArrayList<Dummy> bal = new BetterArrayList<>();
@@ -128,6 +371,59 @@ public class BetterListsTests {
         Assert.assertEquals(new Dummy(3d, "default"), bal.firstOrDefault(du -> du.s.startsWith("d"), new Dummy(3d, "default")));
     }
 
+    @Test
+    public void testGroupBy() {
+        BetterArrayList<String> bal = BetterArrayList.asList("hello", "test", "world", "abc", "tree");
+        Map<Integer, BetterList<String>> groups = bal.groupBy(String::length);
+        Assert.assertEquals(Arrays.asList(5, 4, 3), new ArrayList<>(groups.keySet()));
+        Assert.assertEquals(Arrays.asList("hello", "world"), groups.get(5));
+        Assert.assertEquals(Arrays.asList("test", "tree"), groups.get(4));
+        Assert.assertEquals(Arrays.asList("abc"), groups.get(3));
+    }
+
+    @Test
+    public void testIndexedLoops() {
+        List<Integer> values = Arrays.asList(3, 1, 4, 1, 5, 9, 2, 6);
+        BetterStack<Integer> bs = new BetterStack<>();
+        bs.addAll(values);
+        List<BetterList<Integer>> lists = Arrays.asList(BetterArrayList.fromList(values),
+                BetterVector.fromList(values), bs, BetterCopyOnWriteArrayList.fromList(values));
+        for (BetterList<Integer> list : lists) {
+            Assert.assertTrue(list.all(i -> i > 0));
+            Assert.assertFalse(list.any(i -> i > 9));
+            Assert.assertEquals(2, list.count(i -> i == 1));
+            Assert.assertEquals(9d, list.max(i -> (double) i), 0);
+            Assert.assertEquals(1d, list.min(i -> (double) i), 0);
+            Assert.assertEquals(31d, list.sum(i -> (double) i), 0);
+            Assert.assertEquals(Arrays.asList(6, 2, 8, 2, 10, 18, 4, 12), list.select(i -> i * 2));
+            Assert.assertEquals(Arrays.asList(4, 2, 6), list.where(i -> i % 2 == 0));
+            Assert.assertNull(list.where(i -> false).max(i -> (double) i));
+        }
+        for (BetterList<Integer> list : lists.subList(0, 3)) {
+            try {
+                list.count(i -> list.add(i));
+                Assert.fail("no error");
+            } catch (ConcurrentModificationException e) {
+            }
+        }
+        BetterStack<Integer> bs2 = new BetterStack<>();
+        bs2.addAll(values);
+        for (BetterList<Integer> list : Arrays.asList(BetterArrayList.fromList(values), BetterVector.fromList(values),
+                bs2)) {
+            try {
+                list.where(i -> {
+                    list.clear();
+                    return i > 0;
+                });
+                Assert.fail("no error");
+            } catch (ConcurrentModificationException e) {
+            }
+        }
+        BetterCopyOnWriteArrayList<Integer> cow = BetterCopyOnWriteArrayList.fromList(values);
+        Assert.assertEquals(8, cow.count(i -> cow.add(i)));
+        Assert.assertEquals(16, cow.size());
+    }
+
     @Test
     public void testLast() {
         BetterArrayList<Dummy> bal = new BetterArrayList<>();
@@ -158,6 +454,52 @@ public class BetterListsTests {
         Assert.assertEquals(6d, bal.max(du -> (double) du.s.length()), 0.001d);
     }
 
+    @Test
+    public void testMaxBy() {
+        BetterArrayList<Dummy> bal = BetterArrayList.asList(new Dummy(1d, "hello"), new Dummy(3d, "test"),
+                new Dummy(3d, "world"), new Dummy(0d, "zzz"));
+
+        Assert.assertEquals("test", bal.maxBy(du -> du.d).s);
+        Assert.assertEquals("zzz", bal.maxBy(du -> du.s).s);
+        Assert.assertNull(new BetterArrayList<Dummy>().maxBy(du -> du.d));
+    }
+
+    @Test
+    public void testMetrics() {
+        BetterListStatistics statistics = new BetterListStatistics();
+        BetterArrayList<Dummy> bal = new BetterArrayList<Dummy>() {
+            @Override
+            public BetterListMetrics metrics() {
+                return statistics;
+            }
+        };
+        bal.add(new Dummy(1d, "hello"));
+        bal.add(new Dummy(2d, "test"));
+        bal.add(new Dummy(3d, "hello"));
+
+        bal.where(du -> du.s.startsWith("h"));
+        bal.where(du -> du.s.startsWith("t"));
+        bal.any(du -> du.d > 1);
+
+        BetterListStatistics.OperatorStatistics where = statistics.get("where");
+        Assert.assertEquals(2, where.getInvocations());
+        Assert.assertEquals(6, where.getScanned());
+        Assert.assertEquals(3, where.getEmitted());
+        Assert.assertEquals(2, where.getAllocations());
+        long histogramTotal = 0;
+        for (long bucket : where.getLatencyHistogram())
+            histogramTotal += bucket;
+        Assert.assertEquals(2, histogramTotal);
+
+        BetterListStatistics.OperatorStatistics any = statistics.get("any");
+        Assert.assertEquals(2, any.getScanned());
+        Assert.assertEquals(0, any.getAllocations());
+        Assert.assertNull(statistics.get("orderBy"));
+
+        Assert.assertNull(BetterListInstrumentation.getGlobalMetrics());
+        Assert.assertNull(new BetterArrayList<Dummy>().metrics());
+    }
+
     @Test
     public void testMean() {
         BetterArrayList<Dummy> bal = new BetterArrayList<>();
@@ -178,6 +520,16 @@ public class BetterListsTests {
         Assert.assertEquals(4d, bal.min(du -> (double) du.s.length()), 0.001d);
     }
 
+    @Test
+    public void testMinBy() {
+        BetterArrayList<Dummy> bal = BetterArrayList.asList(new Dummy(1d, "hello"), new Dummy(0d, "test"),
+                new Dummy(0d, "world"), new Dummy(3d, "abc"));
+
+        Assert.assertEquals("test", bal.minBy(du -> du.d).s);
+        Assert.assertEquals("abc", bal.minBy(du -> du.s).s);
+        Assert.assertNull(new BetterArrayList<Dummy>().minBy(du -> du.d));
+    }
+
     @Test
     public void testOrderBy() {
         BetterArrayList<Dummy> bal1 = new BetterArrayList<>();
@@ -211,6 +563,165 @@ public class BetterListsTests {
             Assert.assertEquals(bal1.get(4 - i), bal2.get(i));
     }
 
+    @Test
+    public void testOrderByExternal() throws IOException {
+        BetterArrayList<String> bal1 = new BetterArrayList<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++)
+            bal1.add(Integer.toString(random.nextInt(100000), 36) + "#" + i);
+        BetterList<String> expected = bal1.orderBy(s -> s.substring(0, s.indexOf('#')));
+
+        Path tmp = tempFolder.getRoot().toPath();
+        BetterList<String> bal2 = new BetterArrayList<>();
+        try (CloseableIterator<String> sorted = bal1.orderBy(s -> s.substring(0, s.indexOf('#')), 64,
+                BetterListCodec.strings(), tmp)) {
+            Assert.assertTrue(countSortFiles(tmp) >= 16);
+            sorted.forEachRemaining(bal2::add);
+        }
+        Assert.assertEquals(expected, bal2);
+        Assert.assertEquals(0, countSortFiles(tmp));
+
+        BetterList<String> bal3 = new BetterArrayList<>();
+        try (CloseableIterator<String> sorted = bal1.orderBy(s -> s.substring(0, s.indexOf('#')), 64,
+                BetterListCodec.strings())) {
+            sorted.forEachRemaining(bal3::add);
+        }
+        Assert.assertEquals(expected, bal3);
+
+        BetterLinkedList<String> bal4 = bal1.orderByInto(new BetterLinkedList<>(), s -> s, 2000,
+                BetterListCodec.strings());
+        Assert.assertEquals(bal1.orderBy(s -> s), bal4);
+        Assert.assertEquals(bal4, bal1.orderByInto(new BetterArrayList<>(), s -> s, 100, BetterListCodec.strings(),
+                tmp));
+        Assert.assertEquals(0, countSortFiles(tmp));
+
+        BetterList<Integer> bal5 = BetterArrayList.asList(3, 1, 2, 5, 4);
+        CloseableIterator<Integer> descending = bal5.orderByDescending(i -> i, 2, BetterListCodec.integers());
+        Assert.assertEquals(Integer.valueOf(5), descending.next());
+        Assert.assertEquals(Integer.valueOf(4), descending.next());
+        descending.close();
+        Assert.assertFalse(descending.hasNext());
+
+        CloseableIterator<Integer> closed = ExternalSort.sort(bal5, Comparator.<Integer>reverseOrder(), 2,
+                BetterListCodec.integers(), tmp);
+        Assert.assertTrue(countSortFiles(tmp) > 0);
+        Assert.assertEquals(Integer.valueOf(5), closed.next());
+        closed.close();
+        Assert.assertEquals(0, countSortFiles(tmp));
+    }
+
+    @Test
+    public void testOrderByExternalFanIn() throws IOException {
+        BetterArrayList<String> bal1 = new BetterArrayList<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++)
+            bal1.add(random.nextInt(50) + "#" + i);
+        BetterList<String> expected = bal1.orderBy(s -> Integer.parseInt(s.substring(0, s.indexOf('#'))));
+
+        Path tmp = tempFolder.getRoot().toPath();
+        BetterList<String> bal2 = new BetterArrayList<>();
+        try (CloseableIterator<String> sorted = ExternalSort.sort(bal1,
+                Comparator.comparing((String s) -> Integer.parseInt(s.substring(0, s.indexOf('#')))), 8,
+                BetterListCodec.strings(), tmp, 4)) {
+            Assert.assertTrue(countSortFiles(tmp) <= 4);
+            sorted.forEachRemaining(bal2::add);
+        }
+        Assert.assertEquals(expected, bal2);
+        Assert.assertEquals(0, countSortFiles(tmp));
+
+        try {
+            ExternalSort.sort(bal1, Comparator.<String>naturalOrder(), 8, BetterListCodec.strings(), tmp, 1);
+            Assert.fail("no error");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    private static int countSortFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return (int) files.filter(f -> f.getFileName().toString().startsWith("betterlists-sort")).count();
+        }
+    }
+
+    @Test
+    public void testPercentile() {
+        BetterArrayList<Double> bal = new BetterArrayList<>();
+        for (int i = 10000; i > 0; i--)
+            bal.add((double) i);
+
+        Assert.assertEquals(5000.5d, bal.exactPercentile(d -> d, 0.5), 0.0001d);
+        Assert.assertEquals(9900.01d, bal.exactPercentile(d -> d, 0.99), 0.0001d);
+        Assert.assertEquals(1d, bal.exactPercentile(d -> d, 0), 0.0001d);
+        Assert.assertEquals(10000d, bal.exactPercentile(d -> d, 1), 0.0001d);
+
+        Assert.assertEquals(5000d, bal.percentile(d -> d, 0.5), 10000 * 0.01);
+        BetterList<Double> quantiles = bal.quantiles(d -> d, 0.5, 0.95, 0.99);
+        Assert.assertEquals(3, quantiles.size());
+        Assert.assertEquals(9500d, quantiles.get(1), 10000 * 0.005);
+        Assert.assertEquals(9900d, quantiles.get(2), 10000 * 0.002);
+
+        TDigest digest1 = bal.take(5000).toDigest(d -> d, 100);
+        TDigest digest2 = bal.skip(5000).toDigest(d -> d, 100);
+        digest1.merge(digest2);
+        Assert.assertEquals(10000, digest1.size());
+        Assert.assertEquals(9900d, digest1.quantile(0.99), 10000 * 0.005);
+
+        Assert.assertNull(new BetterArrayList<Double>().percentile(d -> d, 0.5));
+        Assert.assertNull(new BetterArrayList<Double>().exactPercentile(d -> d, 0.5));
+        try {
+            bal.percentile(d -> d, 1.5);
+            Assert.fail("no error");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testRemoveWhere() {
+        List<BetterList<Integer>> lists = Arrays.asList(new BetterArrayList<>(), new BetterLinkedList<>(),
+                new BetterVector<>(), new BetterCopyOnWriteArrayList<>(), new BetterArrayDeque<>(),
+                new BetterChunkedList<>(4));
+        for (BetterList<Integer> list : lists) {
+            for (int i = 0; i < 100; i++)
+                list.add(i);
+            Assert.assertEquals(50, list.removeWhere(i -> i % 2 == 0));
+            Assert.assertEquals(25, list.retainWhere(i -> i < 50));
+            Assert.assertEquals(Arrays.asList(1, 3, 5), list.take(3));
+            Assert.assertEquals(25, list.size());
+        }
+
+        BetterArrayDeque<Integer> bad = new BetterArrayDeque<>();
+        for (int i = 0; i < 10; i++)
+            bad.addFirst(i);
+        Assert.assertEquals(5, bad.removeWhere(i -> i < 5));
+        Assert.assertEquals(Arrays.asList(9, 8, 7, 6, 5), bad);
+        bad.addFirst(10);
+        Assert.assertEquals(Arrays.asList(10, 9, 8, 7, 6, 5), bad);
+
+        BetterDoubleList bdl = BetterDoubleList.asList(1, 2, 3, 4);
+        Assert.assertEquals(2, bdl.removeWhere(d -> d > 2));
+        Assert.assertEquals(Arrays.asList(1d, 2d), bdl);
+        try {
+            bdl.removeWhere(d -> {
+                if (d > 1)
+                    throw new IllegalStateException();
+                return true;
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals(Arrays.asList(1d, 2d), bdl);
+        }
+    }
+
+    @Test
+    public void testReplaceWhere() {
+        BetterArrayList<Integer> bal = BetterArrayList.asList(1, 2, 3, 4);
+        Assert.assertEquals(2, bal.replaceWhere(i -> i % 2 == 0, i -> -i));
+        Assert.assertEquals(Arrays.asList(1, -2, 3, -4), bal);
+
+        BetterCopyOnWriteArrayList<Integer> cow = BetterCopyOnWriteArrayList.asList(1, 2, 3, 4);
+        Assert.assertEquals(1, cow.replaceWhere(i -> i > 3, i -> 0));
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 0), cow);
+    }
+
     @Test
     public void testReverse() {
         BetterArrayList<Dummy> bal1 = new BetterArrayList<>();
@@ -226,6 +737,25 @@ public class BetterListsTests {
             Assert.assertEquals(bal1.get(i), bal2.get(4 - i));
     }
 
+    @Test
+    public void testSample() {
+        BetterArrayList<Integer> bal = new BetterArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            bal.add(i);
+
+        BetterList<Integer> sample = bal.sample(10, 42L);
+        Assert.assertEquals(10, sample.size());
+        Assert.assertEquals(10, sample.approxCountDistinct(i -> i, 10));
+        Assert.assertEquals(sample, bal.sample(10, 42L));
+        Assert.assertNotEquals(sample, bal.sample(10, 43L));
+        Assert.assertEquals(1000, bal.sample(2000, 1L).size());
+
+        double meanOfSamples = 0;
+        for (int seed = 0; seed < 100; seed++)
+            meanOfSamples += bal.sample(10, seed).mean(i -> (double) i) / 100;
+        Assert.assertEquals(499.5d, meanOfSamples, 50d);
+    }
+
     @Test
     public void testSelect() {
         BetterArrayList<Dummy> bal1 = new BetterArrayList<>();
@@ -241,6 +771,64 @@ public class BetterListsTests {
             Assert.assertEquals(bal1.get(i).d, bal2.get(i), 0.0001);
     }
 
+    @Test
+    public void testSelectAsync() throws Exception {
+        BetterArrayList<Integer> bal1 = new BetterArrayList<>();
+        for (int i = 0; i < 100; i++)
+            bal1.add(i);
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        BetterList<Integer> bal2 = bal1.selectAsync(i -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return i * 2;
+        }, 4).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(100, bal2.size());
+        for (int i = 0; i < 100; i++)
+            Assert.assertEquals(i * 2, (int) bal2.get(i));
+        Assert.assertTrue(maxRunning.get() <= 4);
+
+        try {
+            bal1.selectAsync(i -> {
+                if (i == 50)
+                    throw new IllegalStateException("fail");
+                return i;
+            }, 4).get(10, TimeUnit.SECONDS);
+            Assert.fail("no error");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        Assert.assertEquals(0, new BetterArrayList<Integer>().selectAsync(i -> i, 2).get().size());
+    }
+
+    @Test
+    public void testSelectIndexed() {
+        BetterLinkedList<String> bll = BetterLinkedList.asList("a", "b", "c");
+
+        Assert.assertEquals(Arrays.asList("0a", "1b", "2c"), bll.selectIndexed((s, i) -> i + s));
+        Assert.assertTrue(bll.selectIndexed((s, i) -> i).sequenceEqual(Arrays.asList(0, 1, 2)));
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), bll.select(Objects::toString));
+    }
+
+    @Test
+    public void testSelectInto() {
+        BetterArrayList<Dummy> bal = BetterArrayList.asList(new Dummy(1d, "hello"), new Dummy(2d, "test"));
+        BetterArrayList<String> buffer = BetterArrayList.asList("start");
+
+        Assert.assertSame(buffer, bal.selectInto(buffer, du -> du.s));
+        Assert.assertEquals(Arrays.asList("start", "hello", "test"), buffer);
+        buffer.clear();
+        bal.selectManyInto(buffer, du -> Arrays.asList(du.s, du.s.toUpperCase()));
+        Assert.assertEquals(Arrays.asList("hello", "HELLO", "test", "TEST"), buffer);
+    }
+
     @Test
     public void testSelectManyArrays() {
         BetterArrayList<Dummy> bal1 = new BetterArrayList<>();
@@ -269,6 +857,16 @@ public class BetterListsTests {
         Assert.assertEquals("lo", bal2.get(3));
     }
 
+    @Test
+    public void testSequenceEqual() {
+        BetterArrayList<Integer> bal = BetterArrayList.asList(1, 2, null);
+
+        Assert.assertTrue(bal.sequenceEqual(BetterLinkedList.asList(1, 2, null)));
+        Assert.assertFalse(bal.sequenceEqual(Arrays.asList(1, 2, 3)));
+        Assert.assertFalse(bal.sequenceEqual(Arrays.asList(1, 2)));
+        Assert.assertTrue(new BetterArrayList<Integer>().sequenceEqual(new ArrayList<String>()));
+    }
+
     @Test
     public void testSkip() {
         BetterArrayList<Dummy> bal1 = new BetterArrayList<>();
@@ -292,6 +890,17 @@ public class BetterListsTests {
             Assert.assertEquals(bal1.get(i + 3), bal3.get(i));
     }
 
+    @Test
+    public void testSkipInto() {
+        BetterLinkedList<Integer> bll = BetterLinkedList.asList(1, 2, 3, 4);
+        List<Integer> buffer = new ArrayList<>();
+
+        Assert.assertEquals(Arrays.asList(3, 4), bll.skipInto(buffer, 2));
+        Assert.assertEquals(Arrays.asList(3, 4, 1, 2, 3, 4), bll.skipInto(buffer, -1));
+        Assert.assertEquals(Arrays.asList(), bll.skipInto(new ArrayList<>(), 10));
+        Assert.assertTrue(bll.skip(10).isEmpty());
+    }
+
     @Test
     public void testSum() {
         BetterArrayList<Dummy> bal = new BetterArrayList<>();
@@ -326,6 +935,17 @@ public class BetterListsTests {
             Assert.assertEquals(bal1.get(i), bal3.get(i));
     }
 
+    @Test
+    public void testTakeInto() {
+        BetterArrayList<Integer> bal = BetterArrayList.asList(1, 2, 3, 4);
+        BetterArrayList<Integer> buffer = new BetterArrayList<>();
+
+        Assert.assertEquals(Arrays.asList(1, 2), bal.takeInto(buffer, 2));
+        Assert.assertEquals(Arrays.asList(1, 2, 1, 2, 3, 4), bal.takeInto(buffer, Integer.MAX_VALUE));
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4), bal.take(Integer.MAX_VALUE));
+        Assert.assertTrue(bal.take(-1).isEmpty());
+    }
+
     @Test
     public void testUnion() {
         BetterArrayList<Dummy> bal1 = new BetterArrayList<>();
@@ -358,4 +978,46 @@ public class BetterListsTests {
         Assert.assertEquals(new Dummy(1d, "hello"), bal2.get(0));
         Assert.assertEquals(new Dummy(3d, "hello"), bal2.get(1));
     }
+
+    @Test
+    public void testWhereInto() {
+        BetterArrayList<Integer> bal = BetterArrayList.asList(1, 2, 3, 4, 5, 6);
+        BetterArrayList<Integer> buffer = new BetterArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            buffer.clear();
+            bal.whereInto(buffer, n -> n % 2 == 0);
+            Assert.assertEquals(Arrays.asList(2, 4, 6), buffer);
+        }
+    }
+
+    @Test
+    public void testWhereIndexed() {
+        BetterArrayList<String> bal = BetterArrayList.asList("a", "b", "c", "d", "e");
+
+        Assert.assertEquals(Arrays.asList("a", "c", "e"), bal.whereIndexed((s, i) -> i % 2 == 0));
+    }
+
+    @Test
+    public void testWhereAsync() throws Exception {
+        BetterArrayList<Integer> bal1 = new BetterArrayList<>();
+        for (int i = 0; i < 100; i++)
+            bal1.add(i);
+
+        BetterList<Integer> bal2 = bal1.whereAsync(i -> i % 3 == 0, 8).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(34, bal2.size());
+        for (int i = 0; i < bal2.size(); i++)
+            Assert.assertEquals(i * 3, (int) bal2.get(i));
+    }
+
+    @Test
+    public void testZip() {
+        BetterLinkedList<Long> timestamps = BetterLinkedList.asList(10L, 20L, 30L, 40L);
+        BetterLinkedList<Double> values = BetterLinkedList.asList(1.5, 2.5, 3.5);
+
+        Assert.assertEquals(Arrays.asList("10=1.5", "20=2.5", "30=3.5"), timestamps.zip(values, (t, v) -> t + "=" + v));
+        Assert.assertEquals(Arrays.asList(11.5, 22.5), timestamps.zip3(values, Arrays.asList(0, 0),
+                (t, v, z) -> t + v + z));
+        Assert.assertTrue(timestamps.zip(new ArrayList<String>(), (t, s) -> s).isEmpty());
+    }
 }
@@ -0,0 +1,57 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class BetterSetTests {
+
+    @Test
+    public void testHashSet() {
+        BetterHashSet<Integer> set = BetterHashSet.asSet(1, 2, 3, 4, 4);
+        Assert.assertEquals(4, set.count());
+        Assert.assertEquals(2, set.count(i -> i % 2 == 0));
+        Assert.assertTrue(set.any(i -> i > 3));
+        Assert.assertEquals(10d, set.sum(i -> (double) i), 0d);
+        Assert.assertEquals(4, set.distinct().size());
+        Assert.assertEquals(Arrays.asList(1, 3), set.exclusion(Arrays.asList(2, 4)).orderBy(i -> i));
+    }
+
+    @Test
+    public void testLinkedHashSet() {
+        BetterLinkedHashSet<String> set = BetterLinkedHashSet.asSet("c", "a", "b", "a");
+        Assert.assertEquals(Arrays.asList("c", "a", "b"), set.select(s -> s));
+        Assert.assertEquals("c", set.first());
+        Assert.assertEquals("b", set.last());
+        Assert.assertEquals(Arrays.asList("a", "b"), set.skip(1));
+    }
+
+    @Test
+    public void testTreeSet() {
+        BetterTreeSet<Integer> set = BetterTreeSet.asSet(5, 1, 4, 2, 3);
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 5), set.take(10));
+        Assert.assertEquals(Arrays.asList(2, 3), set.range(2, 4));
+        Assert.assertEquals(Arrays.asList(3), set.range(2, 4).where(i -> i > 2));
+        Assert.assertEquals(Integer.valueOf(1), set.first());
+        Assert.assertEquals(Integer.valueOf(5), set.last());
+    }
+
+    @Test
+    public void testHashMap() {
+        BetterHashMap<String, Integer> map = new BetterHashMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+        Assert.assertEquals("c", map.entries().first(e -> e.getValue() > 2).getKey());
+        Assert.assertEquals(2, map.keys().count(k -> !k.equals("a")));
+        Assert.assertEquals(6d, map.valueCollection().sum(v -> (double) v), 0d);
+        Map<Boolean, BetterList<Integer>> parity = map.valueCollection().groupBy(v -> v % 2 == 0);
+        Assert.assertEquals(Arrays.asList(2), parity.get(true));
+
+        map.keys().remove("a");
+        Assert.assertFalse(map.containsKey("a"));
+        Assert.assertEquals(2, map.entries().count());
+    }
+}
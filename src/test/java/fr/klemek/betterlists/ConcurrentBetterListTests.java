@@ -0,0 +1,104 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class ConcurrentBetterListTests {
+
+    private static final int THREADS = 8;
+
+    private static void run(int threads, Runnable task) throws InterruptedException {
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        CountDownLatch startSignal = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    startSignal.await();
+                    task.run();
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+            workers[t].start();
+        }
+        startSignal.countDown();
+        for (Thread worker : workers)
+            worker.join();
+        if (!errors.isEmpty())
+            throw new AssertionError(errors.peek());
+    }
+
+    private static void testAppends(Supplier<BetterList<Integer>> supplier) throws InterruptedException {
+        BetterList<Integer> list = supplier.get();
+        int perThread = 5000;
+        int[] next = {0};
+        run(THREADS, () -> {
+            int thread;
+            synchronized (next) {
+                thread = next[0]++;
+            }
+            for (int i = 0; i < perThread; i++)
+                list.add(thread * perThread + i);
+        });
+        Assert.assertEquals(THREADS * perThread, list.size());
+        Assert.assertEquals(THREADS * perThread, list.distinct().size());
+        for (int thread = 0; thread < THREADS; thread++) {
+            int from = thread * perThread;
+            BetterList<Integer> own = list.where(e -> e >= from && e < from + perThread);
+            Assert.assertEquals(own.orderBy(e -> e), own);
+        }
+    }
+
+    private static void testScansDuringWrites(Supplier<BetterList<Integer>> supplier) throws InterruptedException {
+        BetterList<Integer> list = supplier.get();
+        AtomicInteger writing = new AtomicInteger(THREADS / 2);
+        int[] writers = {THREADS / 2};
+        run(THREADS, () -> {
+            boolean writer;
+            synchronized (writers) {
+                writer = writers[0]-- > 0;
+            }
+            if (writer) {
+                for (int i = 1; i <= 2000; i++)
+                    list.addAll(Arrays.asList(-i, i));
+                writing.decrementAndGet();
+            } else {
+                while (writing.get() > 0) {
+                    Assert.assertEquals(0d, list.sum(e -> (double) e), 0d);
+                    BetterList<Integer> snapshot = list.where(e -> true);
+                    Assert.assertEquals(0, snapshot.size() % 2);
+                    Assert.assertEquals(snapshot.size() / 2, snapshot.count(e -> e > 0));
+                    Assert.assertEquals(0d, list.select(e -> e).sum(e -> (double) e), 0d);
+                }
+            }
+        });
+        Assert.assertEquals(THREADS / 2 * 4000, list.size());
+        Assert.assertEquals(0d, list.sum(e -> (double) e), 0d);
+    }
+
+    @Test
+    public void testVector() throws InterruptedException {
+        testAppends(BetterVector::new);
+        testScansDuringWrites(BetterVector::new);
+    }
+
+    @Test
+    public void testStack() throws InterruptedException {
+        testAppends(BetterStack::new);
+        testScansDuringWrites(BetterStack::new);
+    }
+
+    @Test
+    public void testCopyOnWrite() throws InterruptedException {
+        testAppends(BetterCopyOnWriteArrayList::new);
+        testScansDuringWrites(BetterCopyOnWriteArrayList::new);
+    }
+}
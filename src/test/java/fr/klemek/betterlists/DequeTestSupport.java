@@ -0,0 +1,53 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class DequeTestSupport {
+
+    private DequeTestSupport() {
+    }
+
+    /**
+     * Applies random insertions and removals at both ends and at random indices to a deque and to
+     * an ArrayList, checking after each one that they hold the same elements.
+     *
+     * @param deque      - the empty deque to test
+     * @param operations - the number of operations to apply
+     */
+    static void randomOperations(BetterDeque<Integer> deque, int operations) {
+        Random random = new Random(0);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < operations; i++) {
+            int op = random.nextInt(10);
+            if (op < 2) {
+                deque.addFirst(i);
+                expected.add(0, i);
+            } else if (op < 4) {
+                deque.addLast(i);
+                expected.add(i);
+            } else if (op < 6) {
+                int index = random.nextInt(expected.size() + 1);
+                deque.add(index, i);
+                expected.add(index, i);
+            } else if (op < 8 && !expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                Assert.assertEquals(expected.remove(index), deque.remove(index));
+            } else if (op == 8 && !expected.isEmpty()) {
+                Assert.assertEquals(expected.remove(0), deque.pollFirst());
+            } else if (!expected.isEmpty()) {
+                Assert.assertEquals(expected.remove(expected.size() - 1), deque.pollLast());
+            }
+            Assert.assertEquals(expected.size(), deque.size());
+            if (!expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                Assert.assertEquals(expected.get(index), deque.get(index));
+            }
+        }
+        Assert.assertEquals(expected, deque);
+        Assert.assertArrayEquals(expected.toArray(), deque.toArray());
+    }
+}
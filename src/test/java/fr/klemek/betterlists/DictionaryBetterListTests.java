@@ -0,0 +1,94 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+public class DictionaryBetterListTests {
+
+    private static BetterArrayList<String> randomValues(Random random, int size, int cardinality) {
+        BetterArrayList<String> list = new BetterArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            list.add("v" + random.nextInt(cardinality));
+        return list;
+    }
+
+    @Test
+    public void testList() {
+        DictionaryBetterList<String> list = DictionaryBetterList.asList("a", "b", "a", null, "c");
+        Assert.assertEquals(Arrays.asList("a", "b", "a", null, "c"), list);
+        Assert.assertEquals(4, list.dictionary().size());
+        Assert.assertEquals(2, list.lastIndexOf("a"));
+        Assert.assertEquals(3, list.indexOf(null));
+        Assert.assertFalse(list.contains("d"));
+        Assert.assertEquals("b", list.set(1, "d"));
+        list.add(0, "e");
+        Assert.assertEquals("a", list.remove(1));
+        Assert.assertEquals(Arrays.asList("e", "d", "a", null, "c"), list);
+        Assert.assertFalse(list.contains("b"));
+        Assert.assertEquals(6, list.dictionary().size());
+        list.compact();
+        Assert.assertEquals(Arrays.asList("e", "d", "a", null, "c"), list);
+        Assert.assertEquals(Arrays.asList("e", "d", "a", null, "c"), list.dictionary());
+        list.subList(1, 3).clear();
+        Assert.assertEquals(Arrays.asList("e", null, "c"), list);
+        try {
+            list.get(3);
+            Assert.fail("no error");
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    @Test
+    public void testWidth() {
+        DictionaryBetterList<Integer> list = new DictionaryBetterList<>();
+        for (int i = 0; i < 256; i++)
+            list.add(i);
+        Assert.assertEquals(1, list.codeWidth());
+        list.add(256);
+        Assert.assertEquals(2, list.codeWidth());
+        for (int i = 257; i < 70000; i++)
+            list.add(i);
+        Assert.assertEquals(4, list.codeWidth());
+        for (int i = 0; i < 70000; i++)
+            Assert.assertEquals(i, (int) list.get(i));
+        list.removeRange(100, 70000);
+        list.compact();
+        Assert.assertEquals(1, list.codeWidth());
+        Assert.assertEquals(100, list.size());
+        Assert.assertEquals(99, (int) list.get(99));
+    }
+
+    @Test
+    public void testOperators() {
+        Random random = new Random(0);
+        for (int cardinality : new int[]{10, 1000, 100000}) {
+            BetterArrayList<String> expected = randomValues(random, 200000, cardinality);
+            DictionaryBetterList<String> list = DictionaryBetterList.fromList(expected);
+            Assert.assertEquals(expected, list);
+            Assert.assertEquals(expected.where(s -> s.equals("v7")), list.where(s -> s.equals("v7")));
+            Assert.assertEquals(expected.where(s -> s.endsWith("3")), list.where(s -> s.endsWith("3")));
+            Assert.assertEquals(expected.count(s -> s.length() == 3), list.count(s -> s.length() == 3));
+            Assert.assertEquals(expected.count(), list.count());
+            Assert.assertEquals(expected.distinct(), list.distinct());
+            Map<Integer, BetterList<String>> groups = list.groupBy(String::length);
+            Assert.assertEquals(expected.groupBy(String::length), groups);
+            Assert.assertEquals(Arrays.asList(expected.groupBy(String::length).keySet().toArray()),
+                    Arrays.asList(groups.keySet().toArray()));
+        }
+    }
+
+    @Test
+    public void testWhereKeepsDictionary() {
+        DictionaryBetterList<String> list = DictionaryBetterList.asList("a", "b", "a", "c");
+        DictionaryBetterList<String> filtered = list.where(s -> !s.equals("b"));
+        Assert.assertEquals(Arrays.asList("a", "a", "c"), filtered);
+        filtered.add("b");
+        filtered.add("d");
+        Assert.assertEquals(Arrays.asList("a", "a", "c", "b", "d"), filtered);
+        Assert.assertEquals(3, list.dictionary().size());
+    }
+}
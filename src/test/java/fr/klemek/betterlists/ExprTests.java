@@ -0,0 +1,102 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class ExprTests {
+
+    private static class Contact {
+        final String name;
+        final int age;
+        final double score;
+        final String country;
+
+        Contact(String name, int age, double score, String country) {
+            this.name = name;
+            this.age = age;
+            this.score = score;
+            this.country = country;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getAge() {
+            return age;
+        }
+
+        double getScore() {
+            return score;
+        }
+
+        String getCountry() {
+            return country;
+        }
+    }
+
+    private final BetterArrayList<Contact> contacts = BetterArrayList.asList(
+            new Contact("alice", 30, 4.5, "FR"),
+            new Contact("bob", 17, 3.0, "BE"),
+            new Contact("carol", 45, 1.5, null),
+            new Contact("dave", 21, 5.0, "US"));
+
+    @Test
+    public void testComparisons() {
+        Expr<Contact> adults = Expr.longField(Contact::getAge).ge(21);
+        Assert.assertEquals(Arrays.asList("alice", "carol", "dave"), contacts.where(adults).select(Contact::getName));
+        Assert.assertEquals(1, contacts.count(Expr.longField(Contact::getAge).lt(21)));
+        Assert.assertEquals(2, contacts.count(Expr.longField(Contact::getAge).gt(21)));
+        Assert.assertEquals(3, contacts.count(Expr.longField(Contact::getAge).le(30)));
+        Assert.assertEquals(2, contacts.count(Expr.longField(Contact::getAge).between(17, 30)));
+        Assert.assertEquals(3, contacts.count(Expr.longField(Contact::getAge).ne(45)));
+        Assert.assertEquals(0, contacts.count(Expr.longField(Contact::getAge).gt(Long.MAX_VALUE)));
+
+        Assert.assertEquals("dave", contacts.first(Expr.doubleField(Contact::getScore).eq(5)).name);
+        Assert.assertEquals(2, contacts.count(Expr.doubleField(Contact::getScore).between(3, 5)));
+        Assert.assertTrue(contacts.all(Expr.doubleField(Contact::getScore).gt(1)));
+
+        Assert.assertEquals(2, contacts.count(Expr.field(Contact::getCountry).in("FR", "BE")));
+        Assert.assertEquals(1, contacts.count(Expr.field(Contact::getCountry).eq(null)));
+        Assert.assertEquals(3, contacts.count(Expr.field(Contact::getCountry).ne("FR")));
+        Assert.assertEquals(1, contacts.count(Expr.field(Contact::getCountry).gt("FR")));
+        Assert.assertEquals(2, contacts.count(Expr.field(Contact::getName).lt("carol")));
+        Assert.assertEquals(3, contacts.count(Expr.field(Contact::getCountry).notNull()));
+    }
+
+    @Test
+    public void testRules() {
+        Expr<Contact> rule = Expr.longField(Contact::getAge).is(Expr.Operator.parse(">="), 21)
+                .and(Expr.field(Contact::getCountry).is(Expr.Operator.parse("ne"), "US"));
+        Assert.assertEquals(Arrays.asList("alice", "carol"), contacts.where(rule.simplify()).select(Contact::getName));
+        try {
+            Expr.Operator.parse("~");
+            Assert.fail("no error");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testSimplify() {
+        Random random = new Random(0);
+        Expr<Contact> ageOver20 = Expr.longField(Contact::getAge).gt(20);
+        Expr<Contact> fromFrance = Expr.field(Contact::getCountry).eq("FR");
+        Expr<Contact> goodScore = Expr.doubleField(Contact::getScore).ge(3);
+        Expr<Contact> expr = ageOver20.and(Expr.always()).and(fromFrance.or(goodScore.not().not()))
+                .or(Expr.never()).and(Expr.allOf(Arrays.asList(ageOver20, goodScore)).not().not());
+        Expr<Contact> simplified = expr.simplify();
+        for (int i = 0; i < 100; i++) {
+            Contact c = new Contact("x", random.nextInt(40), random.nextDouble() * 5,
+                    random.nextBoolean() ? "FR" : null);
+            Assert.assertEquals(expr.test(c), simplified.test(c));
+            Assert.assertEquals(expr.test(c), expr.apply(c));
+        }
+        Assert.assertSame(Expr.never(), ageOver20.and(Expr.never()).simplify());
+        Assert.assertSame(ageOver20, ageOver20.not().not().simplify());
+        Assert.assertSame(Expr.always(), Expr.anyOf(Arrays.asList(fromFrance, Expr.always())).simplify());
+        Assert.assertSame(Expr.never(), Expr.<Contact>anyOf(Arrays.asList()).simplify());
+    }
+}
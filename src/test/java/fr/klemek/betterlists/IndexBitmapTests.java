@@ -0,0 +1,96 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+public class IndexBitmapTests {
+
+    private static BitSet toBitSet(IndexBitmap bitmap) {
+        BitSet bits = new BitSet();
+        bitmap.forEach(bits::set);
+        return bits;
+    }
+
+    private static IndexBitmap randomBitmap(Random random, int size, double density, BitSet expected) {
+        IndexBitmap.Builder builder = new IndexBitmap.Builder();
+        for (int i = 0; i < size; i++) {
+            if (random.nextDouble() < density) {
+                builder.add(i);
+                expected.set(i);
+            }
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testOperations() {
+        Random random = new Random(0);
+        double[] densities = {0.001, 0.05, 0.5, 0.99};
+        for (double d1 : densities) {
+            for (double d2 : densities) {
+                BitSet b1 = new BitSet();
+                BitSet b2 = new BitSet();
+                IndexBitmap m1 = randomBitmap(random, 200000, d1, b1);
+                IndexBitmap m2 = randomBitmap(random, 200000, d2, b2);
+                Assert.assertEquals(b1.cardinality(), m1.cardinality());
+                Assert.assertEquals(b1, toBitSet(m1));
+
+                BitSet and = (BitSet) b1.clone();
+                and.and(b2);
+                Assert.assertEquals(and, toBitSet(m1.and(m2)));
+                Assert.assertEquals(and.cardinality(), m1.and(m2).cardinality());
+
+                BitSet or = (BitSet) b1.clone();
+                or.or(b2);
+                Assert.assertEquals(or, toBitSet(m1.or(m2)));
+                Assert.assertEquals(or.cardinality(), m1.or(m2).cardinality());
+
+                BitSet andNot = (BitSet) b1.clone();
+                andNot.andNot(b2);
+                Assert.assertEquals(andNot, toBitSet(m1.andNot(m2)));
+                Assert.assertEquals(andNot.cardinality(), m1.andNot(m2).cardinality());
+            }
+        }
+    }
+
+    @Test
+    public void testBasics() {
+        IndexBitmap bitmap = IndexBitmap.of(70000, 3, 1, 3);
+        Assert.assertEquals(3, bitmap.cardinality());
+        Assert.assertArrayEquals(new int[]{1, 3, 70000}, bitmap.toArray());
+        Assert.assertTrue(bitmap.contains(70000));
+        Assert.assertFalse(bitmap.contains(2));
+        Assert.assertFalse(bitmap.contains(-1));
+        Assert.assertArrayEquals(new int[]{0, 2, 4}, bitmap.not(5).toArray());
+        Assert.assertEquals(IndexBitmap.range(1, 4).andNot(IndexBitmap.of(2)), IndexBitmap.of(1, 3));
+        Assert.assertTrue(IndexBitmap.empty().isEmpty());
+        Assert.assertTrue(bitmap.and(IndexBitmap.empty()).isEmpty());
+    }
+
+    @Test
+    public void testWhereMask() {
+        BetterArrayList<Integer> bal = new BetterArrayList<>();
+        BetterLinkedList<Integer> bll = new BetterLinkedList<>();
+        for (int i = 0; i < 100000; i++) {
+            bal.add(i);
+            bll.add(i);
+        }
+        IndexBitmap even = bal.whereMask(i -> i % 2 == 0);
+        IndexBitmap byThree = bal.whereMask(i -> i % 3 == 0);
+        IndexBitmap small = bal.whereMask(i -> i < 20);
+        Assert.assertEquals(50000, even.cardinality());
+        Assert.assertEquals(Arrays.asList(0, 6, 12, 18), bal.select(even.and(byThree).and(small)));
+        Assert.assertEquals(Arrays.asList(1, 5, 7, 11, 13, 17, 19), bal.select(small.andNot(even.or(byThree))));
+        Assert.assertEquals(bal.where(i -> i % 2 == 0 || i % 3 != 0), bal.select(even.or(byThree.not(bal.size()))));
+        Assert.assertEquals(bal.select(even.and(byThree)), bll.select(bll.whereMask(i -> i % 6 == 0)));
+        try {
+            bll.select(IndexBitmap.of(100000));
+            Assert.fail("no error");
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class QueryLimitsTests {
+
+    private static BetterArrayList<Integer> range(int size) {
+        BetterArrayList<Integer> list = new BetterArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            list.add(i);
+        return list;
+    }
+
+    @Test
+    public void testNone() {
+        BetterArrayList<Integer> list = range(10000);
+        BetterList<Integer> limited = list.withLimits(QueryLimits.none());
+        Assert.assertEquals(list.where(i -> i % 3 == 0), limited.where(i -> i % 3 == 0));
+        Assert.assertEquals(list.orderByDescending(i -> i), limited.orderByDescending(i -> i));
+        Assert.assertEquals(5000, limited.count(i -> i % 2 == 0));
+        Assert.assertEquals(10000, limited.size());
+        Assert.assertEquals(42, (int) limited.get(42));
+        try {
+            limited.add(1);
+            Assert.fail("no error");
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
+    @Test
+    public void testMaxScan() {
+        BetterList<Integer> limited = range(1000).withLimits(QueryLimits.maxScan(1000));
+        Assert.assertEquals(1000, limited.count());
+        Assert.assertEquals(1000, limited.count());
+        limited = range(1001).withLimits(QueryLimits.maxScan(1000));
+        Assert.assertEquals(Integer.valueOf(10), limited.first(i -> i == 10));
+        try {
+            limited.where(i -> i > 500);
+            Assert.fail("no error");
+        } catch (QueryAbortedException e) {
+            Assert.assertEquals(QueryAbortedException.Reason.MAX_SCAN, e.getReason());
+            Assert.assertEquals(1000, e.getScanned());
+        }
+    }
+
+    @Test
+    public void testCancel() {
+        CancellationToken token = new CancellationToken();
+        BetterList<Integer> limited = range(100000).withLimits(QueryLimits.cancellable(token).withCheckInterval(100));
+        try {
+            limited.select(i -> {
+                if (i == 5000)
+                    token.cancel();
+                return i * 2;
+            });
+            Assert.fail("no error");
+        } catch (QueryAbortedException e) {
+            Assert.assertEquals(QueryAbortedException.Reason.CANCELLED, e.getReason());
+            Assert.assertTrue(e.getScanned() > 5000);
+            Assert.assertTrue(e.getScanned() <= 5100);
+        }
+        try {
+            limited.count();
+            Assert.fail("no error");
+        } catch (QueryAbortedException e) {
+            Assert.assertEquals(0, e.getScanned());
+        }
+    }
+
+    @Test
+    public void testDeadline() {
+        BetterList<Integer> limited = range(1000).withLimits(QueryLimits.timeout(1, TimeUnit.HOURS));
+        Assert.assertEquals(500, limited.count(i -> i < 500));
+        limited = range(1000).withLimits(QueryLimits.timeout(10, TimeUnit.MILLISECONDS).withCheckInterval(1));
+        try {
+            limited.where(i -> {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            });
+            Assert.fail("no error");
+        } catch (QueryAbortedException e) {
+            Assert.assertEquals(QueryAbortedException.Reason.DEADLINE, e.getReason());
+            Assert.assertTrue(e.getScanned() < 1000);
+        }
+    }
+
+    @Test
+    public void testOrderBy() {
+        CancellationToken token = new CancellationToken();
+        BetterList<Integer> limited = range(10000).withLimits(QueryLimits.cancellable(token).withCheckInterval(10));
+        int[] calls = {0};
+        try {
+            limited.orderBy(i -> {
+                if (++calls[0] == 5000)
+                    token.cancel();
+                return -i;
+            });
+            Assert.fail("no error");
+        } catch (QueryAbortedException e) {
+            Assert.assertEquals(QueryAbortedException.Reason.CANCELLED, e.getReason());
+        }
+    }
+
+    @Test
+    public void testCollection() {
+        BetterHashSet<Integer> set = new BetterHashSet<>(range(100));
+        BetterCollection<Integer> limited = set.withLimits(QueryLimits.maxScan(50));
+        try {
+            limited.sum(i -> (double) i);
+            Assert.fail("no error");
+        } catch (QueryAbortedException e) {
+            Assert.assertEquals(QueryAbortedException.Reason.MAX_SCAN, e.getReason());
+        }
+        Assert.assertEquals(100, set.withLimits(QueryLimits.maxScan(100)).distinct().size());
+    }
+}
@@ -0,0 +1,70 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Function;
+
+public class SortedBetterListTests {
+
+    @Test
+    public void testAdd() {
+        SortedBetterList<String, Integer> sbl = SortedBetterList.orderedBy(String::length);
+        sbl.add("ccc");
+        sbl.add("a");
+        sbl.add("bb");
+        sbl.add("b");
+        sbl.addAll(Arrays.asList("eeeee", "dddd", "", "ffffff", "gg", "hhh", "i", "jjjj"));
+
+        Assert.assertEquals(Arrays.asList("", "a", "b", "i", "bb", "gg", "ccc", "hhh", "dddd", "jjjj", "eeeee",
+                "ffffff"), sbl);
+
+        try {
+            sbl.add(0, "z");
+            Assert.fail("no error");
+        } catch (UnsupportedOperationException e) {
+        }
+
+        Assert.assertTrue(sbl.remove("gg"));
+        Assert.assertFalse(sbl.remove("zz"));
+        Assert.assertEquals(11, sbl.size());
+        Assert.assertEquals("bb", sbl.get(4));
+        Assert.assertEquals("ccc", sbl.get(5));
+    }
+
+    @Test
+    public void testLookups() {
+        SortedBetterList<Integer, Integer> sbl = new SortedBetterList<>(i -> i / 10, Comparator.naturalOrder(),
+                Arrays.asList(50, 10, 30, 31, 20, 70));
+
+        Assert.assertEquals(2, sbl.indexOfKey(3));
+        Assert.assertEquals(-5, sbl.indexOfKey(4));
+        Assert.assertEquals(Integer.valueOf(31), sbl.floor(4));
+        Assert.assertEquals(Integer.valueOf(50), sbl.ceiling(4));
+        Assert.assertNull(sbl.floor(0));
+        Assert.assertNull(sbl.ceiling(8));
+
+        Assert.assertEquals(Arrays.asList(20, 30, 31), sbl.range(2, 5));
+        Assert.assertEquals(0, sbl.range(5, 2).size());
+
+        Assert.assertEquals(Arrays.asList(10, 20), sbl.takeWhileMonotone(i -> i < 30));
+        Assert.assertEquals(Arrays.asList(50, 70), sbl.skipWhileMonotone(i -> i < 50));
+        Assert.assertEquals(sbl.takeWhile(i -> i < 40), sbl.takeWhileMonotone(i -> i < 40));
+        Assert.assertEquals(Arrays.asList(10, 20, 30), sbl.takeWhile(i -> i % 10 == 0));
+        Assert.assertEquals(Arrays.asList(31, 50, 70), sbl.skipWhile(i -> i % 10 == 0));
+    }
+
+    @Test
+    public void testOrderBy() {
+        Function<String, String> key = s -> s.substring(1);
+        SortedBetterList<String, String> sbl = SortedBetterList.orderedBy(key);
+        sbl.addAll(Arrays.asList("xb", "yc", "za", "wb"));
+
+        Assert.assertEquals(Arrays.asList("za", "xb", "wb", "yc"), sbl.orderBy(key));
+        Assert.assertEquals(Arrays.asList("za", "xb", "wb", "yc"), sbl.orderByKey());
+        Assert.assertEquals(Arrays.asList("wb", "xb", "yc", "za"), sbl.orderBy(s -> s));
+        Assert.assertEquals(2, sbl.where(s -> s.endsWith("b")).size());
+    }
+}
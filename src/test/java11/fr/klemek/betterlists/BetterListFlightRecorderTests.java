@@ -0,0 +1,49 @@
+package fr.klemek.betterlists;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.List;
+
+public class BetterListFlightRecorderTests {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testEvents() throws Exception {
+        BetterArrayList<Integer> bal = new BetterArrayList<Integer>() {
+            @Override
+            public BetterListMetrics metrics() {
+                return new BetterListFlightRecorder();
+            }
+        };
+        for (int i = 0; i < 10; i++)
+            bal.add(i);
+
+        bal.where(i -> i % 2 == 0);
+        Path file = tempFolder.getRoot().toPath().resolve("betterlists.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("fr.klemek.betterlists.Operator");
+            recording.start();
+            bal.where(i -> i < 3);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Assert.assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        Assert.assertEquals("where", event.getString("operator"));
+        Assert.assertEquals(10, event.getLong("scanned"));
+        Assert.assertEquals(3, event.getLong("emitted"));
+        Assert.assertTrue(event.getBoolean("allocated"));
+        Assert.assertTrue(event.getLong("elapsed") >= 0);
+    }
+}
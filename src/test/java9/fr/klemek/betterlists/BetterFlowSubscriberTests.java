@@ -0,0 +1,83 @@
+package fr.klemek.betterlists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class BetterFlowSubscriberTests {
+
+    @Test
+    public void testRequestsAndCancel() throws Exception {
+        BetterFlowSubscriber<Integer, BetterList<Integer>> subscriber = new BetterFlowSubscriber<>(
+                BetterFlow.<Integer>create().take(5).toList(), 4);
+        List<Long> requests = new ArrayList<>();
+        boolean[] cancelled = {false};
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                requests.add(n);
+            }
+
+            @Override
+            public void cancel() {
+                cancelled[0] = true;
+            }
+        });
+        for (int i = 0; i < 10; i++)
+            subscriber.onNext(i);
+
+        Assert.assertEquals(Arrays.asList(4L, 2L, 2L), requests);
+        Assert.assertTrue(cancelled[0]);
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), subscriber.result().get(0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testProcessor() throws Exception {
+        BetterFlowProcessor<Integer, String> processor = new BetterFlowProcessor<>(BetterFlow.<Integer>create()
+                .where(i -> i % 2 == 0)
+                .async()
+                .select(i -> "n" + i), 16);
+        BetterFlowSubscriber<String, BetterList<String>> sink = new BetterFlowSubscriber<>(
+                BetterFlow.<String>create().toList(), 8);
+        processor.subscribe(sink);
+        try (SubmissionPublisher<Integer> source = new SubmissionPublisher<>()) {
+            source.subscribe(processor);
+            for (int i = 0; i < 1000; i++)
+                source.submit(i);
+        }
+
+        BetterList<String> out = sink.result().get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(500, out.size());
+        Assert.assertEquals("n0", out.first());
+        Assert.assertEquals("n998", out.last());
+        Assert.assertTrue(processor.isClosed());
+    }
+
+    @Test
+    public void testError() throws InterruptedException, TimeoutException {
+        BetterFlowProcessor<Integer, Integer> processor = new BetterFlowProcessor<>(BetterFlow.<Integer>create()
+                .select(i -> 10 / i));
+        BetterFlowSubscriber<Integer, BetterList<Integer>> sink = new BetterFlowSubscriber<>(
+                BetterFlow.<Integer>create().toList());
+        processor.subscribe(sink);
+        SubmissionPublisher<Integer> source = new SubmissionPublisher<>();
+        source.subscribe(processor);
+        source.submit(1);
+        source.submit(0);
+        try {
+            sink.result().get(10, TimeUnit.SECONDS);
+            Assert.fail("no error");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ArithmeticException);
+        }
+        source.close();
+    }
+}